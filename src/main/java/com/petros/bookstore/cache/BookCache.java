@@ -0,0 +1,253 @@
+package com.petros.bookstore.cache;
+
+import com.petros.bookstore.dto.bookdto.BookCacheStatsDto;
+import com.petros.bookstore.dto.bookdto.BookFacetsDto;
+import com.petros.bookstore.dto.bookdto.BookResponseDto;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-process cache of {@link BookResponseDto}s keyed by book ID. Entries are
+ * evicted least-recently-used once {@code maxSize} is reached and expire after
+ * {@code ttl}. Writers invalidate entries through {@link #evict(Long)}.
+ * Concurrent misses on the same book, and concurrent identical searches, are
+ * collapsed into a single database load. The facet counts over all books are
+ * cached as a single entry with the same TTL.
+ */
+@Component
+public class BookCache {
+
+    private static final List<?> FACETS_KEY = List.of("facets");
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Map<Long, Entry<BookResponseDto>> entries;
+    private final SingleFlight<Long, BookResponseDto> bookLoads;
+    private final SingleFlight<List<?>, Object> searchLoads;
+    private long generation;
+    private Entry<BookFacetsDto> facets;
+    private long facetsGeneration;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public BookCache(@Value("${bookstore.cache.books.max-size:1000}") int maxSize,
+            @Value("${bookstore.cache.books.ttl:PT5M}") Duration ttl,
+            @Value("${bookstore.cache.books.load-timeout:PT2S}") Duration loadTimeout) {
+        this(maxSize, ttl, loadTimeout, System::nanoTime);
+    }
+
+    BookCache(int maxSize, Duration ttl, Duration loadTimeout, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.bookLoads = new SingleFlight<>(loadTimeout);
+        this.searchLoads = new SingleFlight<>(loadTimeout);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry<BookResponseDto>> eldest) {
+                if (size() > BookCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached book, or null if it is absent or expired.
+     *
+     * @param id
+     *            the ID of the book
+     * @return the cached book response, or null
+     */
+    public synchronized BookResponseDto get(Long id) {
+        Entry<BookResponseDto> entry = entries.get(id);
+        if (entry != null && entry.expiresAt() - clock.getAsLong() <= 0) {
+            entries.remove(id);
+            evictions.incrementAndGet();
+            entry = null;
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value();
+    }
+
+    /**
+     * Returns the cached book, or loads it. Concurrent misses on the same ID
+     * share one load. The loaded value is cached only if no invalidation
+     * happened while it was loading.
+     *
+     * @param id
+     *            the ID of the book
+     * @param loader
+     *            loads the book on a miss
+     * @return the book response
+     */
+    public BookResponseDto get(Long id, Function<Long, BookResponseDto> loader) {
+        BookResponseDto cached = get(id);
+        if (cached != null) {
+            return cached;
+        }
+        return bookLoads.load(id, () -> {
+            long loadGeneration = generation();
+            BookResponseDto loaded = loader.apply(id);
+            putIfUnchanged(loaded, loadGeneration);
+            return loaded;
+        });
+    }
+
+    /**
+     * Runs a search, sharing its result with identical searches that arrive
+     * while it is in flight. Results are not cached.
+     *
+     * @param key
+     *            the search parameters, equal for identical searches
+     * @param search
+     *            runs the search
+     * @return the search result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T coalesce(List<?> key, Supplier<T> search) {
+        return (T) searchLoads.load(key, search::get);
+    }
+
+    /**
+     * Caches a book response under its ID.
+     *
+     * @param book
+     *            the book response to cache
+     */
+    public synchronized void put(BookResponseDto book) {
+        entries.put(book.id(), new Entry<>(book, clock.getAsLong() + ttlNanos));
+    }
+
+    /**
+     * Drops the cached book. Inside a transaction the entry is dropped again
+     * once the transaction completes, so a read that repopulated it with the
+     * pre-commit row does not survive the commit.
+     *
+     * @param id
+     *            the ID of the book
+     */
+    public void evict(Long id) {
+        remove(id);
+        bookLoads.forget(id);
+        afterCompletion(() -> remove(id));
+    }
+
+    /**
+     * Returns the cached facet counts over all books, or loads them. Concurrent
+     * misses share one load, and the loaded counts are cached only if no
+     * invalidation happened while they were loading.
+     *
+     * @param loader
+     *            counts the facets on a miss
+     * @return the facet counts over all books
+     */
+    public BookFacetsDto facets(Supplier<BookFacetsDto> loader) {
+        BookFacetsDto cached = cachedFacets();
+        if (cached != null) {
+            return cached;
+        }
+        return (BookFacetsDto) searchLoads.load(FACETS_KEY, () -> {
+            long loadGeneration = facetsGeneration();
+            BookFacetsDto loaded = loader.get();
+            putFacetsIfUnchanged(loaded, loadGeneration);
+            return loaded;
+        });
+    }
+
+    /**
+     * Drops the cached facet counts, again once the surrounding transaction
+     * completes, like {@link #evict(Long)}.
+     */
+    public void evictFacets() {
+        removeFacets();
+        searchLoads.forget(FACETS_KEY);
+        afterCompletion(this::removeFacets);
+    }
+
+    /**
+     * Returns the hit, miss, eviction and invalidation counters together with
+     * the current and maximum size.
+     *
+     * @return the cache statistics
+     */
+    public synchronized BookCacheStatsDto stats() {
+        return new BookCacheStatsDto(hits.get(), misses.get(), evictions.get(), invalidations.get(), //
+                entries.size(), maxSize, bookLoads.stats(), searchLoads.stats());
+    }
+
+    private static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private synchronized long generation() {
+        return generation;
+    }
+
+    private synchronized void putIfUnchanged(BookResponseDto book, long loadGeneration) {
+        if (generation == loadGeneration) {
+            put(book);
+        }
+    }
+
+    private synchronized void remove(Long id) {
+        generation++;
+        if (entries.remove(id) != null) {
+            invalidations.incrementAndGet();
+        }
+    }
+
+    private synchronized BookFacetsDto cachedFacets() {
+        if (facets == null || facets.expiresAt() - clock.getAsLong() <= 0) {
+            return null;
+        }
+        return facets.value();
+    }
+
+    private synchronized long facetsGeneration() {
+        return facetsGeneration;
+    }
+
+    private synchronized void putFacetsIfUnchanged(BookFacetsDto counts, long loadGeneration) {
+        if (facetsGeneration == loadGeneration) {
+            facets = new Entry<>(counts, clock.getAsLong() + ttlNanos);
+        }
+    }
+
+    private synchronized void removeFacets() {
+        facetsGeneration++;
+        facets = null;
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
@@ -0,0 +1,252 @@
+package com.petros.bookstore.cache;
+
+import com.petros.bookstore.dto.bookdto.BookPopularityDto;
+import com.petros.bookstore.dto.bookdto.BookSuggestionDto;
+import com.petros.bookstore.enums.SuggestionType;
+import com.petros.bookstore.repository.SalesRollupRepository;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory type-ahead index of book titles and authors. Titles and authors
+ * are normalized (lower case, accents and punctuation stripped) and stored in
+ * a {@link PrefixTrie} under every word they contain onwards, so "rin"
+ * suggests "The Lord of the Rings". Suggestions are ranked by copies sold; an
+ * author ranks by the copies sold of all their books.
+ * <p>
+ * The index is built once the application is ready and kept current by the
+ * book writers through {@link #put} and {@link #remove}. Sales come from the
+ * per-book sales rollups, which keep the sales of archived orders, and are
+ * refreshed every {@code bookstore.suggestions.refresh-interval}.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookSuggestions {
+
+    /** The most suggestions a single lookup can return. */
+    public static final int MAX_RESULTS = 10;
+
+    private static final Comparator<Suggestion> RANK = Comparator//
+            .comparingLong(Suggestion::popularity).reversed()//
+            .thenComparing(suggestion -> suggestion.value().text(), String.CASE_INSENSITIVE_ORDER)//
+            .thenComparing(suggestion -> suggestion.value().type());
+
+    private final SalesRollupRepository rollupRepo;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final PrefixTrie<Suggestion> trie = new PrefixTrie<>(MAX_RESULTS, RANK);
+    private final Map<Long, IndexedBook> books = new HashMap<>();
+    private final Map<String, IndexedAuthor> authors = new HashMap<>();
+
+    /**
+     * Rebuilds the index from all books and their sales.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<BookPopularityDto> rows = rollupRepo.bookPopularity();
+        lock.writeLock().lock();
+        try {
+            trie.clear();
+            books.clear();
+            authors.clear();
+            rows.forEach(row -> index(row.id(), row.title(), row.author(), row.sold()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Updates the sales of the indexed books, re-ranking those whose sales
+     * changed. Titles and authors stay as {@link #put} last set them, and
+     * books created or removed since the sales were read are left alone.
+     */
+    @Scheduled(fixedDelayString = "${bookstore.suggestions.refresh-interval:PT10M}", //
+            initialDelayString = "${bookstore.suggestions.refresh-interval:PT10M}")
+    public void refreshSales() {
+        Map<Long, Long> sold = rollupRepo.bookPopularity().stream()//
+                .collect(Collectors.toMap(BookPopularityDto::id, BookPopularityDto::sold));
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, IndexedBook> entry : List.copyOf(books.entrySet())) {
+                IndexedBook book = entry.getValue();
+                long current = sold.getOrDefault(entry.getKey(), book.sold());
+                if (current != book.sold()) {
+                    unindex(entry.getKey());
+                    index(entry.getKey(), book.title(), book.author(), current);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the most popular titles and authors containing a word that
+     * starts with the query.
+     *
+     * @param query
+     *            the text typed so far
+     * @param limit
+     *            the maximum number of suggestions, at most
+     *            {@link #MAX_RESULTS}
+     * @return the suggestions, most popular first
+     */
+    public List<BookSuggestionDto> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return trie.top(prefix, Math.min(limit, MAX_RESULTS)).stream().map(Suggestion::value).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a created or updated book, replacing its previous title and
+     * author. An updated book keeps its sales.
+     *
+     * @param id
+     *            the ID of the book
+     * @param title
+     *            the title of the book
+     * @param author
+     *            the author of the book
+     */
+    public void put(Long id, String title, String author) {
+        lock.writeLock().lock();
+        try {
+            IndexedBook previous = unindex(id);
+            index(id, title, author, previous == null ? 0 : previous.sold());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted book from the index.
+     *
+     * @param id
+     *            the ID of the book
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private void index(Long id, String title, String author, long sold) {
+        Suggestion suggestion = new Suggestion(new BookSuggestionDto(title, SuggestionType.TITLE, id), sold);
+        addKeys(normalize(title), suggestion);
+        books.put(id, new IndexedBook(title, author, sold, suggestion));
+
+        String authorKey = normalize(author);
+        if (authorKey.isEmpty()) {
+            return;
+        }
+        IndexedAuthor indexed = authors.get(authorKey);
+        if (indexed == null) {
+            indexed = new IndexedAuthor(author);
+            authors.put(authorKey, indexed);
+        } else {
+            removeKeys(authorKey, indexed.suggestion);
+        }
+        indexed.books++;
+        indexed.sold += sold;
+        indexed.suggestion = indexed.toSuggestion();
+        addKeys(authorKey, indexed.suggestion);
+    }
+
+    private IndexedBook unindex(Long id) {
+        IndexedBook book = books.remove(id);
+        if (book == null) {
+            return null;
+        }
+        removeKeys(normalize(book.title()), book.suggestion());
+
+        String authorKey = normalize(book.author());
+        IndexedAuthor indexed = authors.get(authorKey);
+        if (indexed != null) {
+            removeKeys(authorKey, indexed.suggestion);
+            indexed.books--;
+            indexed.sold -= book.sold();
+            if (indexed.books == 0) {
+                authors.remove(authorKey);
+            } else {
+                indexed.suggestion = indexed.toSuggestion();
+                addKeys(authorKey, indexed.suggestion);
+            }
+        }
+        return book;
+    }
+
+    private void addKeys(String text, Suggestion suggestion) {
+        keys(text).forEach(key -> trie.add(key, suggestion));
+    }
+
+    private void removeKeys(String text, Suggestion suggestion) {
+        keys(text).forEach(key -> trie.remove(key, suggestion));
+    }
+
+    /**
+     * Returns the text from each of its words onwards, so a lookup matches
+     * the start of any word.
+     */
+    private static List<String> keys(String text) {
+        List<String> keys = new ArrayList<>();
+        if (!text.isEmpty()) {
+            keys.add(text);
+            for (int i = text.indexOf(' '); i >= 0; i = text.indexOf(' ', i + 1)) {
+                keys.add(text.substring(i + 1));
+            }
+        }
+        return keys;
+    }
+
+    private record Suggestion(BookSuggestionDto value, long popularity) {
+    }
+
+    private record IndexedBook(String title, String author, long sold, Suggestion suggestion) {
+    }
+
+    private static final class IndexedAuthor {
+        private final String name;
+        private int books;
+        private long sold;
+        private Suggestion suggestion;
+
+        private IndexedAuthor(String name) {
+            this.name = name;
+        }
+
+        private Suggestion toSuggestion() {
+            return new Suggestion(new BookSuggestionDto(name, SuggestionType.AUTHOR, null), sold);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.petros.bookstore.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compressed (radix) trie mapping string keys to values. Every node keeps the
+ * best {@code k} values of its subtree in rank order, so a prefix lookup is a
+ * walk down the prefix followed by returning the node's list. Inserts and
+ * removals refresh those lists along the path they touched. Not thread-safe.
+ *
+ * @param <V>
+ *            the value type; equal values stored under several keys are
+ *            returned once
+ */
+class PrefixTrie<V> {
+
+    private final int k;
+    private final Comparator<V> rank;
+    private final Node<V> root = new Node<>("");
+
+    /**
+     * @param k
+     *            the number of best values kept per node
+     * @param rank
+     *            orders values best first
+     */
+    PrefixTrie(int k, Comparator<V> rank) {
+        this.k = k;
+        this.rank = rank;
+    }
+
+    /**
+     * Stores the value under the key.
+     */
+    void add(String key, V value) {
+        List<Node<V>> path = new ArrayList<>();
+        Node<V> node = root;
+        String rest = key;
+        path.add(node);
+        while (!rest.isEmpty()) {
+            Node<V> child = node.children.get(rest.charAt(0));
+            if (child == null) {
+                child = new Node<>(rest);
+                node.children.put(rest.charAt(0), child);
+            } else {
+                int common = commonPrefix(child.label, rest);
+                if (common < child.label.length()) {
+                    Node<V> split = new Node<>(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    split.children.put(child.label.charAt(0), child);
+                    split.top = child.top;
+                    node.children.put(split.label.charAt(0), split);
+                    child = split;
+                }
+            }
+            rest = rest.substring(child.label.length());
+            node = child;
+            path.add(node);
+        }
+        node.values.add(value);
+        refresh(path);
+    }
+
+    /**
+     * Removes the value stored under the key, if any. Nodes left without
+     * values or children are pruned.
+     */
+    void remove(String key, V value) {
+        List<Node<V>> path = new ArrayList<>();
+        Node<V> node = root;
+        String rest = key;
+        path.add(node);
+        while (!rest.isEmpty()) {
+            Node<V> child = node.children.get(rest.charAt(0));
+            if (child == null || !rest.startsWith(child.label)) {
+                return;
+            }
+            rest = rest.substring(child.label.length());
+            node = child;
+            path.add(node);
+        }
+        if (!node.values.remove(value)) {
+            return;
+        }
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node<V> current = path.get(i);
+            if (current.values.isEmpty() && current.children.isEmpty()) {
+                path.get(i - 1).children.remove(current.label.charAt(0));
+                path.remove(i);
+            } else {
+                break;
+            }
+        }
+        refresh(path);
+    }
+
+    /**
+     * Returns up to {@code limit} of the best values stored under keys
+     * starting with the prefix, best first.
+     */
+    List<V> top(String prefix, int limit) {
+        Node<V> node = root;
+        String rest = prefix;
+        while (!rest.isEmpty()) {
+            Node<V> child = node.children.get(rest.charAt(0));
+            if (child == null) {
+                return List.of();
+            }
+            if (child.label.startsWith(rest)) {
+                node = child;
+                break;
+            }
+            if (!rest.startsWith(child.label)) {
+                return List.of();
+            }
+            rest = rest.substring(child.label.length());
+            node = child;
+        }
+        return node.top.size() <= limit ? node.top : node.top.subList(0, limit);
+    }
+
+    /**
+     * Drops all keys and values.
+     */
+    void clear() {
+        root.children.clear();
+        root.values.clear();
+        root.top = List.of();
+    }
+
+    private void refresh(List<Node<V>> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node<V> node = path.get(i);
+            List<V> candidates = new ArrayList<>(node.values);
+            node.children.values().forEach(child -> candidates.addAll(child.top));
+            candidates.sort(rank);
+            Set<V> best = new LinkedHashSet<>();
+            for (V candidate : candidates) {
+                if (best.size() == k) {
+                    break;
+                }
+                best.add(candidate);
+            }
+            node.top = List.copyOf(best);
+        }
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node<V> {
+        private String label;
+        private final Map<Character, Node<V>> children = new HashMap<>();
+        private final List<V> values = new ArrayList<>(1);
+        private List<V> top = List.of();
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+}
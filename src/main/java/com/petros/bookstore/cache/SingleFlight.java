@@ -0,0 +1,106 @@
+package com.petros.bookstore.cache;
+
+import com.petros.bookstore.dto.bookdto.LoadStatsDto;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent loads of the same key into one. The first caller runs
+ * the loader; callers arriving while it is in flight wait for its result, or
+ * for its exception, instead of loading again. A waiter that is not served
+ * within the timeout runs the loader itself.
+ *
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the value type
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long timeoutNanos;
+
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong collapsed = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    public SingleFlight(Duration timeout) {
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    /**
+     * Returns the value for the key, joining a load already in flight if there
+     * is one.
+     *
+     * @param key
+     *            the key to load
+     * @param loader
+     *            loads the value when no load is in flight
+     * @return the loaded value
+     */
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+        if (running == null) {
+            return lead(key, own, loader);
+        }
+
+        collapsed.incrementAndGet();
+        try {
+            return running.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.incrementAndGet();
+            loads.incrementAndGet();
+            return loader.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + key, e);
+        }
+    }
+
+    /**
+     * Detaches the load in flight for the key, if any, so that later callers
+     * start a fresh one. Callers already waiting still get its result.
+     *
+     * @param key
+     *            the key to forget
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    /**
+     * Returns how many loads ran, how many callers were collapsed onto another
+     * caller's load and how many of those gave up waiting.
+     *
+     * @return the load statistics
+     */
+    public LoadStatsDto stats() {
+        return new LoadStatsDto(loads.get(), collapsed.get(), timeouts.get());
+    }
+
+    private V lead(K key, CompletableFuture<V> own, Supplier<V> loader) {
+        loads.incrementAndGet();
+        try {
+            V value = loader.get();
+            own.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+}
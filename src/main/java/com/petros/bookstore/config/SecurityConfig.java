@@ -27,7 +27,8 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         return http.csrf(AbstractHttpConfigurer::disable).authorizeHttpRequests(auth -> auth.requestMatchers(//
                 "/auth/**", "/v3/api-docs/**", "/swagger-ui/**", //
-                "/swagger-ui.html", "/books", "/books/{bookId}").permitAll().anyRequest().authenticated())
+                "/swagger-ui.html", "/books", "/books/facets", "/books/suggest", "/books/{bookId}") //
+                .permitAll().anyRequest().authenticated())
                 .sessionManagement(session -> session.sessionCreationPolicy(STATELESS))
                 .oauth2ResourceServer(oauth2 -> oauth2.jwt(//
                         jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter()))
@@ -1,5 +1,6 @@
 package com.petros.bookstore.controller;
 
+import com.petros.bookstore.dto.bookdto.BookCacheStatsDto;
 import com.petros.bookstore.dto.bookdto.BookRequestDto;
 import com.petros.bookstore.dto.bookdto.BookResponseDto;
 import com.petros.bookstore.dto.bookdto.BookUpdateRequestDto;
@@ -67,4 +68,16 @@ public class BookAdminController {
         bookService.deleteBookById(bookId);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Returns the hit, miss and eviction counters of the book cache, for
+     * sizing it.
+     *
+     * @return the book cache statistics
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/cache/stats")
+    public BookCacheStatsDto getCacheStats() {
+        return bookService.getCacheStats();
+    }
 }
@@ -1,12 +1,23 @@
 package com.petros.bookstore.controller;
 
+import com.petros.bookstore.cache.BookSuggestions;
+import com.petros.bookstore.dto.bookdto.BookFacetsDto;
 import com.petros.bookstore.dto.bookdto.BookResponseDto;
+import com.petros.bookstore.dto.bookdto.BookSuggestionDto;
+import com.petros.bookstore.dto.bookdto.BookSummaryDto;
+import com.petros.bookstore.dto.paginationdto.CursorPageResponseDto;
+import com.petros.bookstore.dto.paginationdto.PaginatedResponseDto;
+import com.petros.bookstore.enums.CountMode;
 import com.petros.bookstore.exception.customException.InvalidPriceRangeException;
 import com.petros.bookstore.enums.Genre;
 import com.petros.bookstore.service.BookService;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -16,7 +27,8 @@ import org.springframework.web.bind.annotation.*;
 
 /**
  * REST controller for viewing books in the bookstore. Provides endpoints to
- * retrieve/search books.
+ * retrieve/search books. Listings return {@link BookSummaryDto}s without the
+ * description; a single book is returned in full.
  */
 @Validated
 @RestController
@@ -47,7 +59,7 @@ public class BookUserController {
      * @return a page of books matching the filters
      */
     @GetMapping()
-    public Page<BookResponseDto> getAllBooks(//
+    public Page<BookSummaryDto> getAllBooks(//
             @RequestParam(required = false) final String title, //
             @RequestParam(required = false) final String author, //
             @RequestParam(required = false) @Min(0) final Integer availability, //
@@ -60,19 +72,168 @@ public class BookUserController {
             final Double maxPrice, //
             Pageable pageable) {
 
-        if ((minPrice == null) != (maxPrice == null)) {
-            throw new InvalidPriceRangeException(//
-                    "Both minPrice and maxPrice should be provided together.");
-        }
-
-        if (minPrice != null && minPrice > maxPrice) {
-            throw new IllegalArgumentException(//
-                    "minPrice cannot be greater than maxPrice");
-        }
+        validatePriceRange(minPrice, maxPrice);
         return bookService.searchBooks(//
                 title, author, availability, genre, minPrice, maxPrice, pageable);
     }
 
+    /**
+     * Retrieves books with the same filters as {@link #getAllBooks}, choosing how
+     * the total is obtained: {@code none} skips the count query, {@code estimate}
+     * uses the planner's row estimate and {@code exact} counts.
+     *
+     * @param title
+     *            optional title filter
+     * @param author
+     *            optional author filter
+     * @param availability
+     *            optional availability filter
+     * @param genre
+     *            optional genre filter
+     * @param minPrice
+     *            optional minimum price
+     * @param maxPrice
+     *            optional maximum price
+     * @param count
+     *            one of none, exact, estimate
+     * @param pageable
+     *            pagination information
+     * @return a page of books with the requested kind of total
+     */
+    @GetMapping(params = {"count", "!q", "!after"})
+    public PaginatedResponseDto<BookSummaryDto> getAllBooksWithCount(//
+            @RequestParam(required = false) final String title, //
+            @RequestParam(required = false) final String author, //
+            @RequestParam(required = false) @Min(0) final Integer availability, //
+            @RequestParam(required = false) final Genre genre, //
+            @RequestParam(required = false) @DecimalMin("0.0") //
+            @Digits(integer = 5, fraction = 2, message = "decimals up to 2 digits") //
+            final Double minPrice, //
+            @RequestParam(required = false) @DecimalMin("0.0") //
+            @Digits(integer = 5, fraction = 2, message = "decimals up to 2 digits") //
+            final Double maxPrice, //
+            @RequestParam final String count, //
+            Pageable pageable) {
+
+        validatePriceRange(minPrice, maxPrice);
+        return bookService.searchBooks(//
+                title, author, availability, genre, minPrice, maxPrice, pageable, CountMode.fromParam(count));
+    }
+
+    /**
+     * Retrieves books with the same filters as {@link #getAllBooks}, one keyset
+     * page at a time, ordered by title. Sending the {@code after} parameter
+     * opts into this mode; an empty value requests the first page. No total
+     * count is computed.
+     *
+     * @param title
+     *            optional title filter
+     * @param author
+     *            optional author filter
+     * @param availability
+     *            optional availability filter
+     * @param genre
+     *            optional genre filter
+     * @param minPrice
+     *            optional minimum price
+     * @param maxPrice
+     *            optional maximum price
+     * @param after
+     *            the {@code next} cursor of the previous page
+     * @param size
+     *            the page size
+     * @return a keyset page of books
+     */
+    @GetMapping(params = {"after", "!q"})
+    public CursorPageResponseDto<BookSummaryDto> getBooksAfter(//
+            @RequestParam(required = false) final String title, //
+            @RequestParam(required = false) final String author, //
+            @RequestParam(required = false) @Min(0) final Integer availability, //
+            @RequestParam(required = false) final Genre genre, //
+            @RequestParam(required = false) @DecimalMin("0.0") //
+            @Digits(integer = 5, fraction = 2, message = "decimals up to 2 digits") //
+            final Double minPrice, //
+            @RequestParam(required = false) @DecimalMin("0.0") //
+            @Digits(integer = 5, fraction = 2, message = "decimals up to 2 digits") //
+            final Double maxPrice, //
+            @RequestParam(required = false) final String after, //
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) final int size) {
+
+        validatePriceRange(minPrice, maxPrice);
+        return bookService.findAllAfter(//
+                title, author, availability, genre, minPrice, maxPrice, after, size);
+    }
+
+    /**
+     * Retrieves books matching a free-text query over title, author and
+     * description, ordered by relevance.
+     *
+     * @param q
+     *            the free-text query
+     * @param pageable
+     *            pagination information
+     * @return a page of books ordered by relevance
+     */
+    @GetMapping(params = "q")
+    public Page<BookSummaryDto> searchBooks(//
+            @RequestParam @NotBlank @Size(max = 200) final String q, //
+            Pageable pageable) {
+        return bookService.fullTextSearch(q, pageable);
+    }
+
+    /**
+     * Counts the books matching the same filters as {@link #getAllBooks} per
+     * genre and per price bucket, so a storefront can draw its facets with a
+     * single request.
+     *
+     * @param title
+     *            optional title filter
+     * @param author
+     *            optional author filter
+     * @param availability
+     *            optional availability filter
+     * @param genre
+     *            optional genre filter
+     * @param minPrice
+     *            optional minimum price
+     * @param maxPrice
+     *            optional maximum price
+     * @return the genre and price-bucket counts
+     */
+    @GetMapping("/facets")
+    public BookFacetsDto getFacets(//
+            @RequestParam(required = false) final String title, //
+            @RequestParam(required = false) final String author, //
+            @RequestParam(required = false) @Min(0) final Integer availability, //
+            @RequestParam(required = false) final Genre genre, //
+            @RequestParam(required = false) @DecimalMin("0.0") //
+            @Digits(integer = 5, fraction = 2, message = "decimals up to 2 digits") //
+            final Double minPrice, //
+            @RequestParam(required = false) @DecimalMin("0.0") //
+            @Digits(integer = 5, fraction = 2, message = "decimals up to 2 digits") //
+            final Double maxPrice) {
+
+        validatePriceRange(minPrice, maxPrice);
+        return bookService.getFacets(title, author, availability, genre, minPrice, maxPrice);
+    }
+
+    /**
+     * Suggests titles and authors for type-ahead, matching the query against
+     * the start of any of their words and ranking them by copies sold.
+     *
+     * @param q
+     *            the text typed so far
+     * @param limit
+     *            the maximum number of suggestions
+     * @return the suggestions, most popular first
+     */
+    @GetMapping("/suggest")
+    public List<BookSuggestionDto> suggest(//
+            @RequestParam @NotBlank @Size(max = 100) final String q, //
+            @RequestParam(defaultValue = "5") @Min(1) @Max(BookSuggestions.MAX_RESULTS) final int limit) {
+        return bookService.suggest(q, limit);
+    }
+
     /**
      * Retrieves a specific book by its ID.
      *
@@ -85,4 +246,16 @@ public class BookUserController {
         BookResponseDto response = bookService.findBookById(bookId);
         return ResponseEntity.ok(response);
     }
+
+    private static void validatePriceRange(Double minPrice, Double maxPrice) {
+        if ((minPrice == null) != (maxPrice == null)) {
+            throw new InvalidPriceRangeException(//
+                    "Both minPrice and maxPrice should be provided together.");
+        }
+
+        if (minPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException(//
+                    "minPrice cannot be greater than maxPrice");
+        }
+    }
 }
@@ -0,0 +1,94 @@
+package com.petros.bookstore.controller;
+
+import com.petros.bookstore.enums.ExportFormat;
+import com.petros.bookstore.service.ExportService;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * REST controller for administrators to download whole tables in one
+ * request instead of paging through them. The body is written while the rows
+ * are read, as {@code ndjson} (the default) or {@code csv}, and compressed
+ * into a {@code .gz} file when {@code gzip} is set.
+ */
+@RestController
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class ExportAdminController {
+
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final ExportService exportService;
+
+    /**
+     * Downloads every book.
+     *
+     * @param format
+     *            one of ndjson, csv
+     * @param gzip
+     *            whether to compress the download
+     * @return the books, by id
+     */
+    @GetMapping("/books/export")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<StreamingResponseBody> exportBooks(//
+            @RequestParam(defaultValue = "ndjson") String format, //
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        return download("books", exportFormat, gzip, exportService.exportBooks(exportFormat, gzip));
+    }
+
+    /**
+     * Downloads every order, one row per order line.
+     *
+     * @param format
+     *            one of ndjson, csv
+     * @param gzip
+     *            whether to compress the download
+     * @return the order lines, oldest order first
+     */
+    @GetMapping("/orders/export")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<StreamingResponseBody> exportOrders(//
+            @RequestParam(defaultValue = "ndjson") String format, //
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        return download("orders", exportFormat, gzip, exportService.exportOrderLines(exportFormat, gzip));
+    }
+
+    /**
+     * Downloads every user profile.
+     *
+     * @param format
+     *            one of ndjson, csv
+     * @param gzip
+     *            whether to compress the download
+     * @return the user profiles, by id
+     */
+    @GetMapping("/users/export")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<StreamingResponseBody> exportUsers(//
+            @RequestParam(defaultValue = "ndjson") String format, //
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        return download("users", exportFormat, gzip, exportService.exportUsers(exportFormat, gzip));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> download(String name, ExportFormat format, boolean gzip,
+            StreamingResponseBody body) {
+        String filename = name + "." + format.extension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .contentType(gzip ? GZIP : MediaType.parseMediaType(format.mediaType())).body(body);
+    }
+}
@@ -1,6 +1,8 @@
 package com.petros.bookstore.controller;
 
 import com.petros.bookstore.dto.favouritebookdto.FavouriteBookResponseDto;
+import com.petros.bookstore.dto.paginationdto.PaginatedResponseDto;
+import com.petros.bookstore.enums.CountMode;
 import com.petros.bookstore.service.FavouriteBookService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +13,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -39,4 +42,23 @@ public class FavouriteBookAdminController {
             @PathVariable Long userId, Pageable pageable) {
         return favouriteService.getFavourites(userId, pageable);
     }
+
+    /**
+     * Retrieves a user's favourite books, choosing how the total is obtained:
+     * {@code none}, {@code exact} or {@code estimate}.
+     *
+     * @param userId
+     *            the ID of the user
+     * @param count
+     *            one of none, exact, estimate
+     * @param pageable
+     *            pagination and sorting information
+     * @return favourite books with the requested kind of total
+     */
+    @SecurityRequirement(name = "bearerAuth")
+    @GetMapping(params = "count")
+    public PaginatedResponseDto<FavouriteBookResponseDto> getUserFavouriteBooksWithCount(//
+            @PathVariable Long userId, @RequestParam String count, Pageable pageable) {
+        return favouriteService.getFavourites(userId, pageable, CountMode.fromParam(count));
+    }
 }
@@ -2,6 +2,8 @@ package com.petros.bookstore.controller;
 
 import com.petros.bookstore.dto.favouritebookdto.FavouriteBookRequestDto;
 import com.petros.bookstore.dto.favouritebookdto.FavouriteBookResponseDto;
+import com.petros.bookstore.dto.paginationdto.PaginatedResponseDto;
+import com.petros.bookstore.enums.CountMode;
 import com.petros.bookstore.service.FavouriteBookService;
 import com.petros.bookstore.utils.AuthUtils;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -62,6 +64,24 @@ public class FavouriteBookUserController {
         return favouriteService.getFavourites(userId, pageable);
     }
 
+    /**
+     * Retrieves the authenticated user's favourite books, choosing how the total
+     * is obtained: {@code none}, {@code exact} or {@code estimate}.
+     *
+     * @param count
+     *            one of none, exact, estimate
+     * @param pageable
+     *            pagination and sorting information
+     * @return favourite books with the requested kind of total
+     */
+    @GetMapping(params = "count")
+    @SecurityRequirement(name = "bearerAuth")
+    public PaginatedResponseDto<FavouriteBookResponseDto> getMyFavouriteBooksWithCount(//
+            @RequestParam String count, Pageable pageable) {
+        userId = authUtils.extractUserId();
+        return favouriteService.getFavourites(userId, pageable, CountMode.fromParam(count));
+    }
+
     /**
      * Deletes a book from the authenticated user's favourites by book ID.
      *
@@ -1,10 +1,18 @@
 package com.petros.bookstore.controller;
 
+import com.petros.bookstore.dto.orderdto.OrderBulkStatusUpdateRequestDto;
+import com.petros.bookstore.dto.orderdto.OrderBulkStatusUpdateResponseDto;
+import com.petros.bookstore.dto.orderdto.OrderQueueStatsDto;
 import com.petros.bookstore.dto.orderdto.OrderResponseDto;
 import com.petros.bookstore.dto.orderdto.OrderStatusUpdateRequestDto;
+import com.petros.bookstore.dto.paginationdto.CursorPageResponseDto;
+import com.petros.bookstore.enums.Status;
 import com.petros.bookstore.service.OrderService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.time.Instant;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -37,6 +45,73 @@ public class OrderAdminController {
         return orderService.getAllOrders(pageable);
     }
 
+    /**
+     * Retrieves all orders one keyset page at a time, newest first. Sending the
+     * {@code after} parameter opts into this mode; an empty value requests the
+     * first page. No total count is computed.
+     *
+     * @param after
+     *            the {@code next} cursor of the previous page
+     * @param size
+     *            the page size
+     * @return a keyset page of OrderResponseDto
+     */
+    @GetMapping(value = "/orders", params = "after")
+    @SecurityRequirement(name = "bearerAuth")
+    public CursorPageResponseDto<OrderResponseDto> allOrdersAfter(//
+            @RequestParam(required = false) String after, //
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        return orderService.getAllOrdersAfter(after, size);
+    }
+
+    /**
+     * Searches all orders one keyset page at a time, newest first, e.g. for
+     * orders stuck in {@code PENDING}. Every filter is optional and filters
+     * combine; an empty or missing {@code after} requests the first page. No
+     * total count is computed.
+     *
+     * @param status
+     *            the status the orders must be in
+     * @param open
+     *            whether to keep only orders not delivered yet (PENDING,
+     *            CONFIRMED, PROCESSING or SHIPPED)
+     * @param userId
+     *            the ID of the user who placed the orders
+     * @param from
+     *            the earliest order date, inclusive, as an ISO-8601 instant
+     * @param to
+     *            the order date the orders must precede, as an ISO-8601 instant
+     * @param after
+     *            the {@code next} cursor of the previous page
+     * @param size
+     *            the page size
+     * @return a keyset page of OrderResponseDto
+     */
+    @GetMapping("/orders/search")
+    @SecurityRequirement(name = "bearerAuth")
+    public CursorPageResponseDto<OrderResponseDto> searchOrders(//
+            @RequestParam(required = false) Status status, //
+            @RequestParam(defaultValue = "false") boolean open, //
+            @RequestParam(required = false) Long userId, //
+            @RequestParam(required = false) Instant from, //
+            @RequestParam(required = false) Instant to, //
+            @RequestParam(required = false) String after, //
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        return orderService.searchOrders(status, open, userId, from, to, after, size);
+    }
+
+    /**
+     * Returns the depth of the asynchronous order queue and the counters of
+     * its workers, for sizing them.
+     *
+     * @return the order queue statistics
+     */
+    @GetMapping("/orders/queue/stats")
+    @SecurityRequirement(name = "bearerAuth")
+    public OrderQueueStatsDto queueStats() {
+        return orderService.getQueueStats();
+    }
+
     /**
      * Updates the status of a specific order.
      *
@@ -55,6 +130,24 @@ public class OrderAdminController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Moves many orders from one status to a later one at once, e.g. to mark
+     * shipments. The orders are given either by ID or, when no IDs are sent,
+     * are the oldest orders in the {@code from} status, optionally placed
+     * within {@code placedFrom} and {@code placedTo}; a response with
+     * {@code more} set asks for another call.
+     *
+     * @param request
+     *            the request DTO containing the transition and the orders
+     * @return the outcome for each order
+     */
+    @PostMapping("/orders/status-transitions")
+    @SecurityRequirement(name = "bearerAuth")
+    public OrderBulkStatusUpdateResponseDto updateStatuses(//
+            @Valid @RequestBody OrderBulkStatusUpdateRequestDto request) {
+        return orderService.updateOrderStatuses(request);
+    }
+
     /**
      * Retrieves a specific order by its ID.
      *
@@ -1,9 +1,14 @@
 package com.petros.bookstore.controller;
 
 import com.petros.bookstore.dto.orderdto.OrderResponseDto;
+import com.petros.bookstore.dto.paginationdto.CursorPageResponseDto;
 import com.petros.bookstore.service.OrderService;
 import com.petros.bookstore.utils.AuthUtils;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import java.net.URI;
 import lombok.RequiredArgsConstructor;
 import org.apache.coyote.BadRequestException;
 import org.springframework.data.domain.Page;
@@ -12,6 +17,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 /**
  * REST controller for users to manage their own orders.
@@ -23,16 +29,28 @@ import org.springframework.web.bind.annotation.*;
 @PreAuthorize("hasAnyRole('USER','ADMIN')")
 public class OrderUserController {
 
+    private static final String RESPOND_ASYNC = "respond-async";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+
     private final OrderService orderService;
     private final AuthUtils authUtils;
 
     private Long userId;
 
     /**
-     * Places a new order for the authenticated user.
+     * Places a new order for the authenticated user. A request carrying an
+     * {@code Idempotency-Key} that was already used returns the order placed
+     * by the first request with that key.
+     * <p>
+     * With {@code Prefer: respond-async} the order is accepted as pending and
+     * confirmed in the background: the response is 202 with the location of
+     * the order to poll, or 503 with {@code Retry-After} while too many orders
+     * are waiting.
      *
-     * @param pageable
-     *            pagination info for handling cart items internally (if applicable)
+     * @param idempotencyKey
+     *            optional key identifying retries of the same checkout
+     * @param prefer
+     *            optional preferences of the client
      * @return the placed order as OrderResponseDto
      * @throws BadRequestException
      *             if placing the order fails (e.g. empty cart)
@@ -40,11 +58,19 @@ public class OrderUserController {
     @PostMapping
     @SecurityRequirement(name = "bearerAuth")
     public ResponseEntity<OrderResponseDto> placeOrder(//
-            Pageable pageable) throws BadRequestException {
+            @RequestHeader(name = "Idempotency-Key", required = false) @Size(min = 1, max = 255) String idempotencyKey,
+            @RequestHeader(name = "Prefer", required = false) String prefer) throws BadRequestException {
 
         userId = authUtils.extractUserId();
-        OrderResponseDto response = orderService.placeOrder(userId, pageable);
-        return ResponseEntity.ok(response);
+        boolean async = prefer != null && prefer.contains(RESPOND_ASYNC);
+        OrderResponseDto response = orderService.placeOrder(userId, idempotencyKey, async);
+        if (!async) {
+            return ResponseEntity.ok(response);
+        }
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()//
+                .path("/{orderId}").buildAndExpand(response.id()).toUri();
+        return ResponseEntity.accepted().location(location)//
+                .header(PREFERENCE_APPLIED, RESPOND_ASYNC).body(response);
     }
 
     /**
@@ -62,6 +88,27 @@ public class OrderUserController {
         return orderService.getOrdersForUser(userId, pageable);
     }
 
+    /**
+     * Retrieves the authenticated user's orders one keyset page at a time, newest
+     * first. Sending the {@code after} parameter opts into this mode; an empty
+     * value requests the first page.
+     *
+     * @param after
+     *            the {@code next} cursor of the previous page
+     * @param size
+     *            the page size
+     * @return a keyset page of OrderResponseDto for the user's orders
+     */
+    @GetMapping(params = "after")
+    @SecurityRequirement(name = "bearerAuth")
+    public CursorPageResponseDto<OrderResponseDto> myOrdersAfter(//
+            @RequestParam(required = false) String after, //
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+
+        userId = authUtils.extractUserId();
+        return orderService.getOrdersForUserAfter(userId, after, size);
+    }
+
     /**
      * Retrieves a specific order belonging to the authenticated user.
      *
@@ -0,0 +1,100 @@
+package com.petros.bookstore.controller;
+
+import com.petros.bookstore.dto.analyticsdto.BookSalesDto;
+import com.petros.bookstore.dto.analyticsdto.DailySalesDto;
+import com.petros.bookstore.dto.analyticsdto.GenreSalesDto;
+import com.petros.bookstore.service.SalesAnalyticsService;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for administrators to read sales figures. The figures come
+ * from daily rollups, so a range of any length is answered without reading
+ * the orders.
+ */
+@Validated
+@RestController
+@RequestMapping("/analytics/sales")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class SalesAnalyticsAdminController {
+
+    private final SalesAnalyticsService analyticsService;
+
+    /**
+     * Retrieves the orders, units and revenue of every day with sales in a
+     * range, and how much of them is delivered.
+     *
+     * @param from
+     *            the first day, inclusive, as an ISO-8601 date
+     * @param to
+     *            the last day, inclusive, as an ISO-8601 date
+     * @return the sales per day, oldest first
+     */
+    @GetMapping("/daily")
+    @SecurityRequirement(name = "bearerAuth")
+    public List<DailySalesDto> dailySales(//
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from, //
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return analyticsService.getDailySales(from, to);
+    }
+
+    /**
+     * Retrieves the books with the highest revenue in a range.
+     *
+     * @param from
+     *            the first day, inclusive, as an ISO-8601 date
+     * @param to
+     *            the last day, inclusive, as an ISO-8601 date
+     * @param limit
+     *            the maximum number of books
+     * @return the sales per book, highest revenue first
+     */
+    @GetMapping("/books")
+    @SecurityRequirement(name = "bearerAuth")
+    public List<BookSalesDto> topBooks(//
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from, //
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to, //
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit) {
+        return analyticsService.getTopBooks(from, to, limit);
+    }
+
+    /**
+     * Retrieves the units and revenue per genre in a range.
+     *
+     * @param from
+     *            the first day, inclusive, as an ISO-8601 date
+     * @param to
+     *            the last day, inclusive, as an ISO-8601 date
+     * @return the sales per genre, highest revenue first
+     */
+    @GetMapping("/genres")
+    @SecurityRequirement(name = "bearerAuth")
+    public List<GenreSalesDto> genreSales(//
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from, //
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return analyticsService.getGenreSales(from, to);
+    }
+
+    /**
+     * Rebuilds the sales rollups from the orders now instead of at night, e.g.
+     * right after the rollups are introduced.
+     *
+     * @return a response with no content
+     */
+    @PostMapping("/rebuild")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<Void> rebuild() {
+        analyticsService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+}
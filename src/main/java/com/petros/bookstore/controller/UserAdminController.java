@@ -1,7 +1,9 @@
 package com.petros.bookstore.controller;
 
+import com.petros.bookstore.dto.paginationdto.PaginatedResponseDto;
 import com.petros.bookstore.dto.userdto.UserAdminUpdateRequestDto;
 import com.petros.bookstore.dto.userdto.UserProfileResponseDto;
+import com.petros.bookstore.enums.CountMode;
 import com.petros.bookstore.service.UserService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
@@ -51,6 +53,37 @@ public class UserAdminController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Retrieves users with the same filters as {@link #getAllUsers}, choosing how
+     * the total is obtained: {@code none} skips the count query, {@code estimate}
+     * uses the planner's row estimate and {@code exact} counts.
+     *
+     * @param username
+     *            optional username filter
+     * @param firstName
+     *            optional first name filter
+     * @param lastName
+     *            optional last name filter
+     * @param count
+     *            one of none, exact, estimate
+     * @param pageable
+     *            pagination and sorting information
+     * @return user profiles with the requested kind of total
+     */
+    @GetMapping(params = "count")
+    public ResponseEntity<PaginatedResponseDto<UserProfileResponseDto>> getAllUsersWithCount(//
+            @RequestParam(required = false) String username, //
+            @RequestParam(required = false) String firstName, //
+            @RequestParam(required = false) String lastName, //
+            @RequestParam String count, //
+            Pageable pageable) {
+
+        PaginatedResponseDto<UserProfileResponseDto> result = userService.searchUsers(//
+                username, firstName, lastName, pageable, CountMode.fromParam(count));
+
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * Retrieves a specific user's profile by ID.
      *
@@ -0,0 +1,9 @@
+package com.petros.bookstore.dto.analyticsdto;
+
+public record BookSalesDto(//
+        Long bookId, //
+        String title, //
+        String author, //
+        long units, //
+        double revenue) {
+}
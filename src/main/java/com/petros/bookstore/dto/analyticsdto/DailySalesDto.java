@@ -0,0 +1,12 @@
+package com.petros.bookstore.dto.analyticsdto;
+
+import java.time.LocalDate;
+
+public record DailySalesDto(//
+        LocalDate day, //
+        long orders, //
+        long units, //
+        double revenue, //
+        long deliveredOrders, //
+        double deliveredRevenue) {
+}
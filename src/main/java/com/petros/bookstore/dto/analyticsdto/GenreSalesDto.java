@@ -0,0 +1,9 @@
+package com.petros.bookstore.dto.analyticsdto;
+
+import com.petros.bookstore.enums.Genre;
+
+public record GenreSalesDto(//
+        Genre genre, //
+        long units, //
+        double revenue) {
+}
@@ -0,0 +1,12 @@
+package com.petros.bookstore.dto.bookdto;
+
+public record BookCacheStatsDto(//
+        long hits, //
+        long misses, //
+        long evictions, //
+        long invalidations, //
+        int size, //
+        int maxSize, //
+        LoadStatsDto bookLoads, //
+        LoadStatsDto searchLoads) {
+}
@@ -0,0 +1,10 @@
+package com.petros.bookstore.dto.bookdto;
+
+import com.petros.bookstore.enums.Genre;
+import java.util.List;
+import java.util.Map;
+
+public record BookFacetsDto(//
+        Map<Genre, Long> genres, //
+        List<PriceBucketDto> prices) {
+}
@@ -0,0 +1,8 @@
+package com.petros.bookstore.dto.bookdto;
+
+public record BookPopularityDto(//
+        Long id, //
+        String title, //
+        String author, //
+        long sold) {
+}
@@ -0,0 +1,13 @@
+package com.petros.bookstore.dto.bookdto;
+
+import com.petros.bookstore.enums.SuggestionType;
+
+/**
+ * A type-ahead suggestion. Title suggestions carry the ID of their book;
+ * author suggestions have none.
+ */
+public record BookSuggestionDto(//
+        String text, //
+        SuggestionType type, //
+        Long bookId) {
+}
@@ -0,0 +1,12 @@
+package com.petros.bookstore.dto.bookdto;
+
+import com.petros.bookstore.enums.Genre;
+
+public record BookSummaryDto(//
+        Long id, //
+        String title, //
+        String author, //
+        Double price, //
+        int availability, //
+        Genre genre) {
+}
@@ -0,0 +1,7 @@
+package com.petros.bookstore.dto.bookdto;
+
+public record LoadStatsDto(//
+        long loads, //
+        long collapsed, //
+        long timeouts) {
+}
@@ -0,0 +1,12 @@
+package com.petros.bookstore.dto.bookdto;
+
+/**
+ * Number of books priced from {@code from} (inclusive) up to {@code to}
+ * (exclusive). The lowest bucket has no {@code from} and the highest no
+ * {@code to}.
+ */
+public record PriceBucketDto(//
+        Double from, //
+        Double to, //
+        long count) {
+}
@@ -1,6 +1,6 @@
 package com.petros.bookstore.dto.cartitemdto;
 
-import com.petros.bookstore.model.Book;
+import com.petros.bookstore.dto.bookdto.BookResponseDto;
 
-public record CartItemResponseDto(Long id, Book book, int quantity) {
+public record CartItemResponseDto(Long id, BookResponseDto book, int quantity) {
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.petros.bookstore.dto.orderdto;
+
+import com.petros.bookstore.enums.Status;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.time.Instant;
+import java.util.List;
+
+public record OrderBulkStatusUpdateRequestDto(//
+        @Size(min = 1, max = MAX_ORDERS) List<@NotNull Long> ids, //
+        @NotNull Status from, //
+        @NotNull Status to, //
+        Instant placedFrom, //
+        Instant placedTo) {
+
+    /** The most orders one bulk transition moves. */
+    public static final int MAX_ORDERS = 1000;
+}
@@ -0,0 +1,9 @@
+package com.petros.bookstore.dto.orderdto;
+
+import java.util.List;
+
+public record OrderBulkStatusUpdateResponseDto(//
+        int updated, //
+        boolean more, //
+        List<OrderStatusOutcomeDto> outcomes) {
+}
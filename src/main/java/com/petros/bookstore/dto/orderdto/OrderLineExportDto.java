@@ -0,0 +1,16 @@
+package com.petros.bookstore.dto.orderdto;
+
+import com.petros.bookstore.enums.Status;
+import java.sql.Timestamp;
+
+public record OrderLineExportDto(//
+        Long orderId, //
+        Long userId, //
+        Status status, //
+        Timestamp orderDate, //
+        Double totalPrice, //
+        Long bookId, //
+        int quantity, //
+        Double unitPrice, //
+        Double lineTotal) {
+}
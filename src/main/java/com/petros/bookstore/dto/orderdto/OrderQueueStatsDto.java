@@ -0,0 +1,15 @@
+package com.petros.bookstore.dto.orderdto;
+
+import java.time.Instant;
+
+public record OrderQueueStatsDto(//
+        long queued, //
+        long ready, //
+        long parked, //
+        Instant oldestReadyAt, //
+        int capacity, //
+        int workers, //
+        int busyWorkers, //
+        long processed, //
+        long failed) {
+}
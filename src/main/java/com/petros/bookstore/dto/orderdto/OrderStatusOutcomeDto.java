@@ -0,0 +1,10 @@
+package com.petros.bookstore.dto.orderdto;
+
+import com.petros.bookstore.enums.Status;
+import com.petros.bookstore.enums.TransitionOutcome;
+
+public record OrderStatusOutcomeDto(//
+        Long id, //
+        TransitionOutcome outcome, //
+        Status status) {
+}
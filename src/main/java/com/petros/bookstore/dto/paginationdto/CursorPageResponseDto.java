@@ -0,0 +1,34 @@
+package com.petros.bookstore.dto.paginationdto;
+
+import com.petros.bookstore.utils.PageCursor;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset page envelope. It carries no totals; {@code next} is the token to
+ * send as {@code after} for the following page and is null on the last page.
+ */
+public record CursorPageResponseDto<T>(List<T> content, int size, String next) {
+
+    /**
+     * Builds a page from rows fetched with a limit of {@code size + 1}; the extra
+     * row only signals that another page exists.
+     *
+     * @param rows
+     *            the fetched rows, at most {@code size + 1}
+     * @param size
+     *            the requested page size
+     * @param cursorOf
+     *            extracts the cursor of a row
+     * @param mapper
+     *            maps a row to its response DTO
+     * @return the keyset page
+     */
+    public static <E, T> CursorPageResponseDto<T> of(//
+            List<E> rows, int size, Function<E, PageCursor> cursorOf, Function<E, T> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> page = hasNext ? rows.subList(0, size) : rows;
+        String next = hasNext ? cursorOf.apply(page.get(page.size() - 1)).encode() : null;
+        return new CursorPageResponseDto<>(page.stream().map(mapper).toList(), size, next);
+    }
+}
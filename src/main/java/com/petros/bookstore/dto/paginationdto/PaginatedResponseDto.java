@@ -1,6 +1,7 @@
 package com.petros.bookstore.dto.paginationdto;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.petros.bookstore.enums.CountMode;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -8,7 +9,13 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
+/**
+ * Page envelope that states which kind of total it carries. With
+ * {@code totalType} {@code none} the totals are null and only {@code hasNext}
+ * is known; with {@code estimate} they come from planner statistics.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,10 +25,57 @@ public class PaginatedResponseDto<T> {
     private List<T> content;
     private int number;
     private int size;
-    private int totalPages;
-    private long totalElements;
+    private Integer totalPages;
+    private Long totalElements;
+    private boolean hasNext;
+    private CountMode totalType;
+
+    /**
+     * Wraps a page whose total comes from a count query.
+     *
+     * @param page
+     *            the page
+     * @return the response with exact totals
+     */
+    public static <T> PaginatedResponseDto<T> exact(Page<T> page) {
+        return new PaginatedResponseDto<>(page.getContent(), page.getNumber(), page.getSize(), //
+                page.getTotalPages(), page.getTotalElements(), page.hasNext(), CountMode.EXACT);
+    }
+
+    /**
+     * Wraps a slice without any total.
+     *
+     * @param slice
+     *            the slice
+     * @return the response without totals
+     */
+    public static <T> PaginatedResponseDto<T> withoutTotal(Slice<T> slice) {
+        return new PaginatedResponseDto<>(slice.getContent(), slice.getNumber(), slice.getSize(), //
+                null, null, slice.hasNext(), CountMode.NONE);
+    }
+
+    /**
+     * Wraps a slice with an estimated total. The estimate is raised to the
+     * number of rows the slice proves to exist, so it never contradicts the
+     * content.
+     *
+     * @param slice
+     *            the slice
+     * @param estimatedTotal
+     *            the planner's row estimate
+     * @return the response with estimated totals
+     */
+    public static <T> PaginatedResponseDto<T> estimated(Slice<T> slice, long estimatedTotal) {
+        long seen = (long) slice.getNumber() * slice.getSize() + slice.getNumberOfElements() //
+                + (slice.hasNext() ? 1 : 0);
+        long total = Math.max(estimatedTotal, seen);
+        int totalPages = slice.getSize() == 0 ? 1 : (int) Math.ceil((double) total / slice.getSize());
+        return new PaginatedResponseDto<>(slice.getContent(), slice.getNumber(), slice.getSize(), //
+                totalPages, total, slice.hasNext(), CountMode.ESTIMATE);
+    }
 
     public Page<T> toPage() {
-        return new PageImpl<>(content, PageRequest.of(number, size), totalElements);
+        long total = totalElements != null ? totalElements : (long) number * size + content.size();
+        return new PageImpl<>(content, PageRequest.of(number, size), total);
     }
 }
@@ -0,0 +1,36 @@
+package com.petros.bookstore.enums;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.util.Locale;
+
+/**
+ * How a paginated listing reports its total: {@code EXACT} runs a count query,
+ * {@code ESTIMATE} takes the planner's row estimate and {@code NONE} only tells
+ * whether a next page exists.
+ */
+public enum CountMode {
+    EXACT, ESTIMATE, NONE;
+
+    /**
+     * Parses the {@code count} request parameter, ignoring case.
+     *
+     * @param value
+     *            the parameter value
+     * @return the matching count mode
+     * @throws IllegalArgumentException
+     *             if the value names no count mode
+     */
+    public static CountMode fromParam(String value) {
+        for (CountMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("count must be one of none, exact, estimate");
+    }
+
+    @JsonValue
+    public String toParam() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,43 @@
+package com.petros.bookstore.enums;
+
+/**
+ * How an export writes its rows: {@code NDJSON} as one JSON object per line,
+ * {@code CSV} as comma-separated values under a header line.
+ */
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"), CSV("text/csv;charset=UTF-8", "csv");
+
+    private final String mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    /**
+     * Parses the {@code format} request parameter, ignoring case.
+     *
+     * @param value
+     *            the parameter value
+     * @return the matching export format
+     * @throws IllegalArgumentException
+     *             if the value names no export format
+     */
+    public static ExportFormat fromParam(String value) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value.trim())) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("format must be one of ndjson, csv");
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+}
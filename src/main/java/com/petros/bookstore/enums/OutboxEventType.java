@@ -0,0 +1,5 @@
+package com.petros.bookstore.enums;
+
+public enum OutboxEventType {
+    ORDER_PLACED, ORDER_STATUS_CHANGED
+}
@@ -1,5 +1,33 @@
 package com.petros.bookstore.enums;
 
+import java.util.Arrays;
+
+/**
+ * Lifecycle of an order, in the order an order goes through it.
+ */
 public enum Status {
-    PENDING, CONFIRMED, PROCESSING, SHIPPED, DELIVERED
+    PENDING, CONFIRMED, PROCESSING, SHIPPED, DELIVERED;
+
+    /**
+     * Tells whether an order may move from this status to another in a bulk
+     * transition: only forward through the lifecycle, possibly skipping
+     * steps.
+     *
+     * @param next
+     *            the status to move to
+     * @return true if the transition is allowed
+     */
+    public boolean canMoveTo(Status next) {
+        return next.ordinal() > ordinal();
+    }
+
+    /**
+     * Tells whether this status ends the lifecycle, that is whether an order
+     * in it cannot move to any other status.
+     *
+     * @return true if no transition leaves this status
+     */
+    public boolean isTerminal() {
+        return Arrays.stream(values()).noneMatch(this::canMoveTo);
+    }
 }
@@ -0,0 +1,5 @@
+package com.petros.bookstore.enums;
+
+public enum SuggestionType {
+    TITLE, AUTHOR
+}
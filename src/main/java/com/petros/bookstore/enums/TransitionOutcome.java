@@ -0,0 +1,10 @@
+package com.petros.bookstore.enums;
+
+/**
+ * What a bulk status transition did to one order: {@code UPDATED} moved it,
+ * {@code SKIPPED} left it because it was in another status than the one the
+ * transition moves from, and {@code NOT_FOUND} found no such order.
+ */
+public enum TransitionOutcome {
+    UPDATED, SKIPPED, NOT_FOUND
+}
@@ -4,6 +4,7 @@ import com.petros.bookstore.exception.customException.InvalidPriceRangeException
 import com.petros.bookstore.exception.customException.ResourceAlreadyExistsException;
 import com.petros.bookstore.exception.customException.ResourceGoneException;
 import com.petros.bookstore.exception.customException.ResourceNotFoundException;
+import com.petros.bookstore.exception.customException.ServiceUnavailableException;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.ValidationException;
 
@@ -12,6 +13,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.coyote.BadRequestException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -139,4 +141,12 @@ public class GlobalExceptionHandler {
         error.put("message", ex.getMessage());
         return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
     }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleServiceUnavailable(//
+            ServiceUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)//
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter().toSeconds()))//
+                .body(Map.of("message", ex.getMessage()));
+    }
 }
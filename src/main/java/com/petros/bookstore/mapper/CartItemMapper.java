@@ -6,6 +6,6 @@ import com.petros.bookstore.model.CartItem;
 public final class CartItemMapper {
 
     public static CartItemResponseDto toDto(CartItem item) {
-        return new CartItemResponseDto(item.getId(), item.getBook(), item.getQuantity());
+        return new CartItemResponseDto(item.getId(), BookMapper.toResponse(item.getBook()), item.getQuantity());
     }
 }
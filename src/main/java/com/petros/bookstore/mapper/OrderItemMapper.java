@@ -5,9 +5,8 @@ import com.petros.bookstore.model.OrderItem;
 
 public final class OrderItemMapper {
     public static OrderItemResponseDto toDto(OrderItem item) {
-        Double price = item.getBook().getPrice();
-        String subTotal = String.format("%.2f", price * item.getQuantity());
+        String subTotal = String.format("%.2f", item.getLineTotal());
         return new OrderItemResponseDto(item.getId(), item.getBook().getId(), //
-                item.getBook().getTitle(), price, item.getQuantity(), subTotal);
+                item.getBook().getTitle(), item.getUnitPrice(), item.getQuantity(), subTotal);
     }
 }
\ No newline at end of file
@@ -11,18 +11,25 @@ import lombok.Setter;
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
+@NamedEntityGraph(name = CartItem.WITH_BOOK, attributeNodes = @NamedAttributeNode("book"))
+@NamedEntityGraph(name = CartItem.WITH_CART_AND_BOOK, //
+        attributeNodes = {@NamedAttributeNode("shoppingCart"), @NamedAttributeNode("book")})
 @Table(name = "cart_items", //
         uniqueConstraints = @UniqueConstraint(columnNames = {"book_id", "shopping_cart_id"}))
 public class CartItem {
+    public static final String WITH_BOOK = "CartItem.withBook";
+    public static final String WITH_CART_AND_BOOK = "CartItem.withCartAndBook";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_items_id_seq")
+    @SequenceGenerator(name = "cart_items_id_seq", sequenceName = "cart_items_id_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id", nullable = false)
     private Book book;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "shopping_cart_id", nullable = false)
     private ShoppingCart shoppingCart;
 
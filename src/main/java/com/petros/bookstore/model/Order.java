@@ -16,13 +16,19 @@ import lombok.Setter;
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
+@NamedEntityGraph(name = Order.WITH_ITEMS, //
+        attributeNodes = @NamedAttributeNode(value = "orderItems", subgraph = "items"), //
+        subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("book")))
 @Table(name = "orders")
 public class Order {
+    public static final String WITH_ITEMS = "Order.withItems";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_id_seq")
+    @SequenceGenerator(name = "orders_id_seq", sequenceName = "orders_id_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
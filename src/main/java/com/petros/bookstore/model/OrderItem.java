@@ -1,6 +1,7 @@
 package com.petros.bookstore.model;
 
 import jakarta.persistence.*;
+import java.sql.Timestamp;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -12,20 +13,39 @@ import lombok.Setter;
 @AllArgsConstructor
 @NoArgsConstructor
 @Table(name = "order_items", //
-        uniqueConstraints = @UniqueConstraint(columnNames = {"book_id", "order_id"}))
+        uniqueConstraints = @UniqueConstraint(columnNames = {"order_id", "book_id", "order_date"}))
 public class OrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_id_seq")
+    @SequenceGenerator(name = "order_items_id_seq", sequenceName = "order_items_id_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id", nullable = false)
     private Book book;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
     private Order order;
 
+    /**
+     * Copy of the order's date, the key both tables are partitioned on.
+     */
+    @Column(name = "order_date", nullable = false)
+    private Timestamp orderDate;
+
     @Column(nullable = false)
     private int quantity;
+
+    /**
+     * Price of one copy when the order was placed.
+     */
+    @Column(name = "unit_price", nullable = false)
+    private Double unitPrice;
+
+    /**
+     * Unit price times quantity.
+     */
+    @Column(name = "line_total", nullable = false)
+    private Double lineTotal;
 }
@@ -0,0 +1,24 @@
+package com.petros.bookstore.outbox;
+
+import com.petros.bookstore.model.Order;
+import java.time.Instant;
+import java.util.List;
+
+public record OrderPlacedEvent(//
+        Long orderId, //
+        Long userId, //
+        Double totalPrice, //
+        Instant orderDate, //
+        List<Line> lines) {
+
+    public record Line(Long bookId, int quantity, Double price) {
+    }
+
+    public static OrderPlacedEvent of(Order order) {
+        List<Line> lines = order.getOrderItems().stream()//
+                .map(item -> new Line(item.getBook().getId(), item.getQuantity(), item.getUnitPrice()))//
+                .toList();
+        return new OrderPlacedEvent(order.getId(), order.getUser().getId(), order.getTotal_price(), //
+                order.getOrder_date().toInstant(), lines);
+    }
+}
@@ -0,0 +1,6 @@
+package com.petros.bookstore.outbox;
+
+import com.petros.bookstore.enums.Status;
+
+public record OrderStatusChangedEvent(Long orderId, Status from, Status to) {
+}
@@ -0,0 +1,19 @@
+package com.petros.bookstore.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.petros.bookstore.enums.OutboxEventType;
+import java.time.Instant;
+
+/**
+ * An event read back from the outbox. The payload is the JSON of the record
+ * the event was appended with, e.g. {@link OrderPlacedEvent} for
+ * {@link OutboxEventType#ORDER_PLACED}.
+ */
+public record OutboxEvent(//
+        long id, //
+        String aggregateType, //
+        long aggregateId, //
+        OutboxEventType type, //
+        JsonNode payload, //
+        Instant createdAt) {
+}
@@ -0,0 +1,24 @@
+package com.petros.bookstore.outbox;
+
+/**
+ * Receives the events relayed from the outbox. Listeners are Spring beans and
+ * are called in their {@link org.springframework.core.Ordered order}, inside
+ * the transaction that marks the events delivered, so database work done by a
+ * listener commits together with the delivery, and is rolled back with the
+ * event if any listener throws.
+ * <p>
+ * Delivery is at least once: an event is delivered again, to every listener,
+ * if any listener throws or the delivery does not commit. Events of one
+ * aggregate arrive in the order they were appended, unless an event fails so
+ * often that the relay parks it.
+ */
+public interface OutboxListener {
+
+    /**
+     * Handles one event.
+     *
+     * @param event
+     *            the event
+     */
+    void on(OutboxEvent event);
+}
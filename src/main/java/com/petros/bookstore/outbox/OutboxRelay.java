@@ -0,0 +1,120 @@
+package com.petros.bookstore.outbox;
+
+import com.petros.bookstore.repository.OutboxRepository;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Delivers outbox events to the {@link OutboxListener} beans in batches of
+ * {@code batchSize}, oldest first. Each batch runs in one transaction holding
+ * an advisory lock, so only one relay across all instances delivers at a time
+ * and events keep their order. Each event is delivered in a savepoint: when a
+ * listener throws, the database work of every listener for that event is
+ * rolled back, even if the failure aborted a statement, and the failure is
+ * recorded. The batch stops at the failed event, the events before it are
+ * marked delivered, and the rest are retried on the next run. An event that
+ * fails {@code maxAttempts} times is parked and skipped, so that it no longer
+ * holds back the events after it.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxRepository outboxRepo;
+    private final ObjectProvider<OutboxListener> listeners;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    public OutboxRelay(OutboxRepository outboxRepo, ObjectProvider<OutboxListener> listeners,
+            PlatformTransactionManager transactionManager,
+            @Value("${bookstore.outbox.batch-size:500}") int batchSize,
+            @Value("${bookstore.outbox.max-attempts:5}") int maxAttempts) {
+        this.outboxRepo = outboxRepo;
+        this.listeners = listeners;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Delivers batches until the outbox is drained, a listener fails or
+     * another relay holds the lock.
+     *
+     * @return the number of delivered events
+     */
+    @Scheduled(fixedDelayString = "${bookstore.outbox.poll-interval:PT1S}", //
+            initialDelayString = "${bookstore.outbox.poll-interval:PT1S}")
+    public int relay() {
+        int delivered = 0;
+        Batch batch;
+        do {
+            try {
+                batch = tx.execute(status -> deliverBatch());
+            } catch (TransactionException | DataAccessException e) {
+                log.warn("Outbox batch was not committed and will be delivered again", e);
+                break;
+            }
+            delivered += batch.delivered();
+        } while (batch.complete() && batch.delivered() == batchSize);
+        return delivered;
+    }
+
+    private Batch deliverBatch() {
+        if (!outboxRepo.tryLockRelay()) {
+            return new Batch(0, false);
+        }
+        List<OutboxListener> targets = listeners.orderedStream().toList();
+        List<Long> ids = new ArrayList<>();
+        boolean complete = true;
+        for (OutboxEvent event : outboxRepo.findUnpublished(batchSize)) {
+            try {
+                deliverInSavepoint(event, targets);
+            } catch (RuntimeException e) {
+                if (outboxRepo.recordFailure(event.id(), maxAttempts, e.toString())) {
+                    log.error("Outbox event {} failed {} times and was parked", event.id(), maxAttempts, e);
+                    continue;
+                }
+                log.warn("Outbox event {} failed and will be delivered again", event.id(), e);
+                complete = false;
+                break;
+            }
+            ids.add(event.id());
+        }
+        if (!ids.isEmpty()) {
+            outboxRepo.markPublished(ids);
+        }
+        return new Batch(ids.size(), complete);
+    }
+
+    /**
+     * Delivers an event to every listener, rolling back to a savepoint if one
+     * throws. JPA transactions cannot be nested here, so the savepoint is set
+     * on their JDBC connection, which is where listeners do their work.
+     */
+    private void deliverInSavepoint(OutboxEvent event, List<OutboxListener> targets) {
+        Savepoint savepoint = outboxRepo.setSavepoint();
+        try {
+            targets.forEach(listener -> listener.on(event));
+        } catch (RuntimeException e) {
+            outboxRepo.rollbackToSavepoint(savepoint);
+            throw e;
+        }
+        outboxRepo.releaseSavepoint(savepoint);
+    }
+
+    private record Batch(int delivered, boolean complete) {
+    }
+}
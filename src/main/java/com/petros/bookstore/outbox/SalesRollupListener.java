@@ -0,0 +1,52 @@
+package com.petros.bookstore.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petros.bookstore.enums.Status;
+import com.petros.bookstore.repository.SalesRollupRepository;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the sales rollups up to date from the order events. A placed order is
+ * added to its day, and an order that becomes delivered, or stops being so, is
+ * added to or taken from the delivered sales of the day it was placed. The
+ * rollup writes run in the savepoint of the event and commit with its
+ * published mark, so each event is counted exactly once: a delivery that fails
+ * or does not commit leaves no writes behind for the redelivery to add to.
+ */
+@Component
+@RequiredArgsConstructor
+public class SalesRollupListener implements OutboxListener {
+
+    private final SalesRollupRepository rollupRepo;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void on(OutboxEvent event) {
+        switch (event.type()) {
+            case ORDER_PLACED -> {
+                OrderPlacedEvent placed = read(event, OrderPlacedEvent.class);
+                // order dates are stored in the server's time zone, so this is the day of order_date
+                rollupRepo.addPlaced(LocalDate.ofInstant(placed.orderDate(), ZoneId.systemDefault()), placed);
+            }
+            case ORDER_STATUS_CHANGED -> {
+                OrderStatusChangedEvent changed = read(event, OrderStatusChangedEvent.class);
+                int sign = (changed.to() == Status.DELIVERED ? 1 : 0) - (changed.from() == Status.DELIVERED ? 1 : 0);
+                if (sign != 0) {
+                    rollupRepo.addDelivered(changed.orderId(), sign);
+                }
+            }
+        }
+    }
+
+    private <T> T read(OutboxEvent event, Class<T> type) {
+        try {
+            return objectMapper.treeToValue(event.payload(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable payload of outbox event " + event.id(), e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.petros.bookstore.repository;
+
+import com.petros.bookstore.dto.bookdto.BookFacetsDto;
+import com.petros.bookstore.dto.bookdto.PriceBucketDto;
+import com.petros.bookstore.enums.Genre;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Facet counts over the books matching the search filters. Genre counts and
+ * price-bucket counts come from one grouped statement: the books are scanned
+ * once and grouped by {@code GROUPING SETS ((genre), (bucket))}, where the
+ * bucket is the {@code width_bucket} of the price over the configured bounds.
+ */
+@Repository
+public class BookFacetRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double[] priceBounds;
+    private final String bucketsSql;
+
+    public BookFacetRepository(JdbcTemplate jdbcTemplate,
+            @Value("${bookstore.facets.price-bounds:10,20,50}") double[] priceBounds) {
+        boolean ascending = priceBounds.length > 0;
+        for (int i = 1; i < priceBounds.length; i++) {
+            ascending &= priceBounds[i] > priceBounds[i - 1];
+        }
+        if (!ascending) {
+            throw new IllegalStateException(//
+                    "bookstore.facets.price-bounds must be ascending: " + Arrays.toString(priceBounds));
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.priceBounds = priceBounds.clone();
+        // the bounds come from configuration, so they are inlined as numeric literals
+        this.bucketsSql = Arrays.stream(priceBounds)//
+                .mapToObj(bound -> BigDecimal.valueOf(bound).toPlainString())//
+                .collect(Collectors.joining(",", "ARRAY[", "]::numeric[]"));
+    }
+
+    /**
+     * Counts the books matching the search filters per genre and per price
+     * bucket. Null filters are left out, as in
+     * {@link BookSpecifications#withFilters}. Every genre and every bucket is
+     * present in the result, with a zero count when no book falls into it.
+     *
+     * @param title
+     *            optional title filter
+     * @param author
+     *            optional author filter
+     * @param genre
+     *            optional genre filter
+     * @param availability
+     *            optional minimum availability
+     * @param minPrice
+     *            optional minimum price
+     * @param maxPrice
+     *            optional maximum price
+     * @return the genre and price-bucket counts
+     */
+    public BookFacetsDto countFacets(String title, String author, Genre genre, //
+            Integer availability, Double minPrice, Double maxPrice) {
+        SqlFilter filter = SqlFilter.books(title, author, genre, availability, minPrice, maxPrice);
+        String sql = "SELECT GROUPING(genre) AS by_price, genre, bucket, count(*) AS books" //
+                + " FROM (SELECT genre, width_bucket(price, " + bucketsSql + ") AS bucket" //
+                + " FROM books" + filter.where() + ") AS b" //
+                + " GROUP BY GROUPING SETS ((genre), (bucket))";
+
+        Map<Genre, Long> genres = new EnumMap<>(Genre.class);
+        Arrays.stream(Genre.values()).forEach(g -> genres.put(g, 0L));
+        long[] buckets = new long[priceBounds.length + 1];
+
+        jdbcTemplate.query(sql, rs -> {
+            if (rs.getInt("by_price") == 0) {
+                genres.put(Genre.valueOf(rs.getString("genre")), rs.getLong("books"));
+            } else {
+                buckets[rs.getInt("bucket")] = rs.getLong("books");
+            }
+        }, filter.args());
+
+        List<PriceBucketDto> prices = new ArrayList<>(buckets.length);
+        for (int i = 0; i < buckets.length; i++) {
+            Double from = i == 0 ? null : priceBounds[i - 1];
+            Double to = i == priceBounds.length ? null : priceBounds[i];
+            prices.add(new PriceBucketDto(from, to, buckets[i]));
+        }
+        return new BookFacetsDto(genres, prices);
+    }
+}
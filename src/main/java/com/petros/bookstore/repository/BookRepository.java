@@ -1,52 +1,76 @@
 package com.petros.bookstore.repository;
 
+import com.petros.bookstore.dto.bookdto.BookResponseDto;
+import com.petros.bookstore.dto.bookdto.BookSummaryDto;
 import com.petros.bookstore.model.Book;
-import com.petros.bookstore.enums.Genre;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
  * Repository interface for managing {@link Book} entities. Provides basic CRUD
- * operations and a custom search method with filtering.
+ * operations, filtered search through {@link BookSpecifications}, a ranked
+ * full-text search and keyset pages. Listing queries return
+ * {@link BookSummaryDto}s.
  */
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository
+        extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>, BookRepositoryCustom {
 
     /**
-     * Searches for books with optional filtering by title, author, genre,
-     * availability, and price range. All filters are applied only if their
-     * corresponding parameters are not null.
+     * JPQL constructor expression selecting a {@link BookSummaryDto} from
+     * {@code b}, leaving out the description.
+     */
+    String SUMMARY = "new com.petros.bookstore.dto.bookdto.BookSummaryDto("//
+            + "b.id, b.title, b.author, b.price, b.availability, b.genre)";
+
+    /**
+     * Takes copies out of stock in a single conditional update, so concurrent
+     * callers cannot oversell: the row lock serializes them and the condition
+     * is re-checked against the committed value. Pending changes are flushed
+     * before and the persistence context is cleared after, so later reads see
+     * the new availability.
+     *
+     * @param id
+     *            Id of the book.
+     * @param quantity
+     *            Number of copies to take, positive.
+     * @return 1 if the copies were taken, 0 if the book does not exist or has
+     *         fewer copies available.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.availability = b.availability - :quantity "//
+            + "WHERE b.id = :id AND b.availability >= :quantity")
+    int decrementAvailability(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Puts copies back in stock in a single update.
+     *
+     * @param id
+     *            Id of the book.
+     * @param quantity
+     *            Number of copies to return, positive.
+     * @return 1 if the book exists, 0 otherwise.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.availability = b.availability + :quantity WHERE b.id = :id")
+    int incrementAvailability(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Streams every book, read through a forward-only cursor 500 rows at a
+     * time. Must be called in a transaction and the stream closed after use.
      *
-     * @param title
-     *            Partial or full book title (case-insensitive).
-     * @param author
-     *            Partial or full author name (case-insensitive).
-     * @param genre
-     *            Genre of the book (exact match).
-     * @param availability
-     *            Minimum number of copies available.
-     * @param minPrice
-     *            Minimum price.
-     * @param maxPrice
-     *            Maximum price.
-     * @param pageable
-     *            Pageable object for pagination and sorting.
-     * @return A page of books matching the specified criteria.
+     * @return Books ordered by id.
      */
-    @Query("SELECT b FROM Book b WHERE " + "(:title IS NULL OR b.title ILIKE %:title%) AND "//
-            + "(:author IS NULL OR b.author ILIKE %:author%) AND "//
-            + "(:genre IS NULL OR b.genre ILIKE :genre) AND "//
-            + "(:availability IS NULL OR b.availability >= :availability) AND "//
-            + "(:minPrice IS NULL OR b.price >= :minPrice) AND "//
-            + "(:maxPrice IS NULL OR b.price <= :maxPrice)") //
-    Page<Book> searchBooks(@Param("title") String title, //
-            @Param("author") String author, //
-            @Param("genre") Genre genre, //
-            @Param("availability") Integer availability, //
-            @Param("minPrice") Double minPrice, //
-            @Param("maxPrice") Double maxPrice, Pageable pageable);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.petros.bookstore.dto.bookdto.BookResponseDto("//
+            + "b.id, b.title, b.author, b.description, b.price, b.availability, b.genre) FROM Book b ORDER BY b.id")
+    Stream<BookResponseDto> streamAll();
 }
@@ -0,0 +1,69 @@
+package com.petros.bookstore.repository;
+
+import com.petros.bookstore.dto.bookdto.BookSummaryDto;
+import com.petros.bookstore.model.Book;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Custom queries for {@link Book} that Spring Data does not derive. They select
+ * only the {@link BookSummaryDto} columns, leaving out the description.
+ */
+public interface BookRepositoryCustom {
+
+    /**
+     * Returns one page of summaries of the books matching the specification.
+     *
+     * @param spec
+     *            Filters to apply.
+     * @param pageable
+     *            Pageable object for pagination and sorting.
+     * @return A page of matching book summaries.
+     */
+    Page<BookSummaryDto> findSummaries(Specification<Book> spec, Pageable pageable);
+
+    /**
+     * Returns one slice of summaries of the books matching the specification
+     * without running a count query. One row beyond the page size is fetched to
+     * tell whether a next slice exists.
+     *
+     * @param spec
+     *            Filters to apply.
+     * @param pageable
+     *            Pageable object for pagination and sorting.
+     * @return A slice of matching book summaries.
+     */
+    Slice<BookSummaryDto> findSummarySlice(Specification<Book> spec, Pageable pageable);
+
+    /**
+     * Returns one keyset page of summaries of the books matching the
+     * specification, ordered by title and id. Combine the filters with
+     * {@link BookSpecifications#after} to read the page following a given
+     * book.
+     *
+     * @param spec
+     *            Filters to apply.
+     * @param limit
+     *            Maximum number of rows to return.
+     * @return Book summaries ordered by title, then id.
+     */
+    List<BookSummaryDto> findKeysetPage(Specification<Book> spec, Limit limit);
+
+    /**
+     * Runs a ranked full-text search over title, author and description using
+     * the indexed {@code search_vector} column. Title matches weigh more than
+     * author matches, which weigh more than description matches.
+     *
+     * @param query
+     *            Free-text query in web search syntax (quoted phrases, "or",
+     *            "-" for exclusion).
+     * @param pageable
+     *            Pageable object for pagination; its sort is ignored.
+     * @return A page of book summaries ordered by relevance.
+     */
+    Page<BookSummaryDto> fullTextSearch(String query, Pageable pageable);
+}
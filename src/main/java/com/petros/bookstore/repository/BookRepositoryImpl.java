@@ -0,0 +1,127 @@
+package com.petros.bookstore.repository;
+
+import com.petros.bookstore.dto.bookdto.BookSummaryDto;
+import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.model.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional(readOnly = true)
+class BookRepositoryImpl implements BookRepositoryCustom {
+
+    private static final String FULL_TEXT_SELECT = //
+            "SELECT b.id, b.title, b.author, b.price, b.availability, b.genre "//
+                    + "FROM books b, websearch_to_tsquery('english', :query) q "//
+                    + "WHERE b.search_vector @@ q "//
+                    + "ORDER BY ts_rank(b.search_vector, q) DESC, b.id";
+
+    private static final String FULL_TEXT_COUNT = //
+            "SELECT count(*) FROM books b "//
+                    + "WHERE b.search_vector @@ websearch_to_tsquery('english', :query)";
+
+    private static final Sort KEYSET_ORDER = Sort.by("title", "id");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<BookSummaryDto> findSummaries(Specification<Book> spec, Pageable pageable) {
+        TypedQuery<BookSummaryDto> query = summaryQuery(spec, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(spec));
+    }
+
+    @Override
+    public Slice<BookSummaryDto> findSummarySlice(Specification<Book> spec, Pageable pageable) {
+        TypedQuery<BookSummaryDto> query = summaryQuery(spec, pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(query.getResultList(), pageable, false);
+        }
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize() + 1);
+
+        List<BookSummaryDto> rows = query.getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    @Override
+    public List<BookSummaryDto> findKeysetPage(Specification<Book> spec, Limit limit) {
+        return summaryQuery(spec, KEYSET_ORDER).setMaxResults(limit.max()).getResultList();
+    }
+
+    @Override
+    public Page<BookSummaryDto> fullTextSearch(String query, Pageable pageable) {
+        Query select = entityManager.createNativeQuery(FULL_TEXT_SELECT, Tuple.class).setParameter("query", query);
+        if (pageable.isPaged()) {
+            select.setFirstResult((int) pageable.getOffset());
+            select.setMaxResults(pageable.getPageSize());
+        }
+        @SuppressWarnings("unchecked")
+        List<BookSummaryDto> content = ((List<Tuple>) select.getResultList()).stream()//
+                .map(BookRepositoryImpl::toSummary).toList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> ((Number) entityManager//
+                .createNativeQuery(FULL_TEXT_COUNT).setParameter("query", query).getSingleResult()).longValue());
+    }
+
+    private TypedQuery<BookSummaryDto> summaryQuery(Specification<Book> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookSummaryDto> query = cb.createQuery(BookSummaryDto.class);
+        Root<Book> root = query.from(Book.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(cb.construct(BookSummaryDto.class, //
+                root.get("id"), root.get("title"), root.get("author"), //
+                root.get("price"), root.get("availability"), root.get("genre")));
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Book> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Book> root = query.from(Book.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query.select(cb.count(root))).getSingleResult();
+    }
+
+    private static BookSummaryDto toSummary(Tuple row) {
+        return new BookSummaryDto(//
+                ((Number) row.get("id")).longValue(), //
+                (String) row.get("title"), //
+                (String) row.get("author"), //
+                ((Number) row.get("price")).doubleValue(), //
+                ((Number) row.get("availability")).intValue(), //
+                Genre.valueOf((String) row.get("genre")));
+    }
+}
@@ -0,0 +1,102 @@
+package com.petros.bookstore.repository;
+
+import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.model.Book;
+import com.petros.bookstore.utils.LikePatterns;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Factory for {@link Specification}s over {@link Book}. Each filter becomes a
+ * predicate only when its value is present, so Postgres plans every search
+ * with exactly the conditions it has to evaluate and can pick the matching
+ * index.
+ */
+public final class BookSpecifications {
+
+    private BookSpecifications() {
+    }
+
+    /**
+     * Combines the given optional filters into a single specification. Null
+     * filters are left out entirely.
+     *
+     * @param title
+     *            Partial or full book title (case-insensitive).
+     * @param author
+     *            Partial or full author name (case-insensitive).
+     * @param genre
+     *            Genre of the book (exact match).
+     * @param availability
+     *            Minimum number of copies available.
+     * @param minPrice
+     *            Minimum price.
+     * @param maxPrice
+     *            Maximum price.
+     * @return A specification matching books that satisfy all present filters.
+     */
+    public static Specification<Book> withFilters(//
+            String title, String author, Genre genre, //
+            Integer availability, Double minPrice, Double maxPrice) {
+        List<Specification<Book>> filters = new ArrayList<>();
+
+        if (title != null)
+            filters.add(titleContains(title));
+        if (author != null)
+            filters.add(authorContains(author));
+        if (genre != null)
+            filters.add(hasGenre(genre));
+        if (availability != null)
+            filters.add(availableAtLeast(availability));
+        if (minPrice != null)
+            filters.add(priceAtLeast(minPrice));
+        if (maxPrice != null)
+            filters.add(priceAtMost(maxPrice));
+
+        return Specification.allOf(filters);
+    }
+
+    /**
+     * Matches the books that follow the given one in title, then id, order:
+     * the seek condition of a keyset page.
+     *
+     * @param title
+     *            Title of the last book of the previous page.
+     * @param id
+     *            Id of the last book of the previous page.
+     * @return A specification matching the books after that book.
+     */
+    public static Specification<Book> after(String title, Long id) {
+        return (root, query, cb) -> cb.or(//
+                cb.greaterThan(root.get("title"), title), //
+                cb.and(cb.equal(root.get("title"), title), cb.greaterThan(root.get("id"), id)));
+    }
+
+    public static Specification<Book> titleContains(String title) {
+        return (root, query, cb) -> ((HibernateCriteriaBuilder) cb)//
+                .ilike(root.get("title"), LikePatterns.contains(title), LikePatterns.ESCAPE);
+    }
+
+    public static Specification<Book> authorContains(String author) {
+        return (root, query, cb) -> ((HibernateCriteriaBuilder) cb)//
+                .ilike(root.get("author"), LikePatterns.contains(author), LikePatterns.ESCAPE);
+    }
+
+    public static Specification<Book> hasGenre(Genre genre) {
+        return (root, query, cb) -> cb.equal(root.get("genre"), genre);
+    }
+
+    public static Specification<Book> availableAtLeast(int availability) {
+        return (root, query, cb) -> cb.ge(root.get("availability"), availability);
+    }
+
+    public static Specification<Book> priceAtLeast(double minPrice) {
+        return (root, query, cb) -> cb.ge(root.get("price"), minPrice);
+    }
+
+    public static Specification<Book> priceAtMost(double maxPrice) {
+        return (root, query, cb) -> cb.le(root.get("price"), maxPrice);
+    }
+}
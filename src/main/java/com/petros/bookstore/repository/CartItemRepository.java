@@ -3,16 +3,50 @@ package com.petros.bookstore.repository;
 import com.petros.bookstore.model.Book;
 import com.petros.bookstore.model.CartItem;
 import com.petros.bookstore.model.ShoppingCart;
+import jakarta.persistence.LockModeType;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     Optional<CartItem> findByShoppingCartAndBook(ShoppingCart cart, Book book);
 
+    @EntityGraph(CartItem.WITH_BOOK)
     Page<CartItem> findByShoppingCart(ShoppingCart shoppingCart, Pageable pageable);
 
+    @EntityGraph(CartItem.WITH_CART_AND_BOOK)
+    Optional<CartItem> findWithCartAndBookById(Long id);
+
+    /**
+     * Loads every item of a cart with its book and locks the rows of both, book
+     * rows in id order so that concurrent checkouts sharing books cannot
+     * deadlock.
+     *
+     * @param cart
+     *            Cart to load.
+     * @return Items of the cart, ordered by book id.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ci FROM CartItem ci JOIN FETCH ci.book b WHERE ci.shoppingCart = :cart ORDER BY b.id")
+    List<CartItem> lockWithBooksByShoppingCart(@Param("cart") ShoppingCart cart);
+
+    /**
+     * Deletes every item of a cart in one statement.
+     *
+     * @param cart
+     *            Cart to empty.
+     * @return Number of deleted items.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM CartItem ci WHERE ci.shoppingCart = :cart")
+    int deleteByShoppingCart(@Param("cart") ShoppingCart cart);
 }
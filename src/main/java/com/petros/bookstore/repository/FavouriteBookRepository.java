@@ -5,6 +5,7 @@ import com.petros.bookstore.model.User;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -13,6 +14,8 @@ public interface FavouriteBookRepository extends JpaRepository<FavouriteBook, Lo
 
     Page<FavouriteBook> findByUser(User user, Pageable pageable);
 
+    Slice<FavouriteBook> findSliceByUser(User user, Pageable pageable);
+
     Optional<FavouriteBook> findByUserAndBook_Id(User user, Long bookId);
 
     void deleteByUserAndBook_Id(User user, Long bookId);
@@ -0,0 +1,83 @@
+package com.petros.bookstore.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Store of the idempotency keys sent by clients, keyed by user and key. A key
+ * is claimed before the request runs and completed with the response in the
+ * same transaction, so other requests with the same key only ever see a
+ * completed entry.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Claims the key for the user. A concurrent claim of the same key waits
+     * until the first one commits or rolls back.
+     *
+     * @param userId
+     *            the ID of the user
+     * @param key
+     *            the idempotency key
+     * @return true if the key was claimed, false if it was used before
+     */
+    public boolean claim(Long userId, String key) {
+        return jdbcTemplate.update("INSERT INTO idempotency_keys (user_id, idempotency_key) VALUES (?, ?) "//
+                + "ON CONFLICT DO NOTHING", userId, key) == 1;
+    }
+
+    /**
+     * Records the outcome of the request that claimed the key.
+     *
+     * @param userId
+     *            the ID of the user
+     * @param key
+     *            the idempotency key
+     * @param resourceId
+     *            the ID of the created resource
+     * @param response
+     *            the response body as JSON
+     */
+    public void complete(Long userId, String key, Long resourceId, String response) {
+        jdbcTemplate.update("UPDATE idempotency_keys SET resource_id = ?, response = CAST(? AS jsonb) "//
+                + "WHERE user_id = ? AND idempotency_key = ?", resourceId, response, userId, key);
+    }
+
+    /**
+     * Returns the recorded response of a key.
+     *
+     * @param userId
+     *            the ID of the user
+     * @param key
+     *            the idempotency key
+     * @return the response body as JSON, if the key was completed
+     */
+    public Optional<String> findResponse(Long userId, String key) {
+        return jdbcTemplate.queryForList("SELECT response::text FROM idempotency_keys "//
+                + "WHERE user_id = ? AND idempotency_key = ? AND response IS NOT NULL", String.class, userId, key)
+                .stream().findFirst();
+    }
+
+    /**
+     * Deletes up to {@code limit} keys created before the cutoff.
+     *
+     * @param cutoff
+     *            keys created before this instant are deleted
+     * @param limit
+     *            the maximum number of keys to delete
+     * @return the number of deleted keys
+     */
+    public int deleteCreatedBefore(Instant cutoff, int limit) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE (user_id, idempotency_key) IN ("//
+                + "SELECT user_id, idempotency_key FROM idempotency_keys WHERE created_at < ? LIMIT ?)", //
+                Timestamp.from(cutoff), limit);
+    }
+}
@@ -1,9 +1,28 @@
 package com.petros.bookstore.repository;
 
+import com.petros.bookstore.dto.orderdto.OrderLineExportDto;
 import com.petros.bookstore.model.OrderItem;
+import jakarta.persistence.QueryHint;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    /**
+     * Streams every order line together with its order, read through a
+     * forward-only cursor 500 rows at a time. Must be called in a transaction
+     * and the stream closed after use.
+     *
+     * @return Order lines ordered by order date, order id, then item id.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.petros.bookstore.dto.orderdto.OrderLineExportDto(o.id, o.user.id, o.status, "//
+            + "o.order_date, o.total_price, i.book.id, i.quantity, i.unitPrice, i.lineTotal) "//
+            + "FROM OrderItem i JOIN i.order o ORDER BY o.order_date, o.id, i.id")
+    Stream<OrderLineExportDto> streamAllLines();
 }
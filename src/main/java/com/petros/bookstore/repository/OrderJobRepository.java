@@ -0,0 +1,107 @@
+package com.petros.bookstore.repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Postgres-backed queue of orders waiting to be processed. Workers lock the
+ * next ready job with {@code FOR UPDATE SKIP LOCKED}, so each job is taken by
+ * one worker at a time and a job whose worker dies becomes ready again when
+ * its transaction rolls back.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderJobRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds a job for the order, ready immediately.
+     *
+     * @param orderId
+     *            the ID of the order
+     */
+    public void enqueue(Long orderId) {
+        jdbcTemplate.update("INSERT INTO order_jobs (order_id) VALUES (?)", orderId);
+    }
+
+    /**
+     * Locks the ready job that has waited longest and that no other
+     * transaction holds. The lock lasts until the calling transaction ends.
+     *
+     * @return the order ID of the locked job, if any job is ready
+     */
+    public Optional<Long> lockNext() {
+        return jdbcTemplate.queryForList("SELECT order_id FROM order_jobs WHERE available_at <= now() "//
+                + "ORDER BY available_at LIMIT 1 FOR UPDATE SKIP LOCKED", Long.class).stream().findFirst();
+    }
+
+    /**
+     * Removes the job of a processed order.
+     *
+     * @param orderId
+     *            the ID of the order
+     */
+    public void delete(Long orderId) {
+        jdbcTemplate.update("DELETE FROM order_jobs WHERE order_id = ?", orderId);
+    }
+
+    /**
+     * Records a failed attempt and makes the job ready again after the delay
+     * times the number of attempts. A job that has reached the maximum number
+     * of attempts is parked: it stays in the queue but is never ready again.
+     *
+     * @param orderId
+     *            the ID of the order
+     * @param delay
+     *            the delay after the first failed attempt
+     * @param maxAttempts
+     *            the number of attempts after which the job is parked
+     * @param error
+     *            the reason of the failure
+     */
+    public void retryLater(Long orderId, Duration delay, int maxAttempts, String error) {
+        jdbcTemplate.update("UPDATE order_jobs SET attempts = attempts + 1, last_error = ?, available_at = "//
+                + "CASE WHEN attempts + 1 >= ? THEN 'infinity' "//
+                + "ELSE now() + (attempts + 1) * ? * interval '1 millisecond' END "//
+                + "WHERE order_id = ?", error, maxAttempts, delay.toMillis(), orderId);
+    }
+
+    /**
+     * Counts the jobs that are not parked, that is the jobs that workers will
+     * still take and remove. The range over {@code available_at} is served by
+     * its index.
+     *
+     * @return the number of jobs waiting or being retried
+     */
+    public long countUnparked() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM order_jobs WHERE available_at < 'infinity'",
+                Long.class);
+    }
+
+    /**
+     * Measures the queue: all jobs, ready jobs, parked jobs and the enqueue
+     * time of the oldest ready job.
+     *
+     * @return the depth of the queue
+     */
+    public QueueDepth depth() {
+        return jdbcTemplate.queryForObject("SELECT count(*), "//
+                + "count(*) FILTER (WHERE available_at <= now()), "//
+                + "count(*) FILTER (WHERE available_at = 'infinity'), "//
+                + "min(enqueued_at) FILTER (WHERE available_at <= now()) FROM order_jobs", //
+                (rs, rowNum) -> {
+                    Timestamp oldest = rs.getTimestamp(4);
+                    return new QueueDepth(rs.getLong(1), rs.getLong(2), rs.getLong(3), //
+                            oldest == null ? null : oldest.toInstant());
+                });
+    }
+
+    public record QueueDepth(long queued, long ready, long parked, Instant oldestReadyAt) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.petros.bookstore.repository;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Consumer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Monthly partitions of the {@code orders} and {@code order_items} tables. The
+ * partitions of a month are named {@code orders_pYYYYMM} and
+ * {@code order_items_pYYYYMM} and are created and dropped together.
+ */
+@Repository
+public class OrderPartitionRepository {
+
+    /** Rows the export fetches per round trip, instead of the whole month. */
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    private static final String EXPORT = """
+            SELECT json_build_object(
+                'id', o.id, 'userId', o.user_id, 'status', o.status,
+                'totalPrice', o.total_price, 'orderDate', o.order_date,
+                'items', COALESCE((SELECT json_agg(json_build_object(
+                            'id', i.id, 'bookId', i.book_id, 'quantity', i.quantity,
+                            'unitPrice', i.unit_price, 'lineTotal', i.line_total) ORDER BY i.id)
+                        FROM %s i WHERE i.order_id = o.id), '[]'))::text
+            FROM %s o ORDER BY o.order_date, o.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate exportTemplate;
+
+    public OrderPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.exportTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.exportTemplate.setFetchSize(EXPORT_FETCH_SIZE);
+    }
+
+    /**
+     * Creates the partitions of the given months that do not exist yet.
+     *
+     * @param first
+     *            the first month
+     * @param months
+     *            the number of months from the first one on
+     * @return the number of months created
+     */
+    public int create(YearMonth first, int months) {
+        return jdbcTemplate.queryForObject("SELECT create_order_partitions(?, ?)", Integer.class, //
+                Date.valueOf(first.atDay(1)), months);
+    }
+
+    /**
+     * Returns the months that have partitions, oldest first.
+     *
+     * @return the partitioned months
+     */
+    public List<YearMonth> months() {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i "//
+                + "JOIN pg_class c ON c.oid = i.inhrelid "//
+                + "WHERE i.inhparent = 'orders'::regclass ORDER BY c.relname", String.class)//
+                .stream().map(OrderPartitionRepository::monthOf).toList();
+    }
+
+    /**
+     * Blocks writes to the partitions of a month until the calling transaction
+     * ends, waiting at most five seconds for the lock.
+     *
+     * @param month
+     *            the month
+     */
+    public void lock(YearMonth month) {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '5s'");
+        jdbcTemplate.execute("LOCK TABLE " + orders(month) + ", " + items(month) + " IN SHARE MODE");
+    }
+
+    /**
+     * Counts the orders of a month that are not delivered.
+     *
+     * @param month
+     *            the month
+     * @return the number of orders in another status than DELIVERED
+     */
+    public long countNotDelivered(YearMonth month) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + orders(month) //
+                + " WHERE status <> 'DELIVERED'", Long.class);
+    }
+
+    /**
+     * Streams the orders of a month with their items, one JSON object per
+     * order, in order date order.
+     *
+     * @param month
+     *            the month
+     * @param sink
+     *            receives the JSON of each order
+     * @return the number of exported orders
+     */
+    public long export(YearMonth month, Consumer<String> sink) {
+        long[] count = new long[1];
+        exportTemplate.query(EXPORT.formatted(items(month), orders(month)), rs -> {
+            sink.accept(rs.getString(1));
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    /**
+     * Detaches and drops the partitions of a month, items first since they
+     * reference the orders.
+     *
+     * @param month
+     *            the month
+     */
+    public void drop(YearMonth month) {
+        jdbcTemplate.execute("ALTER TABLE order_items DETACH PARTITION " + items(month));
+        jdbcTemplate.execute("ALTER TABLE orders DETACH PARTITION " + orders(month));
+        jdbcTemplate.execute("DROP TABLE " + items(month) + ", " + orders(month));
+    }
+
+    private static String orders(YearMonth month) {
+        return "orders_p%04d%02d".formatted(month.getYear(), month.getMonthValue());
+    }
+
+    private static String items(YearMonth month) {
+        return "order_items_p%04d%02d".formatted(month.getYear(), month.getMonthValue());
+    }
+
+    private static YearMonth monthOf(String partition) {
+        String suffix = partition.substring("orders_p".length());
+        return YearMonth.of(Integer.parseInt(suffix.substring(0, 4)), Integer.parseInt(suffix.substring(4)));
+    }
+}
@@ -1,17 +1,78 @@
 package com.petros.bookstore.repository;
 
+import com.petros.bookstore.enums.Status;
 import com.petros.bookstore.model.Order;
 import com.petros.bookstore.model.User;
+import jakarta.persistence.LockModeType;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
+
+    /**
+     * Moves an order from one status to another, if it is still in the first.
+     *
+     * @param id
+     *            Id of the order.
+     * @param from
+     *            Status the order must be in.
+     * @param to
+     *            New status of the order.
+     * @return 1 if the order was moved, 0 otherwise.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :to WHERE o.id = :id AND o.status = :from")
+    int transition(@Param("id") Long id, @Param("from") Status from, @Param("to") Status to);
 
     Page<Order> findByUser(User user, Pageable pageable);
 
+    @EntityGraph(Order.WITH_ITEMS)
     Optional<Order> findByIdAndUser(Long id, User user);
+
+    @EntityGraph(Order.WITH_ITEMS)
+    Optional<Order> findWithItemsById(Long id);
+
+    /**
+     * Loads orders together with their items and books. Run after a paged
+     * query to initialize the items of the page in one statement; fetching
+     * the collection in the paged query itself would page in memory.
+     *
+     * @param ids
+     *            Ids of the orders.
+     * @return The orders with their items.
+     */
+    @EntityGraph(Order.WITH_ITEMS)
+    List<Order> findWithItemsByIdIn(Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Order> findLockedById(Long id);
+
+    @Query(value = "SELECT * FROM orders WHERE user_id = :userId "//
+            + "ORDER BY order_date DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Order> findKeysetPageByUser(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM orders WHERE user_id = :userId AND (order_date, id) < (:orderDate, :id) "//
+            + "ORDER BY order_date DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Order> findKeysetPageByUserAfter(@Param("userId") Long userId, //
+            @Param("orderDate") Timestamp orderDate, @Param("id") Long id, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM orders ORDER BY order_date DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Order> findKeysetPage(@Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM orders WHERE (order_date, id) < (:orderDate, :id) "//
+            + "ORDER BY order_date DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Order> findKeysetPageAfter(//
+            @Param("orderDate") Timestamp orderDate, @Param("id") Long id, @Param("limit") int limit);
 }
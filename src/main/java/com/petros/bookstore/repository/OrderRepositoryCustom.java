@@ -0,0 +1,41 @@
+package com.petros.bookstore.repository;
+
+import com.petros.bookstore.enums.Status;
+import com.petros.bookstore.model.Order;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Custom queries for {@link Order} that Spring Data does not derive.
+ */
+public interface OrderRepositoryCustom {
+
+    /**
+     * Returns one keyset page of the orders matching the filters, newest first.
+     * Null filters are left out, so that each combination is planned against
+     * the index that fits it: {@code idx_orders_status_date_id} for a status,
+     * {@code idx_orders_open_date_id} for open orders and
+     * {@code idx_orders_user_date_id} for a user.
+     *
+     * @param status
+     *            Status the orders must be in, or null.
+     * @param open
+     *            Whether to keep only orders not delivered yet.
+     * @param userId
+     *            Id of the user who placed the orders, or null.
+     * @param from
+     *            Earliest order date, inclusive, or null.
+     * @param to
+     *            Order date the orders must precede, or null.
+     * @param afterDate
+     *            Order date of the last order of the previous page, or null for
+     *            the first page.
+     * @param afterId
+     *            Id of the last order of the previous page.
+     * @param limit
+     *            Maximum number of orders to return.
+     * @return The matching orders, newest first.
+     */
+    List<Order> search(Status status, boolean open, Long userId, Timestamp from, Timestamp to, //
+            Timestamp afterDate, Long afterId, int limit);
+}
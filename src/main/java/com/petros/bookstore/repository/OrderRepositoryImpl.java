@@ -0,0 +1,34 @@
+package com.petros.bookstore.repository;
+
+import com.petros.bookstore.enums.Status;
+import com.petros.bookstore.model.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import java.sql.Timestamp;
+import java.util.List;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional(readOnly = true)
+class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Order> search(Status status, boolean open, Long userId, Timestamp from, Timestamp to, //
+            Timestamp afterDate, Long afterId, int limit) {
+        SqlFilter filter = SqlFilter.orders(status, open, userId, from, to);
+        if (afterDate != null) {
+            filter.add("(order_date, id) < (?, ?)", afterDate, afterId);
+        }
+        Query query = entityManager.createNativeQuery(//
+                "SELECT * FROM orders" + filter.where() + " ORDER BY order_date DESC, id DESC", Order.class);
+        Object[] args = filter.args();
+        for (int i = 0; i < args.length; i++) {
+            query.setParameter(i + 1, args[i]);
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,97 @@
+package com.petros.bookstore.repository;
+
+import com.petros.bookstore.enums.OutboxEventType;
+import com.petros.bookstore.enums.Status;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Set-based status changes of many orders at once, without loading them. Each
+ * order is looked up by ID alone, which probes the primary key index of every
+ * monthly partition.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderStatusRepository {
+
+    /**
+     * Moves the orders still in the from status and appends one status change
+     * event per moved order in the same statement. The payload is the JSON of
+     * {@link com.petros.bookstore.outbox.OrderStatusChangedEvent}. An order
+     * another transaction moves first is waited for and then skipped, since
+     * its status no longer matches.
+     */
+    private static final String TRANSITION = """
+            WITH updated AS (
+                UPDATE orders SET status = ? WHERE id = ANY(?) AND status = ? RETURNING id),
+            events AS (
+                INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload)
+                SELECT ?, id, ?, jsonb_build_object('orderId', id, 'from', ?, 'to', ?)
+                FROM updated ORDER BY id)
+            SELECT id FROM updated ORDER BY id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the IDs of the oldest orders in a status, optionally placed
+     * within a date range.
+     *
+     * @param status
+     *            the status of the orders
+     * @param from
+     *            the earliest order date, inclusive, or null
+     * @param to
+     *            the order date the orders must precede, or null
+     * @param limit
+     *            the maximum number of IDs
+     * @return the IDs, oldest order first
+     */
+    public List<Long> findIds(Status status, Timestamp from, Timestamp to, int limit) {
+        SqlFilter filter = SqlFilter.orders(status, false, null, from, to);
+        Object[] args = Arrays.copyOf(filter.args(), filter.args().length + 1);
+        args[args.length - 1] = limit;
+        return jdbcTemplate.queryForList("SELECT id FROM orders" + filter.where() //
+                + " ORDER BY order_date, id LIMIT ?", Long.class, args);
+    }
+
+    /**
+     * Moves the given orders that are in the from status to the to status and
+     * records an event for each of them.
+     *
+     * @param aggregateType
+     *            the aggregate type of the events
+     * @param ids
+     *            the IDs of the orders
+     * @param from
+     *            the status the orders must be in
+     * @param to
+     *            the status to move them to
+     * @return the IDs of the moved orders, ascending
+     */
+    public List<Long> transition(String aggregateType, Collection<Long> ids, Status from, Status to) {
+        return jdbcTemplate.queryForList(TRANSITION, Long.class, to.name(), ids.toArray(Long[]::new), from.name(), //
+                aggregateType, OutboxEventType.ORDER_STATUS_CHANGED.name(), from.name(), to.name());
+    }
+
+    /**
+     * Returns the current status of the given orders.
+     *
+     * @param ids
+     *            the IDs of the orders
+     * @return the status of each order that exists, by ID
+     */
+    public Map<Long, Status> statuses(Collection<Long> ids) {
+        return jdbcTemplate.query("SELECT id, status FROM orders WHERE id = ANY(?)", //
+                (rs, rowNum) -> Map.entry(rs.getLong(1), Status.valueOf(rs.getString(2))), //
+                (Object) ids.toArray(Long[]::new))//
+                .stream().collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+}
@@ -0,0 +1,173 @@
+package com.petros.bookstore.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petros.bookstore.enums.OutboxEventType;
+import com.petros.bookstore.outbox.OutboxEvent;
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Table of events written in the same transaction as the change they
+ * describe, read back and delivered by the outbox relay.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxRepository {
+
+    /** Key of the advisory lock that lets a single relay deliver at a time. */
+    private static final long RELAY_LOCK = 0x6f7574626f78L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Appends an event.
+     *
+     * @param aggregateType
+     *            the kind of entity the event is about
+     * @param aggregateId
+     *            the ID of the entity
+     * @param type
+     *            the type of the event
+     * @param payload
+     *            the payload as JSON
+     */
+    public void append(String aggregateType, Long aggregateId, OutboxEventType type, String payload) {
+        jdbcTemplate.update("INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload) "//
+                + "VALUES (?, ?, ?, CAST(? AS jsonb))", aggregateType, aggregateId, type.name(), payload);
+    }
+
+    /**
+     * Takes the relay lock for the rest of the calling transaction, if no other
+     * transaction holds it.
+     *
+     * @return true if the lock was taken
+     */
+    public boolean tryLockRelay() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", //
+                Boolean.class, RELAY_LOCK));
+    }
+
+    /**
+     * Takes the relay lock for the rest of the calling transaction, waiting for
+     * a relay that holds it to finish its batch. No events are delivered until
+     * the transaction ends.
+     */
+    public void lockRelay() {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> {
+        }, RELAY_LOCK);
+    }
+
+    /**
+     * Sets a savepoint in the calling transaction.
+     *
+     * @return the savepoint
+     */
+    public Savepoint setSavepoint() {
+        return jdbcTemplate.execute((ConnectionCallback<Savepoint>) Connection::setSavepoint);
+    }
+
+    /**
+     * Undoes the work of the calling transaction since the savepoint, which
+     * also clears an error that aborted a statement since.
+     *
+     * @param savepoint
+     *            the savepoint to roll back to
+     */
+    public void rollbackToSavepoint(Savepoint savepoint) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            con.rollback(savepoint);
+            return null;
+        });
+    }
+
+    /**
+     * Releases a savepoint, keeping the work done since.
+     *
+     * @param savepoint
+     *            the savepoint to release
+     */
+    public void releaseSavepoint(Savepoint savepoint) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            con.releaseSavepoint(savepoint);
+            return null;
+        });
+    }
+
+    /**
+     * Returns the oldest undelivered events that are not parked, in append
+     * order.
+     *
+     * @param limit
+     *            the maximum number of events
+     * @return the undelivered events
+     */
+    public List<OutboxEvent> findUnpublished(int limit) {
+        return jdbcTemplate.query("SELECT id, aggregate_type, aggregate_id, event_type, payload::text, created_at "//
+                + "FROM outbox_events WHERE published_at IS NULL AND parked_at IS NULL ORDER BY id LIMIT ?", //
+                (rs, rowNum) -> new OutboxEvent(rs.getLong(1), rs.getString(2), rs.getLong(3), //
+                        OutboxEventType.valueOf(rs.getString(4)), readTree(rs.getString(5)), //
+                        rs.getTimestamp(6).toInstant()), limit);
+    }
+
+    /**
+     * Marks events delivered.
+     *
+     * @param ids
+     *            the IDs of the delivered events
+     */
+    public void markPublished(List<Long> ids) {
+        jdbcTemplate.update("UPDATE outbox_events SET published_at = now() WHERE id = ANY(?)", //
+                (Object) ids.toArray(Long[]::new));
+    }
+
+    /**
+     * Records a failed delivery. An event that has reached the maximum number
+     * of attempts is parked: it stays undelivered but is no longer returned by
+     * {@link #findUnpublished}.
+     *
+     * @param id
+     *            the ID of the event
+     * @param maxAttempts
+     *            the number of attempts after which the event is parked
+     * @param error
+     *            the reason of the failure
+     * @return true if the event was parked
+     */
+    public boolean recordFailure(Long id, int maxAttempts, String error) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("UPDATE outbox_events SET attempts = attempts + 1, "//
+                + "last_error = ?, parked_at = CASE WHEN attempts + 1 >= ? THEN now() END "//
+                + "WHERE id = ? RETURNING parked_at IS NOT NULL", Boolean.class, error, maxAttempts, id));
+    }
+
+    /**
+     * Deletes up to {@code limit} events delivered before the cutoff.
+     *
+     * @param cutoff
+     *            events delivered before this instant are deleted
+     * @param limit
+     *            the maximum number of events to delete
+     * @return the number of deleted events
+     */
+    public int deletePublishedBefore(Instant cutoff, int limit) {
+        return jdbcTemplate.update("DELETE FROM outbox_events WHERE id IN (SELECT id FROM outbox_events "//
+                + "WHERE published_at < ? LIMIT ?)", Timestamp.from(cutoff), limit);
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable outbox payload", e);
+        }
+    }
+}
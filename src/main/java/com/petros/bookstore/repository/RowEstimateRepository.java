@@ -0,0 +1,92 @@
+package com.petros.bookstore.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.utils.LikePatterns;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Row counts taken from the Postgres planner instead of a {@code COUNT(*)}.
+ * Each method plans a query with the same filters as the listing it estimates
+ * and returns the planner's "Plan Rows", which rests on the table statistics
+ * kept by autovacuum. The numbers are approximate by design.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RowEstimateRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Estimates the number of books matching the search filters. Null filters
+     * are left out, as in {@link BookSpecifications#withFilters}.
+     *
+     * @param title
+     *            optional title filter
+     * @param author
+     *            optional author filter
+     * @param genre
+     *            optional genre filter
+     * @param availability
+     *            optional minimum availability
+     * @param minPrice
+     *            optional minimum price
+     * @param maxPrice
+     *            optional maximum price
+     * @return the estimated number of matching books
+     */
+    public long estimateBooks(String title, String author, Genre genre, //
+            Integer availability, Double minPrice, Double maxPrice) {
+        return estimate("books", SqlFilter.books(title, author, genre, availability, minPrice, maxPrice));
+    }
+
+    /**
+     * Estimates the number of users matching the search filters. Null filters
+     * are left out, as in {@link UserRepository#searchUsers}.
+     *
+     * @param username
+     *            optional username filter
+     * @param firstName
+     *            optional first name filter
+     * @param lastName
+     *            optional last name filter
+     * @return the estimated number of matching users
+     */
+    public long estimateUsers(String username, String firstName, String lastName) {
+        SqlFilter filter = new SqlFilter();
+
+        if (username != null)
+            filter.add("username ILIKE ?", LikePatterns.contains(username));
+        if (firstName != null)
+            filter.add("first_name ILIKE ?", LikePatterns.contains(firstName));
+        if (lastName != null)
+            filter.add("last_name ILIKE ?", LikePatterns.contains(lastName));
+
+        return estimate("users", filter);
+    }
+
+    /**
+     * Estimates the number of favourite books of a user.
+     *
+     * @param userId
+     *            the ID of the user
+     * @return the estimated number of favourites
+     */
+    public long estimateFavourites(Long userId) {
+        return estimate("favourite_books", new SqlFilter().add("user_id = ?", userId));
+    }
+
+    private long estimate(String table, SqlFilter filter) {
+        String sql = "EXPLAIN (FORMAT JSON) SELECT 1 FROM " + table + filter.where();
+        String plan = jdbcTemplate.queryForObject(sql, String.class, filter.args());
+        try {
+            return objectMapper.readTree(plan).path(0).path("Plan").path("Plan Rows").asLong();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable query plan for " + table, e);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.petros.bookstore.repository;
+
+import com.petros.bookstore.dto.analyticsdto.BookSalesDto;
+import com.petros.bookstore.dto.analyticsdto.DailySalesDto;
+import com.petros.bookstore.dto.analyticsdto.GenreSalesDto;
+import com.petros.bookstore.dto.bookdto.BookPopularityDto;
+import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.outbox.OrderPlacedEvent;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Sales rolled up per day, in total, per book and per genre. The rollups are
+ * added to as order events are delivered and rebuilt from the orders.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesRollupRepository {
+
+    /** The lines of an order, passed as three arrays of the same length. */
+    private static final String LINES = """
+            unnest(CAST(? AS bigint[]), CAST(? AS int[]), CAST(? AS numeric[])) AS line(book_id, quantity, price)""";
+
+    /**
+     * The orders the delivered events account for: an order whose placement
+     * is not delivered yet is left out, and one with a status change not
+     * delivered yet counts in the status it changed from.
+     */
+    private static final String APPLIED_ORDERS = """
+            WITH pending AS (
+                SELECT DISTINCT ON (aggregate_id) aggregate_id AS order_id, event_type, payload ->> 'from' AS status
+                FROM outbox_events
+                WHERE published_at IS NULL AND aggregate_type = 'ORDER'
+                ORDER BY aggregate_id, id),
+            applied AS (
+                SELECT o.id, o.order_date, o.total_price, COALESCE(p.status, o.status) AS status
+                FROM orders o LEFT JOIN pending p ON p.order_id = o.id
+                WHERE o.order_date >= ? AND p.event_type IS DISTINCT FROM 'ORDER_PLACED')
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds a placed order to the rollups of its day.
+     *
+     * @param day
+     *            the day the order was placed
+     * @param order
+     *            the placed order
+     */
+    public void addPlaced(LocalDate day, OrderPlacedEvent order) {
+        List<OrderPlacedEvent.Line> lines = order.lines();
+        Object[] args = {day, //
+                lines.stream().map(OrderPlacedEvent.Line::bookId).toArray(Long[]::new), //
+                lines.stream().map(OrderPlacedEvent.Line::quantity).toArray(Integer[]::new), //
+                lines.stream().map(OrderPlacedEvent.Line::price).toArray(Double[]::new)};
+
+        jdbcTemplate.update("""
+                INSERT INTO sales_daily (day, orders, units, revenue, delivered_orders, delivered_revenue)
+                VALUES (?, 1, ?, ?, 0, 0)
+                ON CONFLICT (day) DO UPDATE SET orders = sales_daily.orders + 1,
+                    units = sales_daily.units + EXCLUDED.units, revenue = sales_daily.revenue + EXCLUDED.revenue
+                """, day, lines.stream().mapToLong(OrderPlacedEvent.Line::quantity).sum(), order.totalPrice());
+        jdbcTemplate.update("""
+                INSERT INTO sales_by_book_daily (day, book_id, units, revenue)
+                SELECT ?, book_id, sum(quantity), sum(quantity * price) FROM %s GROUP BY book_id
+                ON CONFLICT (day, book_id) DO UPDATE SET units = sales_by_book_daily.units + EXCLUDED.units,
+                    revenue = sales_by_book_daily.revenue + EXCLUDED.revenue
+                """.formatted(LINES), args);
+        jdbcTemplate.update("""
+                INSERT INTO sales_by_genre_daily (day, genre, units, revenue)
+                SELECT ?, b.genre, sum(line.quantity), sum(line.quantity * line.price)
+                FROM %s JOIN books b ON b.id = line.book_id GROUP BY b.genre
+                ON CONFLICT (day, genre) DO UPDATE SET units = sales_by_genre_daily.units + EXCLUDED.units,
+                    revenue = sales_by_genre_daily.revenue + EXCLUDED.revenue
+                """.formatted(LINES), args);
+    }
+
+    /**
+     * Adds an order that became delivered to the delivered sales of the day it
+     * was placed, or takes away one that stopped being delivered.
+     *
+     * @param orderId
+     *            the ID of the order
+     * @param sign
+     *            1 to add the order, -1 to take it away
+     * @return false if the order does not exist
+     */
+    public boolean addDelivered(Long orderId, int sign) {
+        return jdbcTemplate.update("""
+                INSERT INTO sales_daily (day, orders, units, revenue, delivered_orders, delivered_revenue)
+                SELECT order_date::date, 0, 0, 0, ?, ? * total_price FROM orders WHERE id = ?
+                ON CONFLICT (day) DO UPDATE SET
+                    delivered_orders = sales_daily.delivered_orders + EXCLUDED.delivered_orders,
+                    delivered_revenue = sales_daily.delivered_revenue + EXCLUDED.delivered_revenue
+                """, sign, sign, orderId) > 0;
+    }
+
+    /**
+     * Returns the first day the orders table holds orders of. Reading it locks
+     * the orders against archival until the calling transaction ends.
+     *
+     * @return the day of the oldest order, or empty if there are none
+     */
+    public Optional<LocalDate> firstOrderDay() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject("SELECT min(order_date)::date FROM orders", //
+                LocalDate.class));
+    }
+
+    /**
+     * Recomputes the rollups of every day from the given one on from the
+     * orders, at the prices the items sold at.
+     *
+     * @param since
+     *            the first day to recompute
+     * @return the number of days with sales
+     */
+    public int rebuild(LocalDate since) {
+        for (String rollup : List.of("sales_daily", "sales_by_book_daily", "sales_by_genre_daily")) {
+            jdbcTemplate.update("DELETE FROM " + rollup + " WHERE day >= ?", since);
+        }
+        Timestamp from = Timestamp.valueOf(since.atStartOfDay());
+
+        int days = jdbcTemplate.update(APPLIED_ORDERS + """
+                INSERT INTO sales_daily (day, orders, units, revenue, delivered_orders, delivered_revenue)
+                SELECT a.order_date::date, count(*), sum(i.units), sum(a.total_price),
+                       count(*) FILTER (WHERE a.status = 'DELIVERED'),
+                       COALESCE(sum(a.total_price) FILTER (WHERE a.status = 'DELIVERED'), 0)
+                FROM applied a JOIN (SELECT order_id, sum(quantity) AS units FROM order_items
+                                     WHERE order_date >= ? GROUP BY order_id) i ON i.order_id = a.id
+                GROUP BY 1
+                """, from, from);
+        jdbcTemplate.update(APPLIED_ORDERS + """
+                INSERT INTO sales_by_book_daily (day, book_id, units, revenue)
+                SELECT a.order_date::date, i.book_id, sum(i.quantity), sum(i.line_total)
+                FROM applied a JOIN order_items i ON i.order_id = a.id AND i.order_date = a.order_date
+                GROUP BY 1, 2
+                """, from);
+        jdbcTemplate.update(APPLIED_ORDERS + """
+                INSERT INTO sales_by_genre_daily (day, genre, units, revenue)
+                SELECT a.order_date::date, b.genre, sum(i.quantity), sum(i.line_total)
+                FROM applied a
+                JOIN order_items i ON i.order_id = a.id AND i.order_date = a.order_date
+                JOIN books b ON b.id = i.book_id
+                GROUP BY 1, 2
+                """, from);
+        return days;
+    }
+
+    /**
+     * Returns the sales of every day with sales in a range.
+     *
+     * @param from
+     *            the first day, inclusive
+     * @param to
+     *            the last day, inclusive
+     * @return the sales per day, oldest first
+     */
+    public List<DailySalesDto> daily(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("SELECT day, orders, units, revenue, delivered_orders, delivered_revenue "//
+                + "FROM sales_daily WHERE day BETWEEN ? AND ? ORDER BY day", //
+                (rs, rowNum) -> new DailySalesDto(rs.getObject(1, LocalDate.class), rs.getLong(2), rs.getLong(3), //
+                        rs.getDouble(4), rs.getLong(5), rs.getDouble(6)), from, to);
+    }
+
+    /**
+     * Returns the books with the highest revenue in a range. A book deleted
+     * since keeps its sales, without a title and author.
+     *
+     * @param from
+     *            the first day, inclusive
+     * @param to
+     *            the last day, inclusive
+     * @param limit
+     *            the maximum number of books
+     * @return the sales per book, highest revenue first
+     */
+    public List<BookSalesDto> topBooks(LocalDate from, LocalDate to, int limit) {
+        return jdbcTemplate.query("""
+                SELECT s.book_id, b.title, b.author, s.units, s.revenue
+                FROM (SELECT book_id, sum(units) AS units, sum(revenue) AS revenue FROM sales_by_book_daily
+                      WHERE day BETWEEN ? AND ? GROUP BY book_id ORDER BY revenue DESC, book_id LIMIT ?) s
+                LEFT JOIN books b ON b.id = s.book_id
+                ORDER BY s.revenue DESC, s.book_id
+                """, (rs, rowNum) -> new BookSalesDto(rs.getLong(1), rs.getString(2), rs.getString(3), //
+                rs.getLong(4), rs.getDouble(5)), from, to, limit);
+    }
+
+    /**
+     * Returns the title and author of every book with the copies it ever
+     * sold, including the sales of archived months.
+     *
+     * @return one row per book, including books never ordered
+     */
+    public List<BookPopularityDto> bookPopularity() {
+        return jdbcTemplate.query("""
+                SELECT b.id, b.title, b.author, COALESCE(s.units, 0)
+                FROM books b
+                LEFT JOIN (SELECT book_id, sum(units) AS units FROM sales_by_book_daily GROUP BY book_id) s
+                    ON s.book_id = b.id
+                """, (rs, rowNum) -> new BookPopularityDto(rs.getLong(1), rs.getString(2), rs.getString(3), //
+                rs.getLong(4)));
+    }
+
+    /**
+     * Returns the sales per genre in a range.
+     *
+     * @param from
+     *            the first day, inclusive
+     * @param to
+     *            the last day, inclusive
+     * @return the sales per genre with sales, highest revenue first
+     */
+    public List<GenreSalesDto> genres(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("SELECT genre, sum(units), sum(revenue) FROM sales_by_genre_daily "//
+                + "WHERE day BETWEEN ? AND ? GROUP BY genre ORDER BY 3 DESC, 1", //
+                (rs, rowNum) -> new GenreSalesDto(Genre.valueOf(rs.getString(1)), rs.getLong(2), //
+                        rs.getDouble(3)), from, to);
+    }
+}
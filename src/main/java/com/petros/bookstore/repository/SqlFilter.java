@@ -0,0 +1,96 @@
+package com.petros.bookstore.repository;
+
+import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.enums.Status;
+import com.petros.bookstore.utils.LikePatterns;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Conditions and bind arguments of a plain SQL {@code WHERE} clause, used by
+ * the repositories that query through {@code JdbcTemplate}. Conditions are
+ * joined with {@code AND}.
+ */
+final class SqlFilter {
+
+    /**
+     * Orders in any status but the terminal ones, that is orders not delivered
+     * yet. Written with literals rather than bind arguments so that the planner
+     * can match the predicate of the partial index
+     * {@code idx_orders_open_date_id}.
+     */
+    private static final String OPEN_ORDERS = Arrays.stream(Status.values())//
+            .filter(status -> !status.isTerminal())//
+            .map(status -> "'" + status.name() + "'")//
+            .collect(Collectors.joining(", ", "status IN (", ")"));
+
+    private final List<String> conditions = new ArrayList<>();
+    private final List<Object> args = new ArrayList<>();
+
+    /**
+     * Builds the filter over the books table for the search filters. Null
+     * filters are left out, as in {@link BookSpecifications#withFilters}.
+     */
+    static SqlFilter books(String title, String author, Genre genre, //
+            Integer availability, Double minPrice, Double maxPrice) {
+        SqlFilter filter = new SqlFilter();
+
+        if (title != null)
+            filter.add("title ILIKE ?", LikePatterns.contains(title));
+        if (author != null)
+            filter.add("author ILIKE ?", LikePatterns.contains(author));
+        if (genre != null)
+            filter.add("genre = ?", genre.name());
+        if (availability != null)
+            filter.add("availability >= ?", availability);
+        if (minPrice != null)
+            filter.add("price >= ?", minPrice);
+        if (maxPrice != null)
+            filter.add("price <= ?", maxPrice);
+
+        return filter;
+    }
+
+    /**
+     * Builds the filter over the orders table for the admin order search. Null
+     * filters are left out; {@code from} is inclusive and {@code to} exclusive.
+     */
+    static SqlFilter orders(Status status, boolean open, Long userId, Timestamp from, Timestamp to) {
+        SqlFilter filter = new SqlFilter();
+
+        if (status != null)
+            filter.add("status = ?", status.name());
+        if (open)
+            filter.add(OPEN_ORDERS);
+        if (userId != null)
+            filter.add("user_id = ?", userId);
+        if (from != null)
+            filter.add("order_date >= ?", from);
+        if (to != null)
+            filter.add("order_date < ?", to);
+
+        return filter;
+    }
+
+    SqlFilter add(String condition, Object... conditionArgs) {
+        conditions.add(condition);
+        Collections.addAll(args, conditionArgs);
+        return this;
+    }
+
+    /**
+     * Returns the {@code WHERE} clause with a leading space, or an empty string
+     * when there are no conditions.
+     */
+    String where() {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    Object[] args() {
+        return args.toArray();
+    }
+}
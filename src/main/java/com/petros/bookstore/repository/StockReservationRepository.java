@@ -0,0 +1,52 @@
+package com.petros.bookstore.repository;
+
+import com.petros.bookstore.model.ShoppingCart;
+import com.petros.bookstore.model.StockReservation;
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for {@link StockReservation}s. Reservations are changed with bulk
+ * updates, so renewing a cart does not load its reservations, and released
+ * through {@link StockReservationRepositoryCustom#releaseExpired}.
+ */
+@Repository
+public interface StockReservationRepository
+        extends JpaRepository<StockReservation, Long>, StockReservationRepositoryCustom {
+
+    /**
+     * Sets the quantity and expiry of the reservation of a cart item.
+     *
+     * @param cartItemId
+     *            Id of the reserved cart item.
+     * @param quantity
+     *            Number of copies held.
+     * @param expiresAt
+     *            New expiry.
+     * @return 1 if the cart item has a reservation, 0 otherwise.
+     */
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.quantity = :quantity, r.expiresAt = :expiresAt "//
+            + "WHERE r.cartItem.id = :cartItemId")
+    int updateReservation(@Param("cartItemId") Long cartItemId, @Param("quantity") int quantity,
+            @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * Moves the expiry of every reservation in a cart. The updated rows stay
+     * locked until the transaction ends, so the reaper skips them meanwhile.
+     *
+     * @param cart
+     *            The cart.
+     * @param expiresAt
+     *            New expiry.
+     * @return Number of renewed reservations.
+     */
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.expiresAt = :expiresAt "//
+            + "WHERE r.cartItem.id IN (SELECT i.id FROM CartItem i WHERE i.shoppingCart = :cart)")
+    int renewCart(@Param("cart") ShoppingCart cart, @Param("expiresAt") Instant expiresAt);
+}
@@ -0,0 +1,34 @@
+package com.petros.bookstore.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Release of expired reservations, which Spring Data cannot express.
+ */
+public interface StockReservationRepositoryCustom {
+
+    /**
+     * Releases up to {@code limit} reservations that expired by {@code now}, in
+     * one statement and one transaction. The reservations are locked with
+     * {@code FOR UPDATE SKIP LOCKED}, so rows being renewed by cart activity, or
+     * released by another reaper, are skipped. Their cart items are deleted and
+     * the reserved copies are added back to the books, one update per book.
+     *
+     * @param now
+     *            Reservations expiring at or before this instant are released.
+     * @param limit
+     *            Maximum number of reservations to release.
+     * @return The released reservations and the books that got copies back.
+     */
+    ReleasedStock releaseExpired(Instant now, int limit);
+
+    /**
+     * @param reservations
+     *            Number of released reservations.
+     * @param bookIds
+     *            Ids of the books whose availability grew.
+     */
+    record ReleasedStock(int reservations, List<Long> bookIds) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.petros.bookstore.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.transaction.annotation.Transactional;
+
+class StockReservationRepositoryImpl implements StockReservationRepositoryCustom {
+
+    private static final String RELEASE_EXPIRED = //
+            "WITH expired AS ("//
+                    + " SELECT cart_item_id, quantity FROM stock_reservations"//
+                    + " WHERE expires_at <= :now ORDER BY expires_at LIMIT :limit"//
+                    + " FOR UPDATE SKIP LOCKED"//
+                    + "), removed AS ("//
+                    + " DELETE FROM cart_items ci USING expired e WHERE ci.id = e.cart_item_id"//
+                    + " RETURNING ci.book_id, e.quantity"//
+                    + "), released AS ("//
+                    + " SELECT book_id, SUM(quantity) AS quantity, count(*) AS items FROM removed GROUP BY book_id"//
+                    + "), restocked AS ("//
+                    + " UPDATE books b SET availability = b.availability + r.quantity"//
+                    + " FROM released r WHERE b.id = r.book_id"//
+                    + ") SELECT book_id, items FROM released";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public ReleasedStock releaseExpired(Instant now, int limit) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(RELEASE_EXPIRED)//
+                .setParameter("now", now)//
+                .setParameter("limit", limit)//
+                .getResultList();
+
+        int reservations = 0;
+        List<Long> bookIds = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            bookIds.add(((Number) row[0]).longValue());
+            reservations += ((Number) row[1]).intValue();
+        }
+        return new ReleasedStock(reservations, bookIds);
+    }
+}
@@ -1,11 +1,18 @@
 package com.petros.bookstore.repository;
 
+import com.petros.bookstore.dto.userdto.UserProfileResponseDto;
 import com.petros.bookstore.model.User;
+import com.petros.bookstore.utils.LikePatterns;
+import jakarta.persistence.QueryHint;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -15,10 +22,69 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByUsername(String username);
 
-    @Query("SELECT u FROM User u WHERE "//
-            + "(:username IS NULL OR u.username ILIKE %:username%) AND "//
-            + "(:firstName IS NULL OR u.firstName ILIKE %:firstName%) AND "//
-            + "(:lastName IS NULL OR u.lastName ILIKE %:lastName%)")
-    Page<User> searchUsers(@Param("username") String username, @Param("firstName") String firstName,
+    /**
+     * Matches users against {@code LIKE} patterns built by
+     * {@link LikePatterns#contains}. A null pattern matches every user.
+     */
+    String SEARCH_USERS = "SELECT u FROM User u WHERE "//
+            + "(:username IS NULL OR u.username ILIKE :username ESCAPE '\\') AND "//
+            + "(:firstName IS NULL OR u.firstName ILIKE :firstName ESCAPE '\\') AND "//
+            + "(:lastName IS NULL OR u.lastName ILIKE :lastName ESCAPE '\\')";
+
+    /**
+     * Returns a page of the users whose username, first name and last name
+     * contain the given filters, ignoring case. Null filters are left out and
+     * wildcards in the filters match themselves.
+     *
+     * @param username
+     *            Optional username filter.
+     * @param firstName
+     *            Optional first name filter.
+     * @param lastName
+     *            Optional last name filter.
+     * @param pageable
+     *            Pagination and sorting information.
+     * @return The matching users with their total.
+     */
+    default Page<User> searchUsers(String username, String firstName, String lastName, Pageable pageable) {
+        return searchUsersMatching(LikePatterns.contains(username), LikePatterns.contains(firstName),
+                LikePatterns.contains(lastName), pageable);
+    }
+
+    /**
+     * Like {@link #searchUsers}, without counting the matching users.
+     *
+     * @param username
+     *            Optional username filter.
+     * @param firstName
+     *            Optional first name filter.
+     * @param lastName
+     *            Optional last name filter.
+     * @param pageable
+     *            Pagination and sorting information.
+     * @return The matching users and whether more follow.
+     */
+    default Slice<User> searchUsersSlice(String username, String firstName, String lastName, Pageable pageable) {
+        return searchUsersSliceMatching(LikePatterns.contains(username), LikePatterns.contains(firstName),
+                LikePatterns.contains(lastName), pageable);
+    }
+
+    @Query(SEARCH_USERS)
+    Page<User> searchUsersMatching(@Param("username") String username, @Param("firstName") String firstName,
             @Param("lastName") String lastName, Pageable pageable);
+
+    @Query(SEARCH_USERS)
+    Slice<User> searchUsersSliceMatching(@Param("username") String username, @Param("firstName") String firstName,
+            @Param("lastName") String lastName, Pageable pageable);
+
+    /**
+     * Streams every user, read through a forward-only cursor 500 rows at a
+     * time. Must be called in a transaction and the stream closed after use.
+     *
+     * @return User profiles ordered by id.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.petros.bookstore.dto.userdto.UserProfileResponseDto("//
+            + "u.id, u.firstName, u.lastName, u.username, u.role) FROM User u ORDER BY u.id")
+    Stream<UserProfileResponseDto> streamAll();
 }
@@ -8,13 +8,13 @@ import com.petros.bookstore.model.ShoppingCart;
 import com.petros.bookstore.model.User;
 import com.petros.bookstore.repository.ShoppingCartRepository;
 import com.petros.bookstore.repository.UserRepository;
-import jakarta.transaction.Transactional;
 import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service class responsible for handling user authentication and registration
@@ -1,17 +1,37 @@
 package com.petros.bookstore.service;
 
+import com.petros.bookstore.cache.BookCache;
+import com.petros.bookstore.cache.BookSuggestions;
+import com.petros.bookstore.dto.bookdto.BookCacheStatsDto;
+import com.petros.bookstore.dto.bookdto.BookFacetsDto;
 import com.petros.bookstore.dto.bookdto.BookRequestDto;
 import com.petros.bookstore.dto.bookdto.BookResponseDto;
+import com.petros.bookstore.dto.bookdto.BookSuggestionDto;
+import com.petros.bookstore.dto.bookdto.BookSummaryDto;
 import com.petros.bookstore.dto.bookdto.BookUpdateRequestDto;
+import com.petros.bookstore.dto.paginationdto.CursorPageResponseDto;
+import com.petros.bookstore.dto.paginationdto.PaginatedResponseDto;
+import com.petros.bookstore.enums.CountMode;
 import com.petros.bookstore.enums.Genre;
 import com.petros.bookstore.exception.customException.ResourceNotFoundException;
 import com.petros.bookstore.mapper.BookMapper;
 import com.petros.bookstore.model.Book;
+import com.petros.bookstore.repository.BookFacetRepository;
 import com.petros.bookstore.repository.BookRepository;
+import com.petros.bookstore.repository.BookSpecifications;
+import com.petros.bookstore.repository.RowEstimateRepository;
+import com.petros.bookstore.utils.PageCursor;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service class for managing books. Provides methods for saving, retrieving,
@@ -23,6 +43,18 @@ public class BookService {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private RowEstimateRepository rowEstimates;
+
+    @Autowired
+    private BookFacetRepository bookFacets;
+
+    @Autowired
+    private BookCache bookCache;
+
+    @Autowired
+    private BookSuggestions bookSuggestions;
+
     /**
      * Saves a new book to the repository.
      *
@@ -32,6 +64,8 @@ public class BookService {
      */
     public BookResponseDto save(BookRequestDto request) {
         Book savedBook = bookRepository.save(BookMapper.toEntity(request));
+        bookCache.evictFacets();
+        bookSuggestions.put(savedBook.getId(), savedBook.getTitle(), savedBook.getAuthor());
         return BookMapper.toResponse(savedBook);
     }
 
@@ -42,12 +76,56 @@ public class BookService {
      *            pagination information
      * @return a page of book responses
      */
+    @Transactional(readOnly = true)
     public Page<BookResponseDto> findAll(Pageable pageable) {
         return bookRepository.findAll(pageable).map(BookMapper::toResponse);
     }
 
     /**
-     * Retrieves a book by its ID.
+     * Retrieves one keyset page of the book summaries matching the search
+     * filters, ordered by title and id. The filters must be the same on every
+     * page of a walk. No total count is computed.
+     *
+     * @param title
+     *            optional title filter
+     * @param author
+     *            optional author filter
+     * @param availability
+     *            optional availability filter
+     * @param genre
+     *            optional genre filter
+     * @param minPrice
+     *            optional minimum price
+     * @param maxPrice
+     *            optional maximum price
+     * @param after
+     *            the cursor returned with the previous page, or null for the
+     *            first page
+     * @param size
+     *            the page size
+     * @return the page of book summaries with the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<BookSummaryDto> findAllAfter(//
+            String title, String author, Integer availability, Genre genre, //
+            Double minPrice, Double maxPrice, String after, int size) {
+        Specification<Book> filters = BookSpecifications.withFilters(//
+                title, author, genre, availability, minPrice, maxPrice);
+        if (after != null && !after.isBlank()) {
+            PageCursor cursor = PageCursor.decode(after);
+            filters = filters.and(BookSpecifications.after(cursor.sortKey(), cursor.id()));
+        }
+        List<BookSummaryDto> rows = bookRepository.findKeysetPage(filters, Limit.of(size + 1));
+        return CursorPageResponseDto.of(rows, size, //
+                book -> new PageCursor(book.title(), book.id()), Function.identity());
+    }
+
+    /**
+     * Retrieves a book by its ID, served from {@link BookCache} when present.
+     * Concurrent misses on the same ID share a single repository load. Like the
+     * coalesced searches, it opens no transaction of its own: the repository
+     * call runs read-only, and cache hits and waiting callers hold no
+     * connection.
      *
      * @param id
      *            the ID of the book
@@ -56,9 +134,11 @@ public class BookService {
      *             if the book is not found
      */
     public BookResponseDto findBookById(Long id) {
-        Book book = bookRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException(//
-                "Book with ID " + id + " not found."));
-        return BookMapper.toResponse(book);
+        return bookCache.get(id, bookId -> {
+            Book book = bookRepository.findById(bookId).orElseThrow(() -> new ResourceNotFoundException(//
+                    "Book with ID " + bookId + " not found."));
+            return BookMapper.toResponse(book);
+        });
     }
 
     /**
@@ -89,7 +169,11 @@ public class BookService {
         if (request.genre() != null)
             book.setGenre(Genre.valueOf(request.genre().toString()));
 
-        return BookMapper.toResponse(bookRepository.save(book));
+        Book saved = bookRepository.save(book);
+        bookCache.evict(id);
+        bookCache.evictFacets();
+        bookSuggestions.put(id, saved.getTitle(), saved.getAuthor());
+        return BookMapper.toResponse(saved);
     }
 
     /**
@@ -104,6 +188,9 @@ public class BookService {
     public boolean deleteBookById(Long id) {
         if (bookRepository.existsById(id)) {
             bookRepository.deleteById(id);
+            bookCache.evict(id);
+            bookCache.evictFacets();
+            bookSuggestions.remove(id);
             return true;
         } else {
             throw new ResourceNotFoundException("Book with ID " + id + " not found.");
@@ -111,7 +198,19 @@ public class BookService {
     }
 
     /**
-     * Searches for books by various optional filters and pagination.
+     * Returns the statistics of the book cache.
+     *
+     * @return the hit, miss and eviction counters and the current size
+     */
+    public BookCacheStatsDto getCacheStats() {
+        return bookCache.stats();
+    }
+
+    /**
+     * Searches for books by various optional filters and pagination. Only the
+     * filters that are present become predicates, and the count query carries
+     * the same predicates without the sort. Identical concurrent searches share
+     * one execution.
      *
      * @param title
      *            optional title filter
@@ -127,12 +226,123 @@ public class BookService {
      *            optional maximum price
      * @param pageable
      *            pagination information
-     * @return a page of book responses matching the filters
+     * @return a page of book summaries matching the filters
      */
-    public Page<BookResponseDto> searchBooks(//
+    public Page<BookSummaryDto> searchBooks(//
             String title, String author, Integer availability, Genre genre, //
             Double minPrice, Double maxPrice, Pageable pageable) {
-        return bookRepository.searchBooks(//
-                title, author, genre, availability, minPrice, maxPrice, pageable).map(BookMapper::toResponse);
+        Specification<Book> filters = BookSpecifications.withFilters(//
+                title, author, genre, availability, minPrice, maxPrice);
+        return bookCache.coalesce(//
+                Arrays.asList("search", title, author, availability, genre, minPrice, maxPrice, pageable), //
+                () -> bookRepository.findSummaries(filters, pageable));
+    }
+
+    /**
+     * Searches for books like the paged search but lets the caller choose how
+     * the total is obtained. {@link CountMode#NONE} skips the count query and
+     * {@link CountMode#ESTIMATE} replaces it with the planner's row estimate.
+     *
+     * @param title
+     *            optional title filter
+     * @param author
+     *            optional author filter
+     * @param availability
+     *            optional availability filter
+     * @param genre
+     *            optional genre filter
+     * @param minPrice
+     *            optional minimum price
+     * @param maxPrice
+     *            optional maximum price
+     * @param pageable
+     *            pagination information
+     * @param count
+     *            how the total is obtained
+     * @return the matching book summaries with the requested kind of total
+     */
+    public PaginatedResponseDto<BookSummaryDto> searchBooks(//
+            String title, String author, Integer availability, Genre genre, //
+            Double minPrice, Double maxPrice, Pageable pageable, CountMode count) {
+        if (count == CountMode.EXACT) {
+            return PaginatedResponseDto.exact(//
+                    searchBooks(title, author, availability, genre, minPrice, maxPrice, pageable));
+        }
+        Specification<Book> filters = BookSpecifications.withFilters(//
+                title, author, genre, availability, minPrice, maxPrice);
+        return bookCache.coalesce(//
+                Arrays.asList("slice", title, author, availability, genre, minPrice, maxPrice, pageable, count), //
+                () -> {
+                    Slice<BookSummaryDto> slice = bookRepository.findSummarySlice(filters, pageable);
+                    if (count == CountMode.NONE) {
+                        return PaginatedResponseDto.withoutTotal(slice);
+                    }
+                    return PaginatedResponseDto.estimated(slice, //
+                            rowEstimates.estimateBooks(title, author, genre, availability, minPrice, maxPrice));
+                });
+    }
+
+    /**
+     * Counts the books matching the search filters per genre and per price
+     * bucket in one grouped query. Without filters the counts are served from
+     * {@link BookCache}; filtered counts are only shared between identical
+     * concurrent requests.
+     *
+     * @param title
+     *            optional title filter
+     * @param author
+     *            optional author filter
+     * @param availability
+     *            optional availability filter
+     * @param genre
+     *            optional genre filter
+     * @param minPrice
+     *            optional minimum price
+     * @param maxPrice
+     *            optional maximum price
+     * @return the genre and price-bucket counts
+     */
+    public BookFacetsDto getFacets(//
+            String title, String author, Integer availability, Genre genre, //
+            Double minPrice, Double maxPrice) {
+        if (title == null && author == null && availability == null && genre == null //
+                && minPrice == null && maxPrice == null) {
+            return bookCache.facets(() -> bookFacets.countFacets(null, null, null, null, null, null));
+        }
+        return bookCache.coalesce(//
+                Arrays.asList("facets", title, author, availability, genre, minPrice, maxPrice), //
+                () -> bookFacets.countFacets(title, author, genre, availability, minPrice, maxPrice));
+    }
+
+    /**
+     * Returns type-ahead suggestions of titles and authors with a word
+     * starting with the query, served from the in-memory
+     * {@link BookSuggestions} index without touching the database.
+     *
+     * @param query
+     *            the text typed so far
+     * @param limit
+     *            the maximum number of suggestions
+     * @return the suggestions, most popular first
+     */
+    public List<BookSuggestionDto> suggest(String query, int limit) {
+        return bookSuggestions.suggest(query, limit);
+    }
+
+    /**
+     * Searches for books with a ranked full-text query over title, author and
+     * description. Results are ordered by relevance. Identical concurrent
+     * searches share one execution.
+     *
+     * @param query
+     *            the free-text query
+     * @param pageable
+     *            pagination information
+     * @return a page of book summaries ordered by relevance
+     */
+    public Page<BookSummaryDto> fullTextSearch(String query, Pageable pageable) {
+        String trimmed = query.trim();
+        return bookCache.coalesce(Arrays.asList("fulltext", trimmed, pageable), //
+                () -> bookRepository.fullTextSearch(trimmed, pageable));
     }
 }
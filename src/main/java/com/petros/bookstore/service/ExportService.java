@@ -0,0 +1,181 @@
+package com.petros.bookstore.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.petros.bookstore.dto.bookdto.BookResponseDto;
+import com.petros.bookstore.dto.orderdto.OrderLineExportDto;
+import com.petros.bookstore.dto.userdto.UserProfileResponseDto;
+import com.petros.bookstore.enums.ExportFormat;
+import com.petros.bookstore.repository.BookRepository;
+import com.petros.bookstore.repository.OrderItemRepository;
+import com.petros.bookstore.repository.UserRepository;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Exports whole tables for administrators. Rows are read through a database
+ * cursor and written to the response as they arrive, so memory use does not
+ * grow with the table. Each export runs in one read-only transaction on the
+ * thread writing the response, and so sees a single snapshot.
+ */
+@Service
+public class ExportService {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final BookRepository bookRepo;
+    private final UserRepository userRepo;
+    private final OrderItemRepository orderItemRepo;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+    private final TransactionTemplate tx;
+
+    public ExportService(BookRepository bookRepo, UserRepository userRepo, OrderItemRepository orderItemRepo,
+            ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.bookRepo = bookRepo;
+        this.userRepo = userRepo;
+        this.orderItemRepo = orderItemRepo;
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setReadOnly(true);
+    }
+
+    /**
+     * Returns a body writing every book, by id.
+     *
+     * @param format
+     *            the format of the rows
+     * @param gzip
+     *            whether to compress the body with gzip
+     * @return the response body
+     */
+    public StreamingResponseBody exportBooks(ExportFormat format, boolean gzip) {
+        return export(BookResponseDto.class, bookRepo::streamAll, format, gzip);
+    }
+
+    /**
+     * Returns a body writing every user profile, by id, without passwords.
+     *
+     * @param format
+     *            the format of the rows
+     * @param gzip
+     *            whether to compress the body with gzip
+     * @return the response body
+     */
+    public StreamingResponseBody exportUsers(ExportFormat format, boolean gzip) {
+        return export(UserProfileResponseDto.class, userRepo::streamAll, format, gzip);
+    }
+
+    /**
+     * Returns a body writing every order line with the fields of its order,
+     * oldest order first. An order spans as many rows as it has lines.
+     *
+     * @param format
+     *            the format of the rows
+     * @param gzip
+     *            whether to compress the body with gzip
+     * @return the response body
+     */
+    public StreamingResponseBody exportOrderLines(ExportFormat format, boolean gzip) {
+        return export(OrderLineExportDto.class, orderItemRepo::streamAllLines, format, gzip);
+    }
+
+    private <T extends Record> StreamingResponseBody export(Class<T> type, Supplier<Stream<T>> query,
+            ExportFormat format, boolean gzip) {
+        return out -> {
+            OutputStream body = StreamUtils.nonClosing(out);
+            if (gzip) {
+                body = new GZIPOutputStream(body, BUFFER_SIZE);
+            }
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8), //
+                    BUFFER_SIZE)) {
+                tx.executeWithoutResult(status -> {
+                    try (Stream<T> rows = query.get()) {
+                        if (format == ExportFormat.CSV) {
+                            writeCsv(type, rows.iterator(), writer);
+                        } else {
+                            writeNdjson(rows.iterator(), writer);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+    }
+
+    private void writeNdjson(Iterator<? extends Record> rows, Writer out) throws IOException {
+        JsonGenerator json = objectMapper.createGenerator(out);
+        json.setRootValueSeparator(null);
+        while (rows.hasNext()) {
+            rowWriter.writeValue(json, rows.next());
+            json.writeRaw('\n');
+        }
+        json.flush();
+    }
+
+    /**
+     * Writes a header line with the record component names, then one line per
+     * row. Values holding a comma, quote or line break are quoted, and null
+     * values are left empty.
+     */
+    private static <T extends Record> void writeCsv(Class<T> type, Iterator<T> rows, Writer out)
+            throws IOException {
+        RecordComponent[] columns = type.getRecordComponents();
+        for (int i = 0; i < columns.length; i++) {
+            writeCsvValue(out, i, columns[i].getName());
+        }
+        out.write('\n');
+        while (rows.hasNext()) {
+            T row = rows.next();
+            for (int i = 0; i < columns.length; i++) {
+                writeCsvValue(out, i, value(columns[i], row));
+            }
+            out.write('\n');
+        }
+    }
+
+    private static void writeCsvValue(Writer out, int column, Object value) throws IOException {
+        if (column > 0) {
+            out.write(',');
+        }
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.chars().anyMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r')) {
+            out.write('"');
+            out.write(text.replace("\"", "\"\""));
+            out.write('"');
+        } else {
+            out.write(text);
+        }
+    }
+
+    private static Object value(RecordComponent column, Record row) {
+        try {
+            return column.getAccessor().invoke(row);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot read " + column.getName(), e);
+        }
+    }
+}
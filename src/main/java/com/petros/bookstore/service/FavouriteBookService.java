@@ -2,6 +2,8 @@ package com.petros.bookstore.service;
 
 import com.petros.bookstore.dto.favouritebookdto.FavouriteBookRequestDto;
 import com.petros.bookstore.dto.favouritebookdto.FavouriteBookResponseDto;
+import com.petros.bookstore.dto.paginationdto.PaginatedResponseDto;
+import com.petros.bookstore.enums.CountMode;
 import com.petros.bookstore.exception.customException.ResourceAlreadyExistsException;
 import com.petros.bookstore.exception.customException.ResourceNotFoundException;
 import com.petros.bookstore.mapper.FavouriteBookMapper;
@@ -10,12 +12,14 @@ import com.petros.bookstore.model.FavouriteBook;
 import com.petros.bookstore.model.User;
 import com.petros.bookstore.repository.BookRepository;
 import com.petros.bookstore.repository.FavouriteBookRepository;
+import com.petros.bookstore.repository.RowEstimateRepository;
 import com.petros.bookstore.repository.UserRepository;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service class responsible for managing users' favourite books. Provides
@@ -28,6 +32,7 @@ public class FavouriteBookService {
     private final FavouriteBookRepository favouriteRepo;
     private final UserRepository userRepo;
     private final BookRepository bookRepository;
+    private final RowEstimateRepository rowEstimates;
 
     /**
      * Adds a book to a user's list of favourites.
@@ -73,7 +78,7 @@ public class FavouriteBookService {
      * @throws ResourceNotFoundException
      *             If the user is not found.
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public Page<FavouriteBookResponseDto> getFavourites(Long userId, Pageable pageable) {
         User user = userRepo.findById(userId).orElseThrow(() -> new ResourceNotFoundException(//
                 "User not found"));
@@ -81,6 +86,38 @@ public class FavouriteBookService {
         return favouriteRepo.findByUser(user, pageable).map(FavouriteBookMapper::toDto);
     }
 
+    /**
+     * Retrieves a user's favourite books like
+     * {@link #getFavourites(Long, Pageable)} but lets the caller choose how the
+     * total is obtained. Only {@link CountMode#EXACT} runs a count query.
+     *
+     * @param userId
+     *            The ID of the user whose favourites are being requested.
+     * @param pageable
+     *            Pagination parameters.
+     * @param count
+     *            How the total is obtained.
+     * @return The favourites with the requested kind of total.
+     * @throws ResourceNotFoundException
+     *             If the user is not found.
+     */
+    @Transactional(readOnly = true)
+    public PaginatedResponseDto<FavouriteBookResponseDto> getFavourites(//
+            Long userId, Pageable pageable, CountMode count) {
+        if (count == CountMode.EXACT) {
+            return PaginatedResponseDto.exact(getFavourites(userId, pageable));
+        }
+        User user = userRepo.findById(userId).orElseThrow(() -> new ResourceNotFoundException(//
+                "User not found"));
+
+        Slice<FavouriteBookResponseDto> slice = favouriteRepo.findSliceByUser(user, pageable)//
+                .map(FavouriteBookMapper::toDto);
+        if (count == CountMode.NONE) {
+            return PaginatedResponseDto.withoutTotal(slice);
+        }
+        return PaginatedResponseDto.estimated(slice, rowEstimates.estimateFavourites(userId));
+    }
+
     /**
      * Removes a specific book from a user's favourites.
      *
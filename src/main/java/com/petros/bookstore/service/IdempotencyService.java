@@ -0,0 +1,103 @@
+package com.petros.bookstore.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petros.bookstore.repository.IdempotencyKeyRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Lets a client retry a request with the same {@code Idempotency-Key} and get
+ * the response of the first attempt instead of running it again. The caller
+ * claims the key, runs the request and records the response within one
+ * transaction; if the request fails the claim rolls back with it and the key
+ * can be used again. Keys are kept for {@code ttl} and purged by a scheduled
+ * job.
+ */
+@Service
+public class IdempotencyService {
+
+    private final IdempotencyKeyRepository keyRepo;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final int batchSize;
+
+    public IdempotencyService(IdempotencyKeyRepository keyRepo, ObjectMapper objectMapper,
+            @Value("${bookstore.idempotency.ttl:PT24H}") Duration ttl,
+            @Value("${bookstore.idempotency.purge-batch-size:1000}") int batchSize) {
+        this.keyRepo = keyRepo;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Claims the key, or returns the response recorded for it.
+     *
+     * @param userId
+     *            the ID of the user
+     * @param key
+     *            the idempotency key
+     * @param type
+     *            the response type
+     * @return empty if the key was claimed and the request has to run, else
+     *         the recorded response
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> Optional<T> claimOrReplay(Long userId, String key, Class<T> type) {
+        if (keyRepo.claim(userId, key)) {
+            return Optional.empty();
+        }
+        String response = keyRepo.findResponse(userId, key).orElseThrow(() -> new IllegalStateException(//
+                "Idempotency key " + key + " has no recorded response"));
+        try {
+            return Optional.of(objectMapper.readValue(response, type));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable response for idempotency key " + key, e);
+        }
+    }
+
+    /**
+     * Records the response of the request that claimed the key.
+     *
+     * @param userId
+     *            the ID of the user
+     * @param key
+     *            the idempotency key
+     * @param resourceId
+     *            the ID of the created resource
+     * @param response
+     *            the response to replay
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long userId, String key, Long resourceId, Object response) {
+        try {
+            keyRepo.complete(userId, key, resourceId, objectMapper.writeValueAsString(response));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unwritable response for idempotency key " + key, e);
+        }
+    }
+
+    /**
+     * Deletes the keys older than the TTL, in batches of {@code batchSize}.
+     *
+     * @return the number of deleted keys
+     */
+    @Scheduled(fixedDelayString = "${bookstore.idempotency.purge-interval:PT1H}")
+    public int purgeExpired() {
+        Instant cutoff = Instant.now().minus(ttl);
+        int purged = 0;
+        int batch;
+        do {
+            batch = keyRepo.deleteCreatedBefore(cutoff, batchSize);
+            purged += batch;
+        } while (batch == batchSize);
+        return purged;
+    }
+}
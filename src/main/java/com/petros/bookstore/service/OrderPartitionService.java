@@ -0,0 +1,136 @@
+package com.petros.bookstore.service;
+
+import com.petros.bookstore.repository.OrderPartitionRepository;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Maintains the monthly partitions of orders and order items. Partitions are
+ * created {@code monthsAhead} months in advance, so an order always has one
+ * to land in. Months older than {@code archiveAfterMonths} whose orders are
+ * all delivered are exported to {@code orders-YYYY-MM.ndjson.bz2} in the
+ * archive directory, one JSON object per order, and their partitions are
+ * dropped. A month holding an order in any other status stays until that
+ * order is delivered.
+ */
+@Service
+public class OrderPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderPartitionService.class);
+
+    private final OrderPartitionRepository partitionRepo;
+    private final TransactionTemplate tx;
+    private final int monthsAhead;
+    private final int archiveAfterMonths;
+    private final Path archiveDirectory;
+
+    public OrderPartitionService(OrderPartitionRepository partitionRepo,
+            PlatformTransactionManager transactionManager,
+            @Value("${bookstore.orders.partitions.months-ahead:3}") int monthsAhead,
+            @Value("${bookstore.orders.archive.after-months:24}") int archiveAfterMonths,
+            @Value("${bookstore.orders.archive.directory:archive/orders}") Path archiveDirectory) {
+        this.partitionRepo = partitionRepo;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.archiveAfterMonths = archiveAfterMonths;
+        this.archiveDirectory = archiveDirectory;
+    }
+
+    /**
+     * Creates the partitions of the current month and of the months ahead that
+     * do not exist yet.
+     *
+     * @return the number of months created
+     */
+    @Scheduled(fixedDelayString = "${bookstore.orders.partitions.check-interval:PT6H}")
+    public int createPartitions() {
+        return tx.execute(status -> partitionRepo.create(YearMonth.now(), monthsAhead + 1));
+    }
+
+    /**
+     * Archives and drops the partitions of every month older than the
+     * retention whose orders are all delivered. A month that fails is logged
+     * and retried on the next run.
+     *
+     * @return the archive files written
+     */
+    @Scheduled(fixedDelayString = "${bookstore.orders.archive.interval:P1D}", //
+            initialDelayString = "${bookstore.orders.archive.interval:P1D}")
+    public List<Path> archive() {
+        YearMonth cutoff = YearMonth.now().minusMonths(archiveAfterMonths);
+        List<Path> archived = new ArrayList<>();
+        for (YearMonth month : partitionRepo.months()) {
+            if (!month.isBefore(cutoff)) {
+                break;
+            }
+            try {
+                archive(month).ifPresent(archived::add);
+            } catch (DataAccessException | UncheckedIOException e) {
+                log.warn("Could not archive the orders of {}", month, e);
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Exports a month and drops its partitions in one transaction that blocks
+     * writes to them, so no order changes between the export and the drop. If
+     * the transaction fails after the file is written, the next run writes it
+     * again.
+     */
+    private Optional<Path> archive(YearMonth month) {
+        Path file = archiveDirectory.resolve("orders-" + month + ".ndjson.bz2");
+        Path partial = archiveDirectory.resolve(file.getFileName() + ".part");
+        return tx.execute(status -> {
+            partitionRepo.lock(month);
+            long notDelivered = partitionRepo.countNotDelivered(month);
+            if (notDelivered > 0) {
+                log.info("Keeping the orders of {}: {} of them not delivered", month, notDelivered);
+                return Optional.empty();
+            }
+            long exported;
+            try {
+                Files.createDirectories(archiveDirectory);
+                try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                        new BZip2CompressorOutputStream(Files.newOutputStream(partial)), StandardCharsets.UTF_8))) {
+                    exported = partitionRepo.export(month, json -> write(out, json));
+                }
+                Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            partitionRepo.drop(month);
+            log.info("Archived {} orders of {} to {}", exported, month, file);
+            return Optional.of(file);
+        });
+    }
+
+    private static void write(Writer out, String line) {
+        try {
+            out.write(line);
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
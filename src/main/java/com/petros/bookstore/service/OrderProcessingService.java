@@ -0,0 +1,165 @@
+package com.petros.bookstore.service;
+
+import com.petros.bookstore.dto.orderdto.OrderQueueStatsDto;
+import com.petros.bookstore.enums.OutboxEventType;
+import com.petros.bookstore.enums.Status;
+import com.petros.bookstore.exception.customException.ServiceUnavailableException;
+import com.petros.bookstore.outbox.OrderStatusChangedEvent;
+import com.petros.bookstore.repository.OrderJobRepository;
+import com.petros.bookstore.repository.OrderJobRepository.QueueDepth;
+import com.petros.bookstore.repository.OrderRepository;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Processes orders accepted asynchronously. An accepted order is queued in
+ * {@link OrderJobRepository} in the transaction that placed it, and a worker
+ * of {@link OrderWorkerPool} later confirms it, and records the change in the
+ * outbox, in a transaction of its own. A job that fails is retried with a
+ * growing delay and parked after {@code maxAttempts}. The queue is bounded:
+ * once it holds {@code capacity} jobs that are not parked, new asynchronous
+ * orders are turned away until it drains. Parked jobs stay until an operator
+ * deals with them, so they do not count against the capacity.
+ */
+@Service
+public class OrderProcessingService {
+
+    private final OrderJobRepository jobRepo;
+    private final OrderRepository orderRepo;
+    private final OutboxService outbox;
+    private final TransactionTemplate tx;
+    private final ObjectProvider<OrderWorkerPool> workerPool;
+    private final int capacity;
+    private final Duration retryDelay;
+    private final int maxAttempts;
+
+    private final Semaphore work = new Semaphore(0);
+    private final AtomicInteger busy = new AtomicInteger();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public OrderProcessingService(OrderJobRepository jobRepo, OrderRepository orderRepo, OutboxService outbox,
+            PlatformTransactionManager transactionManager, ObjectProvider<OrderWorkerPool> workerPool,
+            @Value("${bookstore.orders.queue-capacity:10000}") int capacity,
+            @Value("${bookstore.orders.retry-delay:PT10S}") Duration retryDelay,
+            @Value("${bookstore.orders.max-attempts:5}") int maxAttempts) {
+        this.jobRepo = jobRepo;
+        this.orderRepo = orderRepo;
+        this.outbox = outbox;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.workerPool = workerPool;
+        this.capacity = capacity;
+        this.retryDelay = retryDelay;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Queues a placed order for processing and wakes a worker once the calling
+     * transaction commits.
+     *
+     * @param orderId
+     *            the ID of the placed order
+     * @throws ServiceUnavailableException
+     *             if the queue holds {@code capacity} jobs that are not parked
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Long orderId) {
+        if (jobRepo.countUnparked() >= capacity) {
+            throw new ServiceUnavailableException("Too many orders waiting to be processed", retryDelay);
+        }
+        jobRepo.enqueue(orderId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                work.release();
+            }
+        });
+    }
+
+    /**
+     * Processes the next ready job, if any: confirms its order if it is still
+     * pending and removes the job. A failure is recorded on the job in a new
+     * transaction.
+     *
+     * @return true if a job was taken, false if none was ready
+     */
+    public boolean processNext() {
+        Long[] taken = new Long[1];
+        try {
+            boolean took = tx.execute(status -> {
+                Optional<Long> orderId = jobRepo.lockNext();
+                if (orderId.isEmpty()) {
+                    return false;
+                }
+                taken[0] = orderId.get();
+                busy.incrementAndGet();
+                if (orderRepo.transition(taken[0], Status.PENDING, Status.CONFIRMED) == 1) {
+                    outbox.append(OutboxService.ORDER, taken[0], OutboxEventType.ORDER_STATUS_CHANGED, //
+                            new OrderStatusChangedEvent(taken[0], Status.PENDING, Status.CONFIRMED));
+                }
+                jobRepo.delete(taken[0]);
+                return true;
+            });
+            if (took) {
+                processed.incrementAndGet();
+            }
+            return took;
+        } catch (RuntimeException e) {
+            if (taken[0] == null) {
+                throw e;
+            }
+            failed.incrementAndGet();
+            tx.executeWithoutResult(status -> jobRepo.retryLater(taken[0], retryDelay, maxAttempts, e.toString()));
+            return true;
+        } finally {
+            if (taken[0] != null) {
+                busy.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Waits until an order is queued or the timeout elapses.
+     *
+     * @param timeout
+     *            the longest time to wait
+     * @throws InterruptedException
+     *             if the waiting thread is interrupted
+     */
+    void awaitWork(Duration timeout) throws InterruptedException {
+        work.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Wakes the given number of waiting workers.
+     */
+    void wake(int count) {
+        work.release(count);
+    }
+
+    /**
+     * Returns the depth of the queue together with the worker and throughput
+     * counters.
+     *
+     * @return the queue statistics
+     */
+    @Transactional(readOnly = true)
+    public OrderQueueStatsDto stats() {
+        QueueDepth depth = jobRepo.depth();
+        return new OrderQueueStatsDto(depth.queued(), depth.ready(), depth.parked(), depth.oldestReadyAt(), //
+                capacity, workerPool.getObject().getWorkers(), busy.get(), processed.get(), failed.get());
+    }
+}
@@ -1,22 +1,38 @@
 package com.petros.bookstore.service;
 
+import com.petros.bookstore.dto.orderdto.OrderBulkStatusUpdateRequestDto;
+import com.petros.bookstore.dto.orderdto.OrderBulkStatusUpdateResponseDto;
+import com.petros.bookstore.dto.orderdto.OrderQueueStatsDto;
 import com.petros.bookstore.dto.orderdto.OrderResponseDto;
+import com.petros.bookstore.dto.orderdto.OrderStatusOutcomeDto;
+import com.petros.bookstore.dto.paginationdto.CursorPageResponseDto;
 import com.petros.bookstore.dto.orderdto.OrderStatusUpdateRequestDto;
+import com.petros.bookstore.enums.OutboxEventType;
 import com.petros.bookstore.enums.Status;
+import com.petros.bookstore.enums.TransitionOutcome;
 import com.petros.bookstore.exception.customException.ResourceNotFoundException;
+import com.petros.bookstore.exception.customException.ServiceUnavailableException;
 import com.petros.bookstore.mapper.OrderMapper;
 import com.petros.bookstore.model.*;
+import com.petros.bookstore.outbox.OrderPlacedEvent;
+import com.petros.bookstore.outbox.OrderStatusChangedEvent;
 import com.petros.bookstore.repository.*;
-import jakarta.transaction.Transactional;
+import com.petros.bookstore.utils.PageCursor;
+import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.time.Instant;
-import java.util.ArrayList;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import org.apache.coyote.BadRequestException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service responsible for handling operations related to placing and managing
@@ -31,29 +47,34 @@ public class OrderService {
     private final ShoppingCartRepository cartRepo;
     private final CartItemRepository cartItemRepo;
     private final OrderRepository orderRepo;
-    private final OrderItemRepository orderItemRepo;
+    private final OrderStatusRepository statusRepo;
+    private final StockReservationService reservations;
+    private final IdempotencyService idempotency;
+    private final OrderProcessingService processing;
+    private final OutboxService outbox;
 
     /**
-     * Places an order for the specified user by transferring items from the user's
-     * cart into a new order.
+     * Places an order for the specified user by transferring all items from the
+     * user's cart into a new order. The items and their books are loaded in one
+     * query that locks the book rows in id order, and the cart is emptied with
+     * a single delete.
      *
      * @param userId
      *            the ID of the user placing the order
-     * @param pageable
-     *            the pagination object for cart item retrieval
      * @return the DTO representation of the placed order
      * @throws BadRequestException
      *             if the cart does not exist or is empty
      */
     @Transactional
-    public OrderResponseDto placeOrder(Long userId, Pageable pageable) throws BadRequestException {
+    public OrderResponseDto placeOrder(Long userId) throws BadRequestException {
         User user = userRepo.findById(userId).orElseThrow(() -> new ResourceNotFoundException(//
                 "User not found"));
 
         ShoppingCart cart = cartRepo.findByUser(user).orElseThrow(() -> new BadRequestException(//
                 "No cart"));
+        reservations.renew(cart); // keeps the reaper off the items being ordered
 
-        Page<CartItem> cartItems = cartItemRepo.findByShoppingCart(cart, pageable);
+        List<CartItem> cartItems = cartItemRepo.lockWithBooksByShoppingCart(cart);
         if (cartItems.isEmpty()) {
             throw new BadRequestException("Cart is empty");
         }
@@ -62,32 +83,86 @@ public class OrderService {
         order.setUser(user);
         order.setStatus(Status.PENDING);
         order.setOrder_date(Timestamp.from(Instant.now()));
-        order.setTotal_price(0.0);
-
-        order = orderRepo.save(order);
-        List<OrderItem> orderItems = new ArrayList<>();
-
-        double total = 0.0;
 
+        BigDecimal total = BigDecimal.ZERO;
         for (CartItem cartItem : cartItems) {
             OrderItem oi = new OrderItem();
             oi.setOrder(order);
+            oi.setOrderDate(order.getOrder_date());
             oi.setBook(cartItem.getBook());
             oi.setQuantity(cartItem.getQuantity());
-            orderItems.add(oi);
-            total += cartItem.getBook().getPrice() * cartItem.getQuantity();
-            orderItemRepo.save(oi);
+            oi.setUnitPrice(cartItem.getBook().getPrice());
+            BigDecimal lineTotal = BigDecimal.valueOf(oi.getUnitPrice())
+                    .multiply(BigDecimal.valueOf(oi.getQuantity()));
+            oi.setLineTotal(lineTotal.doubleValue());
+            order.getOrderItems().add(oi);
+            total = total.add(lineTotal);
         }
+        order.setTotal_price(total.doubleValue()); // the sum of the line totals, not a separate query
 
-        order.setTotal_price(total);
-        order.setOrderItems(orderItems);
-        order = orderRepo.save(order);
+        order = orderRepo.save(order); // cascades to the items, inserted in one batch
+        outbox.append(OutboxService.ORDER, order.getId(), OutboxEventType.ORDER_PLACED, OrderPlacedEvent.of(order));
 
-        cartItemRepo.deleteAll(cartItems); // clear cart after placing order
+        cartItemRepo.deleteByShoppingCart(cart); // clear cart after placing order
 
         return OrderMapper.toDto(order);
     }
 
+    /**
+     * Places an order, optionally at most once per idempotency key and
+     * optionally for asynchronous processing.
+     * <p>
+     * With a key, the first request places the order and records its response;
+     * later requests with the same key get that response back without reading
+     * or changing the cart. A request racing the first one waits for it to
+     * commit before it replays; if the first one fails, its key is released
+     * with it.
+     * <p>
+     * An asynchronous order is queued in the same transaction and confirmed
+     * later by {@link OrderProcessingService}; it is returned while still
+     * pending.
+     *
+     * @param userId
+     *            the ID of the user placing the order
+     * @param idempotencyKey
+     *            the key the client sent with the request, or null
+     * @param async
+     *            whether to queue the order for asynchronous processing
+     * @return the DTO representation of the placed or replayed order
+     * @throws BadRequestException
+     *             if the cart does not exist or is empty
+     * @throws ServiceUnavailableException
+     *             if the order is asynchronous and the queue is full
+     */
+    @Transactional(rollbackFor = BadRequestException.class)
+    public OrderResponseDto placeOrder(Long userId, String idempotencyKey, boolean async)
+            throws BadRequestException {
+        if (idempotencyKey != null) {
+            var replay = idempotency.claimOrReplay(userId, idempotencyKey, OrderResponseDto.class);
+            if (replay.isPresent()) {
+                return replay.get();
+            }
+        }
+        OrderResponseDto response = placeOrder(userId);
+        if (async) {
+            processing.enqueue(response.id());
+        }
+        if (idempotencyKey != null) {
+            idempotency.record(userId, idempotencyKey, response.id(), response);
+        }
+        return response;
+    }
+
+    /**
+     * Returns the depth of the asynchronous order queue and the counters of
+     * its workers.
+     *
+     * @return the queue statistics
+     */
+    public OrderQueueStatsDto getQueueStats() {
+        return processing.stats();
+    }
+
     /**
      * Retrieves all orders placed by the specified user.
      *
@@ -97,12 +172,44 @@ public class OrderService {
      *            pagination parameters
      * @return paginated list of order response DTOs
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public Page<OrderResponseDto> getOrdersForUser(Long userId, Pageable pageable) {
         User user = userRepo.findById(userId).orElseThrow(() -> new ResourceNotFoundException(//
                 "User not found"));
 
-        return orderRepo.findByUser(user, pageable).map(OrderMapper::toDto);
+        Page<Order> page = orderRepo.findByUser(user, pageable);
+        fetchItems(page.getContent());
+        return page.map(OrderMapper::toDto);
+    }
+
+    /**
+     * Retrieves one keyset page of the specified user's orders, newest first. No
+     * total count is computed.
+     *
+     * @param userId
+     *            the user's ID
+     * @param after
+     *            the cursor returned with the previous page, or null for the
+     *            first page
+     * @param size
+     *            the page size
+     * @return the page of order response DTOs with the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<OrderResponseDto> getOrdersForUserAfter(Long userId, String after, int size) {
+        User user = userRepo.findById(userId).orElseThrow(() -> new ResourceNotFoundException(//
+                "User not found"));
+
+        List<Order> rows;
+        if (after == null || after.isBlank()) {
+            rows = orderRepo.findKeysetPageByUser(user.getId(), size + 1);
+        } else {
+            PageCursor cursor = PageCursor.decode(after);
+            rows = orderRepo.findKeysetPageByUserAfter(//
+                    user.getId(), toOrderDate(cursor), cursor.id(), size + 1);
+        }
+        fetchItems(rows);
+        return CursorPageResponseDto.of(rows, size, OrderService::cursorOf, OrderMapper::toDto);
     }
 
     /**
@@ -114,7 +221,7 @@ public class OrderService {
      *            the ID of the user
      * @return the order response DTO
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public OrderResponseDto getOrderForUser(Long orderId, Long userId) {
         User user = userRepo.findById(userId).orElseThrow(() -> new ResourceNotFoundException(//
                 "User not found"));
@@ -136,15 +243,79 @@ public class OrderService {
      */
     @Transactional
     public OrderResponseDto updateOrderStatus(Long orderId, OrderStatusUpdateRequestDto request) {
-        Order order = orderRepo.findById(orderId).orElseThrow(() -> new ResourceNotFoundException(//
+        Order order = orderRepo.findLockedById(orderId).orElseThrow(() -> new ResourceNotFoundException(//
                 "Order not found"));
 
+        Status previous = order.getStatus();
         order.setStatus(request.status());
         Order saved = orderRepo.save(order);
+        fetchItems(List.of(saved)); // the row lock cannot be taken through the outer join of the items
+        if (previous != request.status()) {
+            outbox.append(OutboxService.ORDER, orderId, OutboxEventType.ORDER_STATUS_CHANGED, //
+                    new OrderStatusChangedEvent(orderId, previous, request.status()));
+        }
 
         return OrderMapper.toDto(saved);
     }
 
+    /**
+     * Moves many orders from one status to a later one with a single update,
+     * without loading them, and records a status change event for each moved
+     * order. The orders are either given by ID or are the oldest ones in the
+     * from status, optionally placed within a date range, at most
+     * {@link OrderBulkStatusUpdateRequestDto#MAX_ORDERS} per call. An order in
+     * another status than the from status is skipped.
+     *
+     * @param request
+     *            the DTO with the transition and the orders to apply it to
+     * @return the outcome for each order, in request order for orders given by
+     *         ID, and whether more orders match the filter
+     * @throws IllegalArgumentException
+     *             if the transition does not move forward, or if both IDs and a
+     *             date range are given
+     */
+    @Transactional
+    public OrderBulkStatusUpdateResponseDto updateOrderStatuses(OrderBulkStatusUpdateRequestDto request) {
+        if (!request.from().canMoveTo(request.to())) {
+            throw new IllegalArgumentException(//
+                    "Orders cannot move from " + request.from() + " to " + request.to());
+        }
+        boolean more = false;
+        Set<Long> ids;
+        if (request.ids() != null) {
+            if (request.placedFrom() != null || request.placedTo() != null) {
+                throw new IllegalArgumentException("Send either ids or a date range");
+            }
+            ids = new LinkedHashSet<>(request.ids());
+        } else {
+            List<Long> found = statusRepo.findIds(request.from(), //
+                    request.placedFrom() == null ? null : Timestamp.from(request.placedFrom()), //
+                    request.placedTo() == null ? null : Timestamp.from(request.placedTo()), //
+                    OrderBulkStatusUpdateRequestDto.MAX_ORDERS + 1);
+            more = found.size() > OrderBulkStatusUpdateRequestDto.MAX_ORDERS;
+            ids = new LinkedHashSet<>(found.subList(0, Math.min(found.size(), //
+                    OrderBulkStatusUpdateRequestDto.MAX_ORDERS)));
+        }
+        if (ids.isEmpty()) {
+            return new OrderBulkStatusUpdateResponseDto(0, false, List.of());
+        }
+
+        Set<Long> updated = new HashSet<>(statusRepo.transition(OutboxService.ORDER, ids, request.from(), //
+                request.to()));
+        Map<Long, Status> others = updated.size() == ids.size() ? Map.of() //
+                : statusRepo.statuses(ids.stream().filter(id -> !updated.contains(id)).toList());
+
+        List<OrderStatusOutcomeDto> outcomes = ids.stream().map(id -> {
+            if (updated.contains(id)) {
+                return new OrderStatusOutcomeDto(id, TransitionOutcome.UPDATED, request.to());
+            }
+            Status current = others.get(id);
+            return new OrderStatusOutcomeDto(id, //
+                    current == null ? TransitionOutcome.NOT_FOUND : TransitionOutcome.SKIPPED, current);
+        }).toList();
+        return new OrderBulkStatusUpdateResponseDto(updated.size(), more, outcomes);
+    }
+
     /**
      * Retrieves all orders in the system (admin view).
      *
@@ -152,8 +323,73 @@ public class OrderService {
      *            pagination information
      * @return paginated list of all orders as DTOs
      */
+    @Transactional(readOnly = true)
     public Page<OrderResponseDto> getAllOrders(Pageable pageable) {
-        return orderRepo.findAll(pageable).map(OrderMapper::toDto);
+        Page<Order> page = orderRepo.findAll(pageable);
+        fetchItems(page.getContent());
+        return page.map(OrderMapper::toDto);
+    }
+
+    /**
+     * Retrieves one keyset page of all orders in the system (admin view), newest
+     * first. No total count is computed.
+     *
+     * @param after
+     *            the cursor returned with the previous page, or null for the
+     *            first page
+     * @param size
+     *            the page size
+     * @return the page of order DTOs with the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<OrderResponseDto> getAllOrdersAfter(String after, int size) {
+        List<Order> rows;
+        if (after == null || after.isBlank()) {
+            rows = orderRepo.findKeysetPage(size + 1);
+        } else {
+            PageCursor cursor = PageCursor.decode(after);
+            rows = orderRepo.findKeysetPageAfter(toOrderDate(cursor), cursor.id(), size + 1);
+        }
+        fetchItems(rows);
+        return CursorPageResponseDto.of(rows, size, OrderService::cursorOf, OrderMapper::toDto);
+    }
+
+    /**
+     * Searches all orders (admin view) one keyset page at a time, newest first.
+     * Every filter is optional. No total count is computed.
+     *
+     * @param status
+     *            the status the orders must be in, or null
+     * @param open
+     *            whether to keep only orders not delivered yet
+     * @param userId
+     *            the ID of the user who placed the orders, or null
+     * @param from
+     *            the earliest order date, inclusive, or null
+     * @param to
+     *            the order date the orders must precede, or null
+     * @param after
+     *            the cursor returned with the previous page, or null for the
+     *            first page
+     * @param size
+     *            the page size
+     * @return the page of matching order DTOs with the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<OrderResponseDto> searchOrders(Status status, boolean open, Long userId, //
+            Instant from, Instant to, String after, int size) {
+        Timestamp afterDate = null;
+        Long afterId = null;
+        if (after != null && !after.isBlank()) {
+            PageCursor cursor = PageCursor.decode(after);
+            afterDate = toOrderDate(cursor);
+            afterId = cursor.id();
+        }
+        List<Order> rows = orderRepo.search(status, open, userId, //
+                from == null ? null : Timestamp.from(from), to == null ? null : Timestamp.from(to), //
+                afterDate, afterId, size + 1);
+        fetchItems(rows);
+        return CursorPageResponseDto.of(rows, size, OrderService::cursorOf, OrderMapper::toDto);
     }
 
     /**
@@ -163,10 +399,34 @@ public class OrderService {
      *            the ID of the order
      * @return the corresponding order as a DTO
      */
+    @Transactional(readOnly = true)
     public OrderResponseDto getOrderById(Long orderId) {
-        Order order = orderRepo.findById(orderId).orElseThrow(() -> new ResourceNotFoundException(//
+        Order order = orderRepo.findWithItemsById(orderId).orElseThrow(() -> new ResourceNotFoundException(//
                 "Order not found"));
 
         return OrderMapper.toDto(order);
     }
+
+    /**
+     * Initializes the items and books of orders already loaded in the current
+     * persistence context with one query, instead of one per order and per
+     * book when they are mapped.
+     */
+    private void fetchItems(List<Order> orders) {
+        if (!orders.isEmpty()) {
+            orderRepo.findWithItemsByIdIn(orders.stream().map(Order::getId).toList());
+        }
+    }
+
+    private static PageCursor cursorOf(Order order) {
+        return new PageCursor(order.getOrder_date().toInstant().toString(), order.getId());
+    }
+
+    private static Timestamp toOrderDate(PageCursor cursor) {
+        try {
+            return Timestamp.from(Instant.parse(cursor.sortKey()));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
 }
@@ -0,0 +1,116 @@
+package com.petros.bookstore.service;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fixed number of virtual threads draining the order queue of
+ * {@link OrderProcessingService}. A worker takes jobs until none is ready and
+ * then waits for a new order or the poll interval, so jobs left behind by
+ * another instance or by a retry are picked up as well.
+ * <p>
+ * The pool starts before the web server and stops after it. On stop the
+ * workers finish the job they hold and take no new one; jobs still queued stay
+ * in the database for the next start. Workers that do not finish within the
+ * drain timeout are interrupted and their jobs roll back.
+ */
+@Component
+public class OrderWorkerPool implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderWorkerPool.class);
+
+    private final OrderProcessingService processing;
+    private final int workers;
+    private final Duration pollInterval;
+    private final Duration drainTimeout;
+
+    private volatile boolean running;
+    private ExecutorService executor;
+
+    public OrderWorkerPool(OrderProcessingService processing, //
+            @Value("${bookstore.orders.workers:4}") int workers,
+            @Value("${bookstore.orders.poll-interval:PT1S}") Duration pollInterval,
+            @Value("${bookstore.orders.drain-timeout:PT30S}") Duration drainTimeout) {
+        this.processing = processing;
+        this.workers = workers;
+        this.pollInterval = pollInterval;
+        this.drainTimeout = drainTimeout;
+    }
+
+    /**
+     * Returns the number of workers the pool runs.
+     *
+     * @return the configured number of workers
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("order-worker-", 1).factory());
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::work);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        processing.wake(workers);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(drainTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Order workers did not drain within {}, interrupting them", drainTimeout);
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the embedded web server, so orders
+     * accepted during a graceful shutdown are still taken.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 4096;
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                if (!processing.processNext()) {
+                    processing.awaitWork(pollInterval);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Order worker failed to poll the queue", e);
+                try {
+                    Thread.sleep(pollInterval);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.petros.bookstore.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petros.bookstore.enums.OutboxEventType;
+import com.petros.bookstore.outbox.OutboxRelay;
+import com.petros.bookstore.repository.OutboxRepository;
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records domain events in the outbox as part of the transaction that makes
+ * the change, so an event exists if and only if its change committed. The
+ * events are delivered by {@link OutboxRelay} and deleted {@code retention}
+ * after delivery.
+ * <p>
+ * Appending after the statement that locks the aggregate row keeps the events
+ * of one aggregate in append order.
+ */
+@Service
+public class OutboxService {
+
+    public static final String ORDER = "ORDER";
+
+    private final OutboxRepository outboxRepo;
+    private final ObjectMapper objectMapper;
+    private final Duration retention;
+    private final int batchSize;
+
+    public OutboxService(OutboxRepository outboxRepo, ObjectMapper objectMapper,
+            @Value("${bookstore.outbox.retention:P7D}") Duration retention,
+            @Value("${bookstore.outbox.batch-size:500}") int batchSize) {
+        this.outboxRepo = outboxRepo;
+        this.objectMapper = objectMapper;
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Appends an event to the outbox.
+     *
+     * @param aggregateType
+     *            the kind of entity the event is about, e.g. {@link #ORDER}
+     * @param aggregateId
+     *            the ID of the entity
+     * @param type
+     *            the type of the event
+     * @param payload
+     *            the payload, written as JSON
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String aggregateType, Long aggregateId, OutboxEventType type, Object payload) {
+        try {
+            outboxRepo.append(aggregateType, aggregateId, type, objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unwritable payload of " + type, e);
+        }
+    }
+
+    /**
+     * Deletes the events delivered longer than the retention ago, in batches
+     * of {@code batchSize}.
+     *
+     * @return the number of deleted events
+     */
+    @Scheduled(fixedDelayString = "${bookstore.outbox.purge-interval:PT1H}")
+    public int purgeDelivered() {
+        Instant cutoff = Instant.now().minus(retention);
+        int purged = 0;
+        int batch;
+        do {
+            batch = outboxRepo.deletePublishedBefore(cutoff, batchSize);
+            purged += batch;
+        } while (batch == batchSize);
+        return purged;
+    }
+}
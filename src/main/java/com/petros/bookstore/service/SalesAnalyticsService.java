@@ -0,0 +1,104 @@
+package com.petros.bookstore.service;
+
+import com.petros.bookstore.dto.analyticsdto.BookSalesDto;
+import com.petros.bookstore.dto.analyticsdto.DailySalesDto;
+import com.petros.bookstore.dto.analyticsdto.GenreSalesDto;
+import com.petros.bookstore.outbox.SalesRollupListener;
+import com.petros.bookstore.repository.OutboxRepository;
+import com.petros.bookstore.repository.SalesRollupRepository;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Sales figures for dashboards, read from rollups per day instead of from the
+ * orders. The rollups follow the order events through
+ * {@link SalesRollupListener}, which counts each event exactly once, and are
+ * rebuilt from the orders every night. The rebuild backfills the days of orders
+ * placed before the rollups existed and undoes manual edits of orders or
+ * rollups that bypassed the events. Days of months already archived keep their
+ * figures.
+ */
+@Service
+@RequiredArgsConstructor
+public class SalesAnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesAnalyticsService.class);
+
+    private final SalesRollupRepository rollupRepo;
+    private final OutboxRepository outboxRepo;
+
+    /**
+     * Returns the sales of every day with sales in a range.
+     *
+     * @param from
+     *            the first day, inclusive
+     * @param to
+     *            the last day, inclusive
+     * @return the sales per day, oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<DailySalesDto> getDailySales(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        return rollupRepo.daily(from, to);
+    }
+
+    /**
+     * Returns the best-selling books by revenue in a range.
+     *
+     * @param from
+     *            the first day, inclusive
+     * @param to
+     *            the last day, inclusive
+     * @param limit
+     *            the maximum number of books
+     * @return the sales per book, highest revenue first
+     */
+    @Transactional(readOnly = true)
+    public List<BookSalesDto> getTopBooks(LocalDate from, LocalDate to, int limit) {
+        checkRange(from, to);
+        return rollupRepo.topBooks(from, to, limit);
+    }
+
+    /**
+     * Returns the sales per genre in a range.
+     *
+     * @param from
+     *            the first day, inclusive
+     * @param to
+     *            the last day, inclusive
+     * @return the sales per genre, highest revenue first
+     */
+    @Transactional(readOnly = true)
+    public List<GenreSalesDto> getGenreSales(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        return rollupRepo.genres(from, to);
+    }
+
+    /**
+     * Recomputes the rollups of the days the orders table still holds. The
+     * relay is held off meanwhile, so the rebuild counts exactly the events
+     * delivered so far and the ones delivered after it add on top.
+     *
+     * @return the number of days with sales
+     */
+    @Transactional
+    @Scheduled(cron = "${bookstore.analytics.rebuild-cron:0 30 3 * * *}")
+    public int rebuild() {
+        outboxRepo.lockRelay();
+        int days = rollupRepo.firstOrderDay().map(rollupRepo::rebuild).orElse(0);
+        log.info("Rebuilt the sales rollups of {} days", days);
+        return days;
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+    }
+}
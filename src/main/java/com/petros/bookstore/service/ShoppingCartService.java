@@ -1,5 +1,6 @@
 package com.petros.bookstore.service;
 
+import com.petros.bookstore.cache.BookCache;
 import com.petros.bookstore.dto.cartitemdto.CartItemRequestDto;
 import com.petros.bookstore.dto.cartitemdto.CartItemResponseDto;
 import com.petros.bookstore.dto.cartitemdto.CartItemUpdateRequestDto;
@@ -7,12 +8,12 @@ import com.petros.bookstore.exception.customException.ResourceNotFoundException;
 import com.petros.bookstore.mapper.CartItemMapper;
 import com.petros.bookstore.model.*;
 import com.petros.bookstore.repository.*;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.apache.coyote.BadRequestException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service class responsible for managing the shopping cart functionality
@@ -27,11 +28,16 @@ public class ShoppingCartService {
     private final CartItemRepository itemRepo;
     private final BookRepository bookRepo;
     private final UserRepository userRepo;
+    private final BookCache bookCache;
+    private final StockReservationService reservations;
 
     /**
      * Adds a book to the user's shopping cart. If the cart or the item doesn't
      * exist, it will be created. If the item already exists in the cart, its
-     * quantity is updated.
+     * quantity is updated. The copies are taken out of stock with one
+     * conditional update, so concurrent adds of the same book cannot oversell,
+     * and stay reserved for the item until its reservation expires. Every
+     * reservation of the cart is renewed.
      *
      * @param userId
      *            ID of the user
@@ -46,40 +52,34 @@ public class ShoppingCartService {
         User user = userRepo.findById(userId).orElseThrow(() -> new ResourceNotFoundException(//
                 "User not found"));
 
-        Book book = bookRepo.findById(request.bookId())
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
-
         ShoppingCart cart = cartRepo.findByUser(user).orElseGet(() -> {
             ShoppingCart c = new ShoppingCart();
             c.setUser(user);
             return cartRepo.save(c);
         });
+        reservations.renew(cart);
+
+        if (bookRepo.decrementAvailability(request.bookId(), request.quantity()) == 0) {
+            Book book = bookRepo.findById(request.bookId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
+            throw new BadRequestException("Insufficient stock. Requested quantity (" //
+                    + request.quantity() + ") exceeds available stock (" //
+                    + book.getAvailability() + ")");
+        }
+        bookCache.evict(request.bookId());
+        Book book = bookRepo.findById(request.bookId()).orElseThrow();
 
         CartItem item = itemRepo.findByShoppingCartAndBook(cart, book).orElse(null);
         if (item == null) {
             item = new CartItem();
             item.setShoppingCart(cart);
             item.setBook(book);
-            if (request.quantity() <= book.getAvailability()) {
-                item.setQuantity(request.quantity());
-                book.setAvailability(book.getAvailability() - request.quantity());
-            } else {
-                throw new BadRequestException("Insufficient stock. Requested quantity (" //
-                        + request.quantity() + ") exceeds available stock (" //
-                        + book.getAvailability() + ")");
-            }
+            item.setQuantity(request.quantity());
         } else {
-            if (request.quantity() <= book.getAvailability()) {
-                item.setQuantity(item.getQuantity() + request.quantity());
-                book.setAvailability(book.getAvailability() - request.quantity());
-            } else {
-                throw new BadRequestException("Insufficient stock. Requested quantity (" //
-                        + request.quantity() + ") exceeds available stock (" //
-                        + book.getAvailability() + ")");
-            }
+            item.setQuantity(item.getQuantity() + request.quantity());
         }
-        bookRepo.save(book);
         CartItem saved = itemRepo.save(item);
+        reservations.reserve(saved);
         return CartItemMapper.toDto(saved);
     }
 
@@ -94,7 +94,7 @@ public class ShoppingCartService {
      * @throws ResourceNotFoundException
      *             if user is not found
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public Page<CartItemResponseDto> getCartItems(Long userId, Pageable pageable) {
         User user = userRepo.findById(userId).orElseThrow(() -> new ResourceNotFoundException(//
                 "User not found"));
@@ -120,9 +120,9 @@ public class ShoppingCartService {
      * @throws ResourceNotFoundException
      *             if the item is not found or does not belong to the user
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public CartItemResponseDto findItemById(Long itemId, Long userId) {
-        CartItem item = itemRepo.findById(itemId).filter(//
+        CartItem item = itemRepo.findWithCartAndBookById(itemId).filter(//
                 i -> i.getShoppingCart().getUser().getId().equals(userId))
                 .orElseThrow(() -> new ResourceNotFoundException("Cart item not found"));
 
@@ -131,7 +131,7 @@ public class ShoppingCartService {
 
     /**
      * Updates the quantity of a cart item. If the new quantity is 0, the item is
-     * removed from the cart.
+     * removed from the cart. Every reservation of the cart is renewed.
      *
      * @param itemId
      *            ID of the cart item to update
@@ -146,23 +146,22 @@ public class ShoppingCartService {
     @Transactional
     public CartItemResponseDto updateCartItem(//
             Long itemId, CartItemUpdateRequestDto request, Long userId) throws BadRequestException {
-        CartItem item = itemRepo.findById(itemId).filter(//
+        CartItem item = itemRepo.findWithCartAndBookById(itemId).filter(//
                 i -> i.getShoppingCart().getUser().getId().equals(userId))
                 .orElseThrow(() -> new ResourceNotFoundException("Cart item not found"));
+        holdCart(item);
 
-        Book book = item.getBook();
+        Long bookId = item.getBook().getId();
         int quantityDiff = request.quantity() - item.getQuantity();
 
-        if (quantityDiff <= book.getAvailability()) {
-            item.setQuantity(request.quantity());
-            book.setAvailability(book.getAvailability() - quantityDiff);
-        } else {
+        if (quantityDiff > 0 && bookRepo.decrementAvailability(bookId, quantityDiff) == 0) {
             throw new BadRequestException("Insufficient stock. Requested quantity (+" //
                     + quantityDiff + ") exceeds available stock (" //
-                    + book.getAvailability() + ")");
+                    + bookRepo.findById(bookId).map(Book::getAvailability).orElse(0) + ")");
+        } else if (quantityDiff < 0) {
+            bookRepo.incrementAvailability(bookId, -quantityDiff);
         }
-
-        bookRepo.save(book);
+        bookCache.evict(bookId);
 
         int newQty = request.quantity();
         if (newQty == 0) {
@@ -171,11 +170,13 @@ public class ShoppingCartService {
         }
         item.setQuantity(newQty);
         CartItem saved = itemRepo.save(item);
+        reservations.reserve(saved);
         return CartItemMapper.toDto(saved);
     }
 
     /**
-     * Removes a cart item from the user's shopping cart.
+     * Removes a cart item from the user's shopping cart and gives its copies
+     * back. The other reservations of the cart are renewed.
      *
      * @param userId
      *            ID of the user
@@ -186,12 +187,26 @@ public class ShoppingCartService {
      */
     @Transactional
     public void removeFromCart(Long userId, Long itemId) {
-        CartItem item = itemRepo.findById(itemId).filter(//
+        CartItem item = itemRepo.findWithCartAndBookById(itemId).filter(//
                 i -> i.getShoppingCart().getUser().getId().equals(userId))
                 .orElseThrow(() -> new ResourceNotFoundException("Cart item not found"));
-        Book book = item.getBook();
-        book.setAvailability(book.getAvailability() + item.getQuantity());
-        bookRepo.save(book);
+        holdCart(item);
+
+        Long bookId = item.getBook().getId();
+        bookRepo.incrementAvailability(bookId, item.getQuantity());
+        bookCache.evict(bookId);
         itemRepo.delete(item);
     }
+
+    /**
+     * Renews the reservations of the item's cart, which keeps the reaper away
+     * from them until the transaction ends. An item the reaper released before
+     * that is gone.
+     */
+    private void holdCart(CartItem item) {
+        reservations.renew(item.getShoppingCart());
+        if (!itemRepo.existsById(item.getId())) {
+            throw new ResourceNotFoundException("Cart item not found");
+        }
+    }
 }
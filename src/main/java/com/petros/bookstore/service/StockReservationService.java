@@ -0,0 +1,87 @@
+package com.petros.bookstore.service;
+
+import com.petros.bookstore.cache.BookCache;
+import com.petros.bookstore.model.CartItem;
+import com.petros.bookstore.model.ShoppingCart;
+import com.petros.bookstore.model.StockReservation;
+import com.petros.bookstore.repository.StockReservationRepository;
+import com.petros.bookstore.repository.StockReservationRepositoryCustom.ReleasedStock;
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps the stock held by shopping carts from being locked up by abandoned
+ * carts. Every cart item holds its copies through a {@link StockReservation}
+ * that expires after {@code ttl}; cart activity renews the reservations of the
+ * whole cart, and a scheduled reaper gives the copies of expired reservations
+ * back to the books and removes their cart items.
+ */
+@Service
+public class StockReservationService {
+
+    private final StockReservationRepository reservationRepo;
+    private final BookCache bookCache;
+    private final Duration ttl;
+    private final int batchSize;
+
+    public StockReservationService(StockReservationRepository reservationRepo, BookCache bookCache,
+            @Value("${bookstore.reservations.ttl:PT30M}") Duration ttl,
+            @Value("${bookstore.reservations.batch-size:500}") int batchSize) {
+        this.reservationRepo = reservationRepo;
+        this.bookCache = bookCache;
+        this.ttl = ttl;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Reserves the quantity of a cart item for a full TTL, creating its
+     * reservation if it has none yet.
+     *
+     * @param item
+     *            the saved cart item
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(CartItem item) {
+        Instant expiresAt = Instant.now().plus(ttl);
+        if (reservationRepo.updateReservation(item.getId(), item.getQuantity(), expiresAt) == 0) {
+            reservationRepo.save(new StockReservation(null, item, item.getQuantity(), expiresAt));
+        }
+    }
+
+    /**
+     * Renews every reservation of the cart for a full TTL. The renewed rows stay
+     * locked until the calling transaction ends, so the reaper cannot release
+     * them while the cart is being changed.
+     *
+     * @param cart
+     *            the cart with activity
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void renew(ShoppingCart cart) {
+        reservationRepo.renewCart(cart, Instant.now().plus(ttl));
+    }
+
+    /**
+     * Releases all reservations that have expired, in batches of
+     * {@code batchSize}, each batch in its own transaction.
+     *
+     * @return the number of released reservations
+     */
+    @Scheduled(fixedDelayString = "${bookstore.reservations.reap-interval:PT1M}")
+    public int releaseExpired() {
+        Instant now = Instant.now();
+        int released = 0;
+        ReleasedStock batch;
+        do {
+            batch = reservationRepo.releaseExpired(now, batchSize);
+            batch.bookIds().forEach(bookCache::evict);
+            released += batch.reservations();
+        } while (batch.reservations() == batchSize);
+        return released;
+    }
+}
@@ -1,19 +1,24 @@
 package com.petros.bookstore.service;
 
+import com.petros.bookstore.dto.paginationdto.PaginatedResponseDto;
 import com.petros.bookstore.dto.userdto.UserAdminUpdateRequestDto;
 import com.petros.bookstore.dto.userdto.UserProfileResponseDto;
 import com.petros.bookstore.dto.userdto.UserProfileUpdateRequestDto;
+import com.petros.bookstore.enums.CountMode;
 import com.petros.bookstore.enums.Role;
 import com.petros.bookstore.exception.customException.ResourceGoneException;
 import com.petros.bookstore.exception.customException.ResourceNotFoundException;
 import com.petros.bookstore.mapper.UserMapper;
 import com.petros.bookstore.model.User;
+import com.petros.bookstore.repository.RowEstimateRepository;
 import com.petros.bookstore.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service class responsible for handling User functionality, including profile
@@ -25,6 +30,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final RowEstimateRepository rowEstimates;
 
     /**
      * Retrieves a user by their username.
@@ -35,6 +41,7 @@ public class UserService {
      * @throws ResourceGoneException
      *             if the user account is deleted
      */
+    @Transactional(readOnly = true)
     public User getUserByUsername(final String username) {
         return userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceGoneException("The user account has been deleted"));
@@ -84,11 +91,43 @@ public class UserService {
      *            the pagination and sorting information
      * @return a page of {@link UserProfileResponseDto} matching the criteria
      */
+    @Transactional(readOnly = true)
     public Page<UserProfileResponseDto> searchUsers(//
             String username, String firstName, String lastName, Pageable pageable) {
         return userRepository.searchUsers(username, firstName, lastName, pageable).map(UserMapper::toUserProfileDto);
     }
 
+    /**
+     * Searches users like {@link #searchUsers(String, String, String, Pageable)}
+     * but lets the caller choose how the total is obtained. Only
+     * {@link CountMode#EXACT} runs a count query.
+     *
+     * @param username
+     *            optional username filter
+     * @param firstName
+     *            optional first name filter
+     * @param lastName
+     *            optional last name filter
+     * @param pageable
+     *            the pagination and sorting information
+     * @param count
+     *            how the total is obtained
+     * @return the matching users with the requested kind of total
+     */
+    @Transactional(readOnly = true)
+    public PaginatedResponseDto<UserProfileResponseDto> searchUsers(//
+            String username, String firstName, String lastName, Pageable pageable, CountMode count) {
+        if (count == CountMode.EXACT) {
+            return PaginatedResponseDto.exact(searchUsers(username, firstName, lastName, pageable));
+        }
+        Slice<UserProfileResponseDto> slice = userRepository//
+                .searchUsersSlice(username, firstName, lastName, pageable).map(UserMapper::toUserProfileDto);
+        if (count == CountMode.NONE) {
+            return PaginatedResponseDto.withoutTotal(slice);
+        }
+        return PaginatedResponseDto.estimated(slice, rowEstimates.estimateUsers(username, firstName, lastName));
+    }
+
     /**
      * Retrieves a user by ID.
      *
@@ -98,6 +137,7 @@ public class UserService {
      * @throws ResourceNotFoundException
      *             if the user is not found
      */
+    @Transactional(readOnly = true)
     public UserProfileResponseDto findUserById(Long id) {
         User user = userRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException(//
                 "User with ID " + id + " not found."));
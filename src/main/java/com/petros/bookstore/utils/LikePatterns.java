@@ -0,0 +1,29 @@
+package com.petros.bookstore.utils;
+
+/**
+ * Builds {@code LIKE} patterns from user input. The wildcards {@code %} and
+ * {@code _} in the input are escaped, so they match themselves, with
+ * {@link #ESCAPE}, which is also the Postgres default escape character.
+ */
+public final class LikePatterns {
+
+    public static final char ESCAPE = '\\';
+
+    private LikePatterns() {
+    }
+
+    /**
+     * Returns a pattern matching values that contain the input.
+     *
+     * @param value
+     *            the input, or null
+     * @return the pattern, or null if the input is null
+     */
+    public static String contains(String value) {
+        if (value == null) {
+            return null;
+        }
+        String escaped = value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
@@ -0,0 +1,47 @@
+package com.petros.bookstore.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a keyset page: the value of the sort key plus the
+ * row id as a tie-breaker. It travels to clients as an opaque URL-safe token.
+ *
+ * @param sortKey
+ *            the sort key of the last row, rendered as a string
+ * @param id
+ *            the id of the last row
+ */
+public record PageCursor(String sortKey, long id) {
+
+    private static final char SEPARATOR = ':';
+
+    /**
+     * Encodes this cursor as an opaque token.
+     *
+     * @return the URL-safe token
+     */
+    public String encode() {
+        String raw = id + String.valueOf(SEPARATOR) + sortKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @param token
+     *            the opaque token
+     * @return the decoded cursor
+     * @throws IllegalArgumentException
+     *             if the token is malformed
+     */
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new PageCursor(raw.substring(separator + 1), Long.parseLong(raw.substring(0, separator)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
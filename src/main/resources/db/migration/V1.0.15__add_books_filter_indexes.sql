@@ -0,0 +1,2 @@
+CREATE INDEX idx_books_genre_price ON books (genre, price);
+CREATE INDEX idx_books_availability ON books (availability);
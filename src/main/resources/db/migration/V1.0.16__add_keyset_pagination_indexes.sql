@@ -0,0 +1,4 @@
+CREATE INDEX idx_books_title_id ON books (title, id);
+
+CREATE INDEX idx_orders_date_id ON orders (order_date DESC, id DESC);
+CREATE INDEX idx_orders_user_date_id ON orders (user_id, order_date DESC, id DESC);
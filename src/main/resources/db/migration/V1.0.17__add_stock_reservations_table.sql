@@ -0,0 +1,13 @@
+CREATE TABLE stock_reservations (
+    id BIGSERIAL PRIMARY KEY,
+    cart_item_id BIGINT NOT NULL UNIQUE,
+    quantity INT NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL,
+    FOREIGN KEY (cart_item_id) REFERENCES cart_items(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_stock_reservations_expires_at ON stock_reservations (expires_at);
+
+-- items already sitting in carts hold stock too, so they expire like new ones
+INSERT INTO stock_reservations (cart_item_id, quantity, expires_at)
+SELECT id, quantity, CURRENT_TIMESTAMP + INTERVAL '30 minutes' FROM cart_items;
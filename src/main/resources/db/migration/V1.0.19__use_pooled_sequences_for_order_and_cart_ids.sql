@@ -0,0 +1,15 @@
+-- Orders, order items and cart items take their ids from sequences that
+-- Hibernate reserves 50 values at a time, so their inserts can be batched.
+-- The column defaults are dropped: a plain nextval would land inside a block
+-- already handed out to the application.
+ALTER TABLE orders ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE orders_id_seq INCREMENT BY 50 OWNED BY orders.id;
+SELECT setval('orders_id_seq', COALESCE(MAX(id), 0) + 50) FROM orders;
+
+ALTER TABLE order_items ALTER COLUMN id DROP DEFAULT;
+ALTER SEQUENCE order_items_id_seq INCREMENT BY 50;
+SELECT setval('order_items_id_seq', COALESCE(MAX(id), 0) + 50) FROM order_items;
+
+ALTER TABLE cart_items ALTER COLUMN id DROP DEFAULT;
+ALTER SEQUENCE cart_items_id_seq INCREMENT BY 50;
+SELECT setval('cart_items_id_seq', COALESCE(MAX(id), 0) + 50) FROM cart_items;
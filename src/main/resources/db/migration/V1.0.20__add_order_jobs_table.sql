@@ -0,0 +1,11 @@
+-- Durable queue of orders accepted asynchronously and waiting to be confirmed
+CREATE TABLE order_jobs (
+    order_id BIGINT PRIMARY KEY,
+    enqueued_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    available_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    attempts INT NOT NULL DEFAULT 0,
+    last_error TEXT,
+    FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_order_jobs_available_at ON order_jobs (available_at);
@@ -0,0 +1,8 @@
+-- Admin order search: keyset pages of one status, optionally within a date range
+CREATE INDEX idx_orders_status_date_id ON orders (status, order_date DESC, id DESC);
+
+-- Orders not shipped yet, whatever their status. They are few and read often,
+-- and the partial index stays small however many delivered orders pile up.
+-- The predicate must match SqlFilter.orders for the planner to use it.
+CREATE INDEX idx_orders_open_date_id ON orders (order_date DESC, id DESC)
+    WHERE status IN ('PENDING', 'CONFIRMED', 'PROCESSING');
@@ -0,0 +1,92 @@
+-- Orders and their items are range partitioned by month of order_date. Old
+-- months are archived by dropping their partitions, and reads of recent
+-- orders, which all sort on order_date, stop in the newest partitions.
+-- The keys of a partitioned table must include the partition key, so
+-- order_date joins the primary keys and is copied onto order_items.
+
+-- A foreign key cannot point at orders(id) alone any more. The job of an
+-- order that is gone is dropped by the worker that takes it.
+ALTER TABLE order_jobs DROP CONSTRAINT order_jobs_order_id_fkey;
+
+ALTER TABLE order_items RENAME TO order_items_unpartitioned;
+ALTER TABLE orders RENAME TO orders_unpartitioned;
+ALTER SEQUENCE order_items_id_seq OWNED BY NONE;
+ALTER SEQUENCE orders_id_seq OWNED BY NONE;
+
+CREATE TABLE orders (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    total_price DECIMAL(10, 2) NOT NULL,
+    order_date TIMESTAMP NOT NULL
+) PARTITION BY RANGE (order_date);
+
+CREATE TABLE order_items (
+    id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    order_id BIGINT NOT NULL,
+    order_date TIMESTAMP NOT NULL,
+    quantity INT NOT NULL
+) PARTITION BY RANGE (order_date);
+
+ALTER SEQUENCE orders_id_seq OWNED BY orders.id;
+ALTER SEQUENCE order_items_id_seq OWNED BY order_items.id;
+
+-- Creates the monthly partitions orders_pYYYYMM and order_items_pYYYYMM for
+-- the given number of months from first_month on, skipping months that exist.
+-- Returns the number of months created.
+CREATE FUNCTION create_order_partitions(first_month DATE, months INT) RETURNS INT
+LANGUAGE plpgsql AS $$
+DECLARE
+    month_start TIMESTAMP;
+    suffix TEXT;
+    created INT := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('create_order_partitions'));
+    FOR i IN 0 .. months - 1 LOOP
+        month_start := date_trunc('month', first_month::TIMESTAMP) + make_interval(months => i);
+        suffix := to_char(month_start, 'YYYYMM');
+        CONTINUE WHEN to_regclass('orders_p' || suffix) IS NOT NULL;
+        EXECUTE format('CREATE TABLE %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                'orders_p' || suffix, month_start, month_start + INTERVAL '1 month');
+        EXECUTE format('CREATE TABLE %I PARTITION OF order_items FOR VALUES FROM (%L) TO (%L)',
+                'order_items_p' || suffix, month_start, month_start + INTERVAL '1 month');
+        created := created + 1;
+    END LOOP;
+    RETURN created;
+END
+$$;
+
+-- Every month since the first order, and three months ahead
+SELECT create_order_partitions(first_month::DATE,
+        (EXTRACT(YEAR FROM span) * 12 + EXTRACT(MONTH FROM span))::INT + 4)
+FROM (SELECT date_trunc('month', COALESCE(min(order_date), now())) AS first_month,
+             age(date_trunc('month', now()), date_trunc('month', COALESCE(min(order_date), now()))) AS span
+      FROM orders_unpartitioned) history;
+
+INSERT INTO orders (id, user_id, status, total_price, order_date)
+SELECT id, user_id, status, total_price, order_date FROM orders_unpartitioned;
+
+INSERT INTO order_items (id, book_id, order_id, order_date, quantity)
+SELECT i.id, i.book_id, i.order_id, o.order_date, i.quantity
+FROM order_items_unpartitioned i JOIN orders_unpartitioned o ON o.id = i.order_id;
+
+DROP TABLE order_items_unpartitioned;
+DROP TABLE orders_unpartitioned;
+
+ALTER TABLE orders ADD PRIMARY KEY (id, order_date);
+ALTER TABLE orders ADD FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
+
+-- Led by order_id, the unique index also serves the lookup of an order's items
+ALTER TABLE order_items ADD PRIMARY KEY (id, order_date);
+ALTER TABLE order_items ADD CONSTRAINT unique_book_order UNIQUE (order_id, book_id, order_date);
+ALTER TABLE order_items ADD FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE;
+ALTER TABLE order_items ADD FOREIGN KEY (order_id, order_date)
+    REFERENCES orders(id, order_date) ON DELETE CASCADE;
+CREATE INDEX idx_order_items_book_id ON order_items (book_id);
+
+CREATE INDEX idx_orders_date_id ON orders (order_date DESC, id DESC);
+CREATE INDEX idx_orders_user_date_id ON orders (user_id, order_date DESC, id DESC);
+CREATE INDEX idx_orders_status_date_id ON orders (status, order_date DESC, id DESC);
+CREATE INDEX idx_orders_open_date_id ON orders (order_date DESC, id DESC)
+    WHERE status IN ('PENDING', 'CONFIRMED', 'PROCESSING');
@@ -0,0 +1,29 @@
+-- Sales rolled up per day, kept up to date from the order events of the
+-- outbox and rebuilt from the orders nightly. Dashboards read these instead of
+-- summing order history. Days of archived months stay, since the rebuild only
+-- rewrites the days the orders table still holds.
+CREATE TABLE sales_daily (
+    day DATE PRIMARY KEY,
+    orders BIGINT NOT NULL,
+    units BIGINT NOT NULL,
+    revenue DECIMAL(14, 2) NOT NULL,
+    delivered_orders BIGINT NOT NULL,
+    delivered_revenue DECIMAL(14, 2) NOT NULL
+);
+
+-- No foreign key to books: the sales of a deleted book remain sales
+CREATE TABLE sales_by_book_daily (
+    day DATE NOT NULL,
+    book_id BIGINT NOT NULL,
+    units BIGINT NOT NULL,
+    revenue DECIMAL(14, 2) NOT NULL,
+    PRIMARY KEY (day, book_id)
+);
+
+CREATE TABLE sales_by_genre_daily (
+    day DATE NOT NULL,
+    genre VARCHAR(255) NOT NULL,
+    units BIGINT NOT NULL,
+    revenue DECIMAL(14, 2) NOT NULL,
+    PRIMARY KEY (day, genre)
+);
@@ -0,0 +1,17 @@
+-- Order items keep the price they were sold at, so order history and sales
+-- figures no longer follow later changes to the book price. The price at
+-- ordering time of existing items is not known; they get the current price,
+-- which is what order history showed for them until now.
+ALTER TABLE order_items ADD COLUMN unit_price DECIMAL(10, 2);
+ALTER TABLE order_items ADD COLUMN line_total DECIMAL(12, 2);
+
+UPDATE order_items i SET unit_price = b.price, line_total = b.price * i.quantity
+FROM books b WHERE b.id = i.book_id;
+
+ALTER TABLE order_items ALTER COLUMN unit_price SET NOT NULL;
+ALTER TABLE order_items ALTER COLUMN line_total SET NOT NULL;
+
+-- The items of an order with their prices, read from the index alone when
+-- totals and sales are recomputed
+CREATE INDEX idx_order_items_order_id_prices ON order_items (order_id)
+    INCLUDE (book_id, quantity, unit_price, line_total);
@@ -0,0 +1,9 @@
+-- Failed deliveries are counted per event. An event that keeps failing is
+-- parked: it stays undelivered but the relay skips it, so it no longer holds
+-- back the events after it.
+ALTER TABLE outbox_events ADD COLUMN attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE outbox_events ADD COLUMN last_error TEXT;
+ALTER TABLE outbox_events ADD COLUMN parked_at TIMESTAMPTZ;
+
+DROP INDEX idx_outbox_events_unpublished;
+CREATE INDEX idx_outbox_events_unpublished ON outbox_events (id) WHERE published_at IS NULL AND parked_at IS NULL;
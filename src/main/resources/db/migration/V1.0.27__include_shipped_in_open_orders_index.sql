@@ -0,0 +1,6 @@
+-- Shipped orders can still be delivered, so they are open as well: open orders
+-- are those in any status but DELIVERED. The predicate must match
+-- SqlFilter.orders for the planner to use the index.
+DROP INDEX idx_orders_open_date_id;
+CREATE INDEX idx_orders_open_date_id ON orders (order_date DESC, id DESC)
+    WHERE status IN ('PENDING', 'CONFIRMED', 'PROCESSING', 'SHIPPED');
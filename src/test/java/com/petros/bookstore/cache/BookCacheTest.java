@@ -0,0 +1,106 @@
+package com.petros.bookstore.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.petros.bookstore.dto.bookdto.BookCacheStatsDto;
+import com.petros.bookstore.dto.bookdto.BookFacetsDto;
+import com.petros.bookstore.dto.bookdto.BookResponseDto;
+import com.petros.bookstore.enums.Genre;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+class BookCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private static BookResponseDto book(long id) {
+        return new BookResponseDto(id, "Title " + id, "Author", "Desc", 9.99, 5, Genre.FANTASY);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondMaxSize() {
+        BookCache cache = new BookCache(2, Duration.ofMinutes(5), Duration.ofSeconds(2), now::get);
+        cache.put(book(1));
+        cache.put(book(2));
+        cache.get(1L); // 2 is now the least recently used
+        cache.put(book(3));
+
+        assertThat(cache.get(1L)).isNotNull();
+        assertThat(cache.get(2L)).isNull();
+        assertThat(cache.get(3L)).isNotNull();
+
+        BookCacheStatsDto stats = cache.stats();
+        assertThat(stats.evictions()).isEqualTo(1);
+        assertThat(stats.size()).isEqualTo(2);
+        assertThat(stats.hits()).isEqualTo(3);
+        assertThat(stats.misses()).isEqualTo(1);
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() {
+        BookCache cache = new BookCache(10, Duration.ofSeconds(30), Duration.ofSeconds(2), now::get);
+        cache.put(book(1));
+
+        now.addAndGet(Duration.ofSeconds(29).toNanos());
+        assertThat(cache.get(1L)).isNotNull();
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+        assertThat(cache.stats().size()).isZero();
+    }
+
+    @Test
+    void evictCountsInvalidation() {
+        BookCache cache = new BookCache(10, Duration.ofMinutes(5), Duration.ofSeconds(2), now::get);
+        cache.put(book(1));
+
+        cache.evict(1L);
+        cache.evict(2L);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.stats().invalidations()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotCacheLoadThatRacedWithInvalidation() {
+        BookCache cache = new BookCache(10, Duration.ofMinutes(5), Duration.ofSeconds(2), now::get);
+
+        BookResponseDto loaded = cache.get(1L, id -> {
+            cache.evict(id); // a writer commits while the row is being read
+            return book(id);
+        });
+
+        assertThat(loaded).isNotNull();
+        assertThat(cache.stats().size()).isZero();
+        assertThat(cache.get(1L, BookCacheTest::book)).isNotNull();
+        assertThat(cache.stats().size()).isEqualTo(1);
+    }
+
+    @Test
+    void cachesFacetsUntilEvictedOrExpired() {
+        BookCache cache = new BookCache(10, Duration.ofSeconds(30), Duration.ofSeconds(2), now::get);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<BookFacetsDto> loader = () -> {
+            loads.incrementAndGet();
+            return new BookFacetsDto(Map.of(Genre.FANTASY, 1L), List.of());
+        };
+
+        cache.facets(loader);
+        cache.facets(loader);
+        assertThat(loads).hasValue(1);
+
+        cache.evictFacets();
+        cache.facets(loader);
+        assertThat(loads).hasValue(2);
+
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        cache.facets(loader);
+        assertThat(loads).hasValue(3);
+    }
+}
@@ -0,0 +1,87 @@
+package com.petros.bookstore.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.petros.bookstore.dto.bookdto.BookPopularityDto;
+import com.petros.bookstore.dto.bookdto.BookSuggestionDto;
+import com.petros.bookstore.enums.SuggestionType;
+import com.petros.bookstore.repository.SalesRollupRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BookSuggestionsTest {
+
+    private SalesRollupRepository rollupRepo;
+    private BookSuggestions suggestions;
+
+    @BeforeEach
+    void setUp() {
+        rollupRepo = mock(SalesRollupRepository.class);
+        when(rollupRepo.bookPopularity()).thenReturn(List.of(//
+                new BookPopularityDto(1L, "The Lord of the Rings", "J.R.R. Tolkien", 40), //
+                new BookPopularityDto(2L, "The Hobbit", "J.R.R. Tolkien", 25), //
+                new BookPopularityDto(3L, "Rings of Saturn", "W. G. Sebald", 50), //
+                new BookPopularityDto(4L, "Les Misérables", "Victor Hugo", 5)));
+        suggestions = new BookSuggestions(rollupRepo);
+        suggestions.rebuild();
+    }
+
+    @Test
+    void matchesStartOfAnyWordRankedBySales() {
+        assertThat(suggestions.suggest("rin", 10)).extracting(BookSuggestionDto::bookId)//
+                .containsExactly(3L, 1L);
+    }
+
+    @Test
+    void authorsRankBySalesOfAllTheirBooks() {
+        assertThat(suggestions.suggest("tolk", 10))//
+                .containsExactly(new BookSuggestionDto("J.R.R. Tolkien", SuggestionType.AUTHOR, null));
+        assertThat(suggestions.suggest("t", 2)).extracting(BookSuggestionDto::text)//
+                .containsExactly("J.R.R. Tolkien", "The Lord of the Rings");
+    }
+
+    @Test
+    void ignoresCaseAccentsAndPunctuation() {
+        assertThat(suggestions.suggest("  MISERA", 10)).extracting(BookSuggestionDto::bookId)//
+                .containsExactly(4L);
+        assertThat(suggestions.suggest("r.r.", 10)).extracting(BookSuggestionDto::text)//
+                .containsExactly("J.R.R. Tolkien");
+        assertThat(suggestions.suggest("?!", 10)).isEmpty();
+    }
+
+    @Test
+    void putAndRemoveKeepIndexCurrent() {
+        suggestions.put(1L, "The Two Towers", "J.R.R. Tolkien");
+        suggestions.put(5L, "Ringworld", "Larry Niven");
+        suggestions.remove(2L);
+
+        assertThat(suggestions.suggest("rin", 10)).extracting(BookSuggestionDto::text)//
+                .containsExactly("Rings of Saturn", "Ringworld");
+        assertThat(suggestions.suggest("tow", 10)).extracting(BookSuggestionDto::bookId)//
+                .containsExactly(1L);
+        assertThat(suggestions.suggest("hobbit", 10)).isEmpty();
+
+        suggestions.remove(1L);
+        assertThat(suggestions.suggest("tolkien", 10)).isEmpty();
+    }
+
+    @Test
+    void refreshSalesReranksWithoutUndoingWrites() {
+        suggestions.put(1L, "The Lord of the Rings: Anniversary Edition", "J.R.R. Tolkien");
+        suggestions.remove(4L);
+        when(rollupRepo.bookPopularity()).thenReturn(List.of(//
+                new BookPopularityDto(1L, "The Lord of the Rings", "J.R.R. Tolkien", 60), //
+                new BookPopularityDto(2L, "The Hobbit", "J.R.R. Tolkien", 25), //
+                new BookPopularityDto(3L, "Rings of Saturn", "W. G. Sebald", 50), //
+                new BookPopularityDto(4L, "Les Misérables", "Victor Hugo", 5)));
+
+        suggestions.refreshSales();
+
+        assertThat(suggestions.suggest("rin", 10)).extracting(BookSuggestionDto::text)//
+                .containsExactly("The Lord of the Rings: Anniversary Edition", "Rings of Saturn");
+        assertThat(suggestions.suggest("misera", 10)).isEmpty();
+    }
+}
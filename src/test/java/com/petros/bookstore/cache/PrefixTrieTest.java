@@ -0,0 +1,51 @@
+package com.petros.bookstore.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Comparator;
+import org.junit.jupiter.api.Test;
+
+class PrefixTrieTest {
+
+    private final PrefixTrie<String> trie = new PrefixTrie<>(3, Comparator.<String>naturalOrder());
+
+    @Test
+    void returnsBestValuesUnderPrefix() {
+        trie.add("romance", "c");
+        trie.add("rome", "a");
+        trie.add("roman", "d");
+        trie.add("river", "b");
+
+        assertThat(trie.top("rom", 10)).containsExactly("a", "c", "d");
+        assertThat(trie.top("r", 10)).containsExactly("a", "b", "c"); // capped at k
+        assertThat(trie.top("roma", 1)).containsExactly("c");
+        assertThat(trie.top("romanc", 10)).containsExactly("c");
+        assertThat(trie.top("rox", 10)).isEmpty();
+        assertThat(trie.top("romances", 10)).isEmpty();
+    }
+
+    @Test
+    void returnsValueStoredUnderSeveralKeysOnce() {
+        trie.add("lord of the rings", "x");
+        trie.add("the rings", "x");
+        trie.add("the hobbit", "y");
+
+        assertThat(trie.top("the", 10)).containsExactly("x", "y");
+    }
+
+    @Test
+    void removeRefreshesTopAndPrunes() {
+        trie.add("rome", "a");
+        trie.add("roman", "b");
+        trie.add("romance", "c");
+        trie.add("ronin", "d");
+
+        trie.remove("rome", "a");
+        trie.remove("ronin", "x"); // not stored, ignored
+
+        assertThat(trie.top("ro", 10)).containsExactly("b", "c", "d");
+        trie.remove("ronin", "d");
+        assertThat(trie.top("ron", 10)).isEmpty();
+        assertThat(trie.top("ro", 10)).containsExactly("b", "c");
+    }
+}
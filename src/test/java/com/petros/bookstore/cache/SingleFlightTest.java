@@ -0,0 +1,132 @@
+package com.petros.bookstore.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.petros.bookstore.exception.customException.ResourceNotFoundException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private static final int WAITERS = 10;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final CountDownLatch loading = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger loaderCalls = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void collapsesConcurrentLoadsOfTheSameKey() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>(Duration.ofSeconds(5));
+
+        Future<String> leader = executor.submit(() -> flight.load(1L, blockingLoader(() -> "book-1")));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        List<Future<String>> waiters = startWaiters(flight, () -> "unexpected");
+        awaitCondition(() -> flight.stats().collapsed() == WAITERS);
+
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("book-1");
+        for (Future<String> waiter : waiters) {
+            assertThat(waiter.get(5, TimeUnit.SECONDS)).isEqualTo("book-1");
+        }
+        assertThat(loaderCalls.get()).isEqualTo(1);
+        assertThat(flight.stats().loads()).isEqualTo(1);
+        assertThat(flight.stats().collapsed()).isEqualTo(WAITERS);
+    }
+
+    @Test
+    void sharesTheLeadersFailure() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>(Duration.ofSeconds(5));
+
+        Future<String> leader = executor.submit(() -> flight.load(1L, blockingLoader(() -> {
+            throw new ResourceNotFoundException("Book with ID 1 not found.");
+        })));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        List<Future<String>> waiters = startWaiters(flight, () -> "unexpected");
+        awaitCondition(() -> flight.stats().collapsed() == WAITERS);
+
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(ResourceNotFoundException.class);
+        for (Future<String> waiter : waiters) {
+            assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(ResourceNotFoundException.class);
+        }
+        assertThat(loaderCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void waiterLoadsItselfAfterTimeout() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>(Duration.ofMillis(50));
+
+        executor.submit(() -> flight.load(1L, blockingLoader(() -> "slow")));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(flight.load(1L, () -> "direct")).isEqualTo("direct");
+        assertThat(flight.stats().timeouts()).isEqualTo(1);
+        assertThat(flight.stats().loads()).isEqualTo(2);
+    }
+
+    @Test
+    void forgottenLoadIsNotJoined() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>(Duration.ofSeconds(5));
+
+        executor.submit(() -> flight.load(1L, blockingLoader(() -> "stale")));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        flight.forget(1L);
+
+        assertThat(flight.load(1L, () -> "fresh")).isEqualTo("fresh");
+        assertThat(flight.stats().collapsed()).isZero();
+    }
+
+    private Supplier<String> blockingLoader(Supplier<String> result) {
+        return () -> {
+            loaderCalls.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return result.get();
+        };
+    }
+
+    private List<Future<String>> startWaiters(SingleFlight<Long, String> flight, Supplier<String> loader) {
+        List<Future<String>> waiters = new ArrayList<>();
+        for (int i = 0; i < WAITERS; i++) {
+            waiters.add(executor.submit(() -> flight.load(1L, loader)));
+        }
+        return waiters;
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
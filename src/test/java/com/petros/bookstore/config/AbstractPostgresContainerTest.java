@@ -7,7 +7,9 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 @Testcontainers
-@TestPropertySource(properties = {"spring.datasource.driver-class-name=org.postgresql.Driver"})
+// every cached context shares the database, so tests run the outbox relay themselves
+@TestPropertySource(properties = {"spring.datasource.driver-class-name=org.postgresql.Driver",
+        "bookstore.outbox.poll-interval=PT1H"})
 public abstract class AbstractPostgresContainerTest {
 
     @Container
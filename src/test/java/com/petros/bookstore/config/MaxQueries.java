@@ -0,0 +1,18 @@
+package com.petros.bookstore.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Most SQL statements the body of a test may run; {@code @BeforeEach} and
+ * {@code @AfterEach} methods are not counted. Checked by
+ * {@link QueryBudgetExtension}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MaxQueries {
+
+    int value();
+}
@@ -0,0 +1,84 @@
+package com.petros.bookstore.config;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.List;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+/**
+ * Fails tests that run more SQL statements than their budget, listing the
+ * statements they ran. The budget of a whole test is declared with
+ * {@link MaxQueries}; a single request is checked with
+ * {@link #assertMaxQueries(int, String, Runnable)}.
+ * <p>
+ * The Spring context of the test must enable {@link SqlStatementRecorder}
+ * with {@link #RECORDER_PROPERTY}. Scheduled jobs and workers of that context
+ * that use the database should be moved out of the way, since their
+ * statements are counted too.
+ */
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    public static final String RECORDER_PROPERTY = "bookstore.test.record-sql=true";
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        if (budgetOf(context) != null) {
+            SqlStatementRecorder.start();
+        }
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        MaxQueries budget = budgetOf(context);
+        if (budget == null) {
+            return;
+        }
+        List<String> statements = SqlStatementRecorder.stop();
+        if (context.getExecutionException().isEmpty()) {
+            check(budget.value(), context.getDisplayName(), statements);
+        }
+    }
+
+    /**
+     * Runs a call and fails if it ran more than the given number of SQL
+     * statements. Must not be used inside a test annotated with
+     * {@link MaxQueries}.
+     *
+     * @param max
+     *            the most statements the call may run
+     * @param description
+     *            what the call does, e.g. the request it sends
+     * @param call
+     *            the call to check
+     */
+    public static void assertMaxQueries(int max, String description, Runnable call) {
+        SqlStatementRecorder.start();
+        List<String> statements;
+        try {
+            call.run();
+        } finally {
+            statements = SqlStatementRecorder.stop();
+        }
+        check(max, description, statements);
+    }
+
+    private static void check(int max, String description, List<String> statements) {
+        if (statements.size() <= max) {
+            return;
+        }
+        StringBuilder message = new StringBuilder(description).append(" ran ").append(statements.size())
+                .append(" SQL statements, at most ").append(max).append(" expected:");
+        for (int i = 0; i < statements.size(); i++) {
+            message.append(System.lineSeparator()).append(i + 1).append(". ").append(statements.get(i));
+        }
+        fail(message.toString());
+    }
+
+    private static MaxQueries budgetOf(ExtensionContext context) {
+        return context.getTestMethod()
+                .map(method -> AnnotatedElementUtils.findMergedAnnotation(method, MaxQueries.class)).orElse(null);
+    }
+}
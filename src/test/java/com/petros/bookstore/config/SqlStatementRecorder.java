@@ -0,0 +1,104 @@
+package com.petros.bookstore.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps the data source so that the SQL of every statement sent while a
+ * recording is open is recorded, whether it comes from Hibernate,
+ * {@code JdbcTemplate} or plain JDBC. A statement is recorded when it is
+ * prepared, or when a plain statement is executed, so a JDBC batch counts
+ * once.
+ * <p>
+ * The recording is static and collects the statements of every thread,
+ * including those of the embedded server handling the request under test.
+ * Enabled by {@link QueryBudgetExtension#RECORDER_PROPERTY}.
+ */
+@Component // loaded only in tests
+@Profile("test")
+@ConditionalOnProperty("bookstore.test.record-sql")
+public class SqlStatementRecorder implements BeanPostProcessor {
+
+    private static volatile List<String> recording;
+
+    /**
+     * Opens a new recording, dropping any open one.
+     */
+    static void start() {
+        recording = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Closes the recording.
+     *
+     * @return the statements recorded since {@link #start()}, in order
+     */
+    static List<String> stop() {
+        List<String> recorded = recording;
+        recording = null;
+        return recorded == null ? List.of() : List.copyOf(recorded);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource)) {
+            return bean;
+        }
+        return proxy(DataSource.class, dataSource, (method, args, result) -> method.getName().equals("getConnection")
+                ? proxy(Connection.class, (Connection) result, SqlStatementRecorder::onConnection)
+                : result);
+    }
+
+    private static Object onConnection(Method method, Object[] args, Object result) {
+        String name = method.getName();
+        if (name.equals("prepareStatement") || name.equals("prepareCall")) {
+            record((String) args[0]);
+        } else if (name.equals("createStatement")) {
+            return proxy(Statement.class, (Statement) result, (statementMethod, statementArgs, statementResult) -> {
+                if (statementMethod.getName().startsWith("execute") && statementArgs != null
+                        && statementArgs.length > 0 && statementArgs[0] instanceof String sql) {
+                    record(sql);
+                }
+                return statementResult;
+            });
+        }
+        return result;
+    }
+
+    private static void record(String sql) {
+        List<String> recorded = recording;
+        if (recorded != null) {
+            recorded.add(sql);
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, T target, ResultHandler handler) {
+        return type.cast(Proxy.newProxyInstance(SqlStatementRecorder.class.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    return handler.handle(method, args, result);
+                }));
+    }
+
+    /** Returns what a proxied call returns, given what the target returned. */
+    @FunctionalInterface
+    private interface ResultHandler {
+
+        Object handle(Method method, Object[] args, Object result);
+    }
+}
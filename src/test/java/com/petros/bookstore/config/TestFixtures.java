@@ -0,0 +1,109 @@
+package com.petros.bookstore.config;
+
+import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.enums.Role;
+import com.petros.bookstore.model.Book;
+import com.petros.bookstore.model.CartItem;
+import com.petros.bookstore.model.ShoppingCart;
+import com.petros.bookstore.model.User;
+import com.petros.bookstore.repository.BookRepository;
+import com.petros.bookstore.repository.CartItemRepository;
+import com.petros.bookstore.repository.ShoppingCartRepository;
+import com.petros.bookstore.repository.UserRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Saves the users, books and carts integration tests start from. Requests
+ * are authenticated as a user through {@link #headersFor}, which the
+ * {@link TestDummyJwtFilter} reads.
+ */
+@Component // loaded only in tests
+@Profile("test")
+public class TestFixtures {
+
+    private final UserRepository userRepository;
+    private final BookRepository bookRepository;
+    private final ShoppingCartRepository shoppingCartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    public TestFixtures(UserRepository userRepository, BookRepository bookRepository,
+            ShoppingCartRepository shoppingCartRepository, CartItemRepository cartItemRepository,
+            PasswordEncoder passwordEncoder) {
+        this.userRepository = userRepository;
+        this.bookRepository = bookRepository;
+        this.shoppingCartRepository = shoppingCartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    /**
+     * Saves a user named Petros Papadopoulos who cannot log in, as the stored
+     * password is no password hash.
+     */
+    public User saveUser(String username, Role role) {
+        return userRepository.save(newUser(username, role, "x"));
+    }
+
+    /**
+     * Saves a user named Petros Papadopoulos who logs in with the given
+     * password.
+     */
+    public User saveUser(String username, Role role, String password) {
+        return userRepository.save(newUser(username, role, passwordEncoder.encode(password)));
+    }
+
+    /**
+     * Saves a book by Captain Stub with 10 copies available.
+     */
+    public Book saveBook(String title, double price, Genre genre) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Captain Stub");
+        book.setDescription("desc");
+        book.setPrice(price);
+        book.setAvailability(10);
+        book.setGenre(genre);
+        return bookRepository.save(book);
+    }
+
+    public ShoppingCart saveCart(User user) {
+        ShoppingCart cart = new ShoppingCart();
+        cart.setUser(user);
+        return shoppingCartRepository.save(cart);
+    }
+
+    /**
+     * Saves a cart item directly, without reserving its stock as adding it
+     * through the API does.
+     */
+    public CartItem saveCartItem(ShoppingCart cart, Book book, int quantity) {
+        CartItem item = new CartItem();
+        item.setBook(book);
+        item.setShoppingCart(cart);
+        item.setQuantity(quantity);
+        return cartItemRepository.save(item);
+    }
+
+    private static User newUser(String username, Role role, String storedPassword) {
+        User user = new User();
+        user.setFirstName("Petros");
+        user.setLastName("Papadopoulos");
+        user.setUsername(username);
+        user.setPassword(storedPassword);
+        user.setRole(role);
+        return user;
+    }
+
+    /**
+     * Returns headers authenticating a request as the given user.
+     */
+    public static HttpHeaders headersFor(Long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-USER-ID", userId.toString());
+        return headers;
+    }
+}
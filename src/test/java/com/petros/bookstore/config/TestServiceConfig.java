@@ -44,4 +44,14 @@ public class TestServiceConfig {
     public OrderService orderService() {
         return Mockito.mock(OrderService.class);
     }
-}
\ No newline at end of file
+
+    @Bean
+    public SalesAnalyticsService salesAnalyticsService() {
+        return Mockito.mock(SalesAnalyticsService.class);
+    }
+
+    @Bean
+    public ExportService exportService() {
+        return Mockito.mock(ExportService.class);
+    }
+}
@@ -1,12 +1,18 @@
 package com.petros.bookstore.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petros.bookstore.cache.BookCache;
+import com.petros.bookstore.cache.BookSuggestions;
 import com.petros.bookstore.config.TestSecurityConfig;
+import com.petros.bookstore.dto.bookdto.BookCacheStatsDto;
 import com.petros.bookstore.dto.bookdto.BookRequestDto;
 import com.petros.bookstore.dto.bookdto.BookResponseDto;
 import com.petros.bookstore.dto.bookdto.BookUpdateRequestDto;
+import com.petros.bookstore.dto.bookdto.LoadStatsDto;
 import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.repository.BookFacetRepository;
 import com.petros.bookstore.repository.BookRepository;
+import com.petros.bookstore.repository.RowEstimateRepository;
 import com.petros.bookstore.service.BookService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -46,6 +52,26 @@ public class BookAdminControllerTest {
             return Mockito.mock(BookRepository.class);
         }
 
+        @Bean
+        public RowEstimateRepository rowEstimateRepository() {
+            return Mockito.mock(RowEstimateRepository.class);
+        }
+
+        @Bean
+        public BookFacetRepository bookFacetRepository() {
+            return Mockito.mock(BookFacetRepository.class);
+        }
+
+        @Bean
+        public BookSuggestions bookSuggestions() {
+            return Mockito.mock(BookSuggestions.class);
+        }
+
+        @Bean
+        public BookCache bookCache() {
+            return Mockito.mock(BookCache.class);
+        }
+
         @Bean
         public BookService bookService() {
             return Mockito.mock(BookService.class);
@@ -105,4 +131,15 @@ public class BookAdminControllerTest {
 
         mockMvc.perform(delete("/books/99")).andExpect(status().isNoContent());
     }
+
+    @Test
+    @DisplayName("GET /books/cache/stats - counters")
+    void testGetCacheStats() throws Exception {
+        when(bookService.getCacheStats()).thenReturn(new BookCacheStatsDto(7, 3, 1, 2, 4, 1000,
+                new LoadStatsDto(3, 5, 0), new LoadStatsDto(0, 0, 0)));
+
+        mockMvc.perform(get("/books/cache/stats")).andExpect(status().isOk()).andExpect(jsonPath("$.hits").value(7))
+                .andExpect(jsonPath("$.misses").value(3)).andExpect(jsonPath("$.evictions").value(1))
+                .andExpect(jsonPath("$.bookLoads.collapsed").value(5));
+    }
 }
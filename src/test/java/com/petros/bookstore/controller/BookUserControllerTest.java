@@ -1,19 +1,33 @@
 package com.petros.bookstore.controller;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petros.bookstore.cache.BookCache;
+import com.petros.bookstore.cache.BookSuggestions;
 import com.petros.bookstore.config.TestSecurityConfig;
+import com.petros.bookstore.dto.bookdto.BookFacetsDto;
 import com.petros.bookstore.dto.bookdto.BookResponseDto;
+import com.petros.bookstore.dto.bookdto.BookSuggestionDto;
+import com.petros.bookstore.dto.bookdto.BookSummaryDto;
+import com.petros.bookstore.dto.bookdto.PriceBucketDto;
+import com.petros.bookstore.dto.paginationdto.CursorPageResponseDto;
+import com.petros.bookstore.dto.paginationdto.PaginatedResponseDto;
+import com.petros.bookstore.enums.CountMode;
 import com.petros.bookstore.exception.customException.ResourceNotFoundException;
 import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.enums.SuggestionType;
+import com.petros.bookstore.repository.BookFacetRepository;
 import com.petros.bookstore.repository.BookRepository;
+import com.petros.bookstore.repository.RowEstimateRepository;
 import com.petros.bookstore.service.BookService;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -25,6 +39,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -48,6 +63,26 @@ class BookUserControllerTest {
             return Mockito.mock(BookRepository.class);
         }
 
+        @Bean
+        public RowEstimateRepository rowEstimateRepository() {
+            return Mockito.mock(RowEstimateRepository.class);
+        }
+
+        @Bean
+        public BookFacetRepository bookFacetRepository() {
+            return Mockito.mock(BookFacetRepository.class);
+        }
+
+        @Bean
+        public BookSuggestions bookSuggestions() {
+            return Mockito.mock(BookSuggestions.class);
+        }
+
+        @Bean
+        public BookCache bookCache() {
+            return Mockito.mock(BookCache.class);
+        }
+
         @Bean
         public BookService bookService() {
             return Mockito.mock(BookService.class);
@@ -67,11 +102,11 @@ class BookUserControllerTest {
     @Test
     @DisplayName("GET /books - search by title and genre - books found")
     void testSearchBooksFound() throws Exception {
-        BookResponseDto book1 = new BookResponseDto(1L, "Title 1", "Author 1", "Description", 12.99, 10,
+        BookSummaryDto book1 = new BookSummaryDto(1L, "Title 1", "Author 1", 12.99, 10,
                 Genre.SCIENCE_FICTION);
-        BookResponseDto book2 = new BookResponseDto(2L, "Title 2", "Author 2", "Description", 15.99, 5, Genre.FANTASY);
-        List<BookResponseDto> books = Arrays.asList(book1, book2);
-        Page<BookResponseDto> page = new PageImpl<>(books, PageRequest.of(0, 10), books.size());
+        BookSummaryDto book2 = new BookSummaryDto(2L, "Title 2", "Author 2", 15.99, 5, Genre.FANTASY);
+        List<BookSummaryDto> books = Arrays.asList(book1, book2);
+        Page<BookSummaryDto> page = new PageImpl<>(books, PageRequest.of(0, 10), books.size());
 
         when(bookService.searchBooks(any(), any(), any(), any(), any(), any(), any())).thenReturn(page);
 
@@ -83,7 +118,7 @@ class BookUserControllerTest {
     @Test
     @DisplayName("GET /books - search by title and genre - no books found")
     void testSearchBooksNotFound() throws Exception {
-        Page<BookResponseDto> page = new PageImpl<>(List.of(), PageRequest.of(0, 10), 0);
+        Page<BookSummaryDto> page = new PageImpl<>(List.of(), PageRequest.of(0, 10), 0);
         when(bookService.searchBooks(any(), any(), any(), any(), any(), any(), any())).thenReturn(page);
 
         mockMvc.perform(get("/books").param("title", "Nonexistent").param("genre", "SCIENCE_FICTION")
@@ -91,6 +126,114 @@ class BookUserControllerTest {
                 .andExpect(jsonPath("$.content").isEmpty());
     }
 
+    @Test
+    @DisplayName("GET /books?count=none - slice without total")
+    void testSearchBooksWithoutCount() throws Exception {
+        BookSummaryDto book = new BookSummaryDto(1L, "Title", "Author", 10.99, 5, Genre.FANTASY);
+        PaginatedResponseDto<BookSummaryDto> page = PaginatedResponseDto
+                .withoutTotal(new SliceImpl<>(List.of(book), PageRequest.of(0, 1), true));
+
+        when(bookService.searchBooks(any(), any(), any(), any(), any(), any(), any(), eq(CountMode.NONE)))
+                .thenReturn(page);
+
+        mockMvc.perform(get("/books").param("count", "none").param("size", "1")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1L)).andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalType").value("none"))
+                .andExpect(jsonPath("$.totalElements").isEmpty());
+    }
+
+    @Test
+    @DisplayName("GET /books?count= - unknown mode - bad request")
+    void testSearchBooksUnknownCountMode() throws Exception {
+        mockMvc.perform(get("/books").param("count", "sometimes")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /books/facets - genre and price-bucket counts")
+    void testGetFacets() throws Exception {
+        BookFacetsDto facets = new BookFacetsDto(Map.of(Genre.FANTASY, 2L, Genre.HORROR, 0L), //
+                List.of(new PriceBucketDto(null, 10.0, 1), new PriceBucketDto(10.0, null, 1)));
+
+        when(bookService.getFacets(any(), any(), any(), eq(Genre.FANTASY), any(), any())).thenReturn(facets);
+
+        mockMvc.perform(get("/books/facets").param("genre", "FANTASY")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.genres.FANTASY").value(2)).andExpect(jsonPath("$.genres.HORROR").value(0))
+                .andExpect(jsonPath("$.prices[0].to").value(10.0)).andExpect(jsonPath("$.prices[1].count").value(1));
+    }
+
+    @Test
+    @DisplayName("GET /books/facets - only minPrice - bad request")
+    void testGetFacetsWithHalfPriceRange() throws Exception {
+        mockMvc.perform(get("/books/facets").param("minPrice", "5")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /books/suggest - titles and authors")
+    void testSuggest() throws Exception {
+        when(bookService.suggest("tol", 5)).thenReturn(List.of(//
+                new BookSuggestionDto("J.R.R. Tolkien", SuggestionType.AUTHOR, null), //
+                new BookSuggestionDto("Tolstoy Stories", SuggestionType.TITLE, 3L)));
+
+        mockMvc.perform(get("/books/suggest").param("q", "tol")).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type").value("AUTHOR")).andExpect(jsonPath("$[1].bookId").value(3L));
+    }
+
+    @Test
+    @DisplayName("GET /books/suggest - limit above maximum - bad request")
+    void testSuggestLimitTooLarge() throws Exception {
+        mockMvc.perform(get("/books/suggest").param("q", "tol").param("limit", "50"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /books?q= - full-text search - books found")
+    void testFullTextSearchBooksFound() throws Exception {
+        BookSummaryDto book = new BookSummaryDto(1L, "Dune", "Frank Herbert", 12.99, 10,
+                Genre.SCIENCE_FICTION);
+        Page<BookSummaryDto> page = new PageImpl<>(List.of(book), PageRequest.of(0, 10), 1);
+
+        when(bookService.fullTextSearch(any(), any())).thenReturn(page);
+
+        mockMvc.perform(get("/books").param("q", "desert planet")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Dune"));
+    }
+
+    @Test
+    @DisplayName("GET /books?q= - blank query - bad request")
+    void testFullTextSearchBlankQuery() throws Exception {
+        mockMvc.perform(get("/books").param("q", " ")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /books?after= - keyset page")
+    void testGetBooksAfter() throws Exception {
+        BookSummaryDto book = new BookSummaryDto(1L, "Title", "Author", 10.99, 5, Genre.FANTASY);
+
+        when(bookService.findAllAfter(null, null, null, null, null, null, "", 20))
+                .thenReturn(new CursorPageResponseDto<>(List.of(book), 20, null));
+
+        mockMvc.perform(get("/books").param("after", "")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1L)).andExpect(jsonPath("$.size").value(20));
+    }
+
+    @Test
+    @DisplayName("GET /books?after=&genre=&minPrice=&maxPrice= - keyset page keeps the filters")
+    void testGetBooksAfterWithFilters() throws Exception {
+        BookSummaryDto book = new BookSummaryDto(1L, "Title", "Author", 10.99, 5, Genre.FANTASY);
+
+        when(bookService.findAllAfter(null, null, null, Genre.FANTASY, 10.0, 50.0, "", 20))
+                .thenReturn(new CursorPageResponseDto<>(List.of(book), 20, null));
+
+        mockMvc.perform(get("/books").param("after", "").param("genre", "FANTASY").param("minPrice", "10")
+                .param("maxPrice", "50")).andExpect(status().isOk()).andExpect(jsonPath("$.content[0].id").value(1L));
+    }
+
+    @Test
+    @DisplayName("GET /books?after=&minPrice= - only minPrice - bad request")
+    void testGetBooksAfterWithHalfPriceRange() throws Exception {
+        mockMvc.perform(get("/books").param("after", "").param("minPrice", "10")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("GET /books/{id} - found")
     void testGetBookById() throws Exception {
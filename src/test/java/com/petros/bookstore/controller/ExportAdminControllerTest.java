@@ -0,0 +1,81 @@
+package com.petros.bookstore.controller;
+
+import com.petros.bookstore.config.TestDummyJwtFilter;
+import com.petros.bookstore.config.TestSecurityConfig;
+import com.petros.bookstore.config.TestServiceConfig;
+import com.petros.bookstore.enums.ExportFormat;
+import com.petros.bookstore.service.ExportService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ExportAdminController.class)
+@Import({TestServiceConfig.class, TestSecurityConfig.class, TestDummyJwtFilter.class})
+@ActiveProfiles("test")
+class ExportAdminControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ExportService exportService;
+
+    StreamingResponseBody body(String content) {
+        return out -> out.write(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportBooks_defaultsToNdjson() throws Exception {
+        Mockito.doReturn(body("{\"id\":1}\n")).when(exportService).exportBooks(ExportFormat.NDJSON, false);
+
+        MvcResult result = mockMvc.perform(get("/books/export")).andExpect(request().asyncStarted()).andReturn();
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", containsString("books.ndjson")))
+                .andExpect(content().string("{\"id\":1}\n"));
+    }
+
+    @Test
+    void exportOrders_csv() throws Exception {
+        Mockito.doReturn(body("orderId\n1\n")).when(exportService).exportOrderLines(ExportFormat.CSV, false);
+
+        MvcResult result = mockMvc.perform(get("/orders/export").param("format", "CSV"))
+                .andExpect(request().asyncStarted()).andReturn();
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", containsString("text/csv")))
+                .andExpect(header().string("Content-Disposition", containsString("orders.csv")))
+                .andExpect(content().string("orderId\n1\n"));
+    }
+
+    @Test
+    void exportUsers_gzip() throws Exception {
+        Mockito.doReturn(body("")).when(exportService).exportUsers(ExportFormat.NDJSON, true);
+
+        MvcResult result = mockMvc.perform(get("/users/export").param("gzip", "true"))
+                .andExpect(request().asyncStarted()).andReturn();
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/gzip"))
+                .andExpect(header().string("Content-Disposition", containsString("users.ndjson.gz")));
+    }
+
+    @Test
+    void export_rejectsUnknownFormat() throws Exception {
+        mockMvc.perform(get("/books/export").param("format", "xml")).andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("format must be one of ndjson, csv")));
+    }
+}
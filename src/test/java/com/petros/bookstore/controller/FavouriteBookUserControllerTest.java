@@ -6,6 +6,8 @@ import com.petros.bookstore.config.TestSecurityConfig;
 import com.petros.bookstore.config.TestServiceConfig;
 import com.petros.bookstore.dto.favouritebookdto.FavouriteBookRequestDto;
 import com.petros.bookstore.dto.favouritebookdto.FavouriteBookResponseDto;
+import com.petros.bookstore.dto.paginationdto.PaginatedResponseDto;
+import com.petros.bookstore.enums.CountMode;
 import com.petros.bookstore.exception.customException.ResourceAlreadyExistsException;
 import com.petros.bookstore.service.FavouriteBookService;
 import com.petros.bookstore.utils.AuthUtils;
@@ -18,6 +20,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -83,6 +86,19 @@ class FavouriteBookUserControllerTest {
                 .andExpect(jsonPath("$.content[0].bookId").value(response.bookId()));
     }
 
+    @Test
+    void testGetMyFavouriteBooksWithoutCount() throws Exception {
+        FavouriteBookResponseDto response = new FavouriteBookResponseDto(1L, 42L, Instant.now());
+
+        Mockito.when(favouriteService.getFavourites(eq(123L), any(Pageable.class), eq(CountMode.NONE)))
+                .thenReturn(PaginatedResponseDto
+                        .withoutTotal(new SliceImpl<>(List.of(response), PageRequest.of(0, 10), false)));
+
+        mockMvc.perform(get(BASE_URL).header(HEADER, "123").param("count", "NONE")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].bookId").value(response.bookId()))
+                .andExpect(jsonPath("$.hasNext").value(false)).andExpect(jsonPath("$.totalType").value("none"));
+    }
+
     @Test
     void testDeleteFavouriteBook() throws Exception {
         mockMvc.perform(delete(BASE_URL + "/42").header(HEADER, "123")).andExpect(status().isNoContent());
@@ -4,11 +4,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.petros.bookstore.config.TestDummyJwtFilter;
 import com.petros.bookstore.config.TestSecurityConfig;
 import com.petros.bookstore.config.TestServiceConfig;
+import com.petros.bookstore.dto.orderdto.OrderBulkStatusUpdateRequestDto;
+import com.petros.bookstore.dto.orderdto.OrderBulkStatusUpdateResponseDto;
 import com.petros.bookstore.dto.orderdto.OrderItemResponseDto;
+import com.petros.bookstore.dto.orderdto.OrderQueueStatsDto;
 import com.petros.bookstore.dto.orderdto.OrderResponseDto;
+import com.petros.bookstore.dto.orderdto.OrderStatusOutcomeDto;
 import com.petros.bookstore.dto.orderdto.OrderStatusUpdateRequestDto;
+import com.petros.bookstore.dto.paginationdto.CursorPageResponseDto;
 import com.petros.bookstore.exception.customException.ResourceNotFoundException;
 import com.petros.bookstore.enums.Status;
+import com.petros.bookstore.enums.TransitionOutcome;
 import com.petros.bookstore.service.OrderService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -60,6 +66,50 @@ class OrderAdminControllerTest {
                 .andExpect(jsonPath("$.content[0].status").value(order.status().toString()));
     }
 
+    @Test
+    void getAllOrdersAfter_returnsKeysetPage() throws Exception {
+        OrderResponseDto order = new OrderResponseDto(1L, 10L, Status.PENDING, 55.0, Timestamp.from(Instant.now()),
+                List.of(item1, item2));
+
+        Mockito.when(orderService.getAllOrdersAfter("", 1))
+                .thenReturn(new CursorPageResponseDto<>(List.of(order), 1, "next-token"));
+
+        mockMvc.perform(get("/orders").param("after", "").param("size", "1")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(order.id()))
+                .andExpect(jsonPath("$.next").value("next-token"))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void searchOrders_passesFiltersThrough() throws Exception {
+        OrderResponseDto order = new OrderResponseDto(1L, 10L, Status.PENDING, 55.0, Timestamp.from(Instant.now()),
+                List.of(item1));
+        Instant from = Instant.parse("2025-01-01T00:00:00Z");
+
+        Mockito.doReturn(new CursorPageResponseDto<>(List.of(order), 20, null)).when(orderService)
+                .searchOrders(Status.PENDING, false, 10L, from, null, null, 20);
+
+        mockMvc.perform(get("/orders/search").param("status", "PENDING").param("userId", "10")
+                .param("from", "2025-01-01T00:00:00Z")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(order.id()))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void searchOrders_rejectsUnknownStatus() throws Exception {
+        mockMvc.perform(get("/orders/search").param("status", "LOST")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getQueueStats_success() throws Exception {
+        Mockito.when(orderService.getQueueStats())
+                .thenReturn(new OrderQueueStatsDto(3, 2, 1, Instant.now(), 100, 4, 1, 40, 2));
+
+        mockMvc.perform(get("/orders/queue/stats")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.queued").value(3)).andExpect(jsonPath("$.parked").value(1))
+                .andExpect(jsonPath("$.workers").value(4));
+    }
+
     @Test
     void getOrderById_success() throws Exception {
         OrderResponseDto order = new OrderResponseDto(1L, 10L, Status.PENDING, 55.0, Timestamp.from(Instant.now()),
@@ -93,6 +143,27 @@ class OrderAdminControllerTest {
                 .andExpect(jsonPath("$.id").value(order.id())).andExpect(jsonPath("$.status").value("DELIVERED"));
     }
 
+    @Test
+    void updateStatuses_success() throws Exception {
+        OrderBulkStatusUpdateRequestDto request = new OrderBulkStatusUpdateRequestDto(List.of(1L, 2L),
+                Status.PROCESSING, Status.SHIPPED, null, null);
+        Mockito.doReturn(new OrderBulkStatusUpdateResponseDto(1, false,
+                List.of(new OrderStatusOutcomeDto(1L, TransitionOutcome.UPDATED, Status.SHIPPED),
+                        new OrderStatusOutcomeDto(2L, TransitionOutcome.SKIPPED, Status.DELIVERED))))
+                .when(orderService).updateOrderStatuses(request);
+
+        mockMvc.perform(post("/orders/status-transitions").contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(request))).andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.outcomes[1].outcome").value("SKIPPED"));
+    }
+
+    @Test
+    void updateStatuses_rejectsMissingTargetStatus() throws Exception {
+        mockMvc.perform(post("/orders/status-transitions").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\": [1], \"from\": \"PROCESSING\"}")).andExpect(status().isBadRequest());
+    }
+
     @Test
     void getUserOrders_success() throws Exception {
         OrderResponseDto order = new OrderResponseDto(1L, 10L, Status.PENDING, 55.0, Timestamp.from(Instant.now()),
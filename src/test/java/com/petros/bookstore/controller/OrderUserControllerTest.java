@@ -5,7 +5,9 @@ import com.petros.bookstore.config.TestDummyJwtFilter;
 import com.petros.bookstore.config.TestSecurityConfig;
 import com.petros.bookstore.config.TestServiceConfig;
 import com.petros.bookstore.dto.orderdto.OrderResponseDto;
+import com.petros.bookstore.dto.paginationdto.CursorPageResponseDto;
 import com.petros.bookstore.exception.customException.ResourceNotFoundException;
+import com.petros.bookstore.exception.customException.ServiceUnavailableException;
 import com.petros.bookstore.enums.Status;
 import com.petros.bookstore.service.OrderService;
 import com.petros.bookstore.utils.AuthUtils;
@@ -23,6 +25,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 
@@ -61,15 +64,55 @@ class OrderUserControllerTest {
     void placeOrder_success() throws Exception {
         OrderResponseDto orderResponse = sampleOrderResponseDto();
 
-        Mockito.when(orderService.placeOrder(eq(USER_ID), any(Pageable.class))).thenReturn(orderResponse);
+        Mockito.doReturn(orderResponse).when(orderService).placeOrder(USER_ID, null, false);
 
-        mockMvc.perform(post(BASE_URL).header(HEADER, USER_ID.toString()).param("page", "0").param("size", "10")
+        mockMvc.perform(post(BASE_URL).header(HEADER, USER_ID.toString())
                 .contentType(MediaType.APPLICATION_JSON)).andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(orderResponse.id()))
                 .andExpect(jsonPath("$.userId").value(orderResponse.userId()))
                 .andExpect(jsonPath("$.status").value(orderResponse.status().toString()));
     }
 
+    @Test
+    void placeOrder_withIdempotencyKey_usesKeyedCheckout() throws Exception {
+        OrderResponseDto orderResponse = sampleOrderResponseDto();
+
+        Mockito.doReturn(orderResponse).when(orderService).placeOrder(USER_ID, "checkout-1", false);
+
+        mockMvc.perform(post(BASE_URL).header(HEADER, USER_ID.toString()).header("Idempotency-Key", "checkout-1")
+                .contentType(MediaType.APPLICATION_JSON)).andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(orderResponse.id()));
+    }
+
+    @Test
+    void placeOrder_respondAsync_returns202WithLocation() throws Exception {
+        OrderResponseDto orderResponse = sampleOrderResponseDto();
+
+        Mockito.doReturn(orderResponse).when(orderService).placeOrder(USER_ID, null, true);
+
+        mockMvc.perform(post(BASE_URL).header(HEADER, USER_ID.toString()).header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)).andExpect(status().isAccepted())
+                .andExpect(header().string("Location", containsString(BASE_URL + "/" + orderResponse.id())))
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.status").value(Status.PENDING.toString()));
+    }
+
+    @Test
+    void placeOrder_queueFull_returns503WithRetryAfter() throws Exception {
+        Mockito.doThrow(new ServiceUnavailableException("Too many orders waiting to be processed", //
+                Duration.ofSeconds(10))).when(orderService).placeOrder(USER_ID, "full", true);
+
+        mockMvc.perform(post(BASE_URL).header(HEADER, USER_ID.toString()).header("Prefer", "respond-async")
+                .header("Idempotency-Key", "full").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isServiceUnavailable()).andExpect(header().string("Retry-After", "10"));
+    }
+
+    @Test
+    void placeOrder_idempotencyKeyTooLong_returns400() throws Exception {
+        mockMvc.perform(post(BASE_URL).header(HEADER, USER_ID.toString()).header("Idempotency-Key", "k".repeat(256))
+                .contentType(MediaType.APPLICATION_JSON)).andExpect(status().isBadRequest());
+    }
+
     @Test
     void myOrders_success() throws Exception {
         OrderResponseDto orderResponse = sampleOrderResponseDto();
@@ -82,6 +125,24 @@ class OrderUserControllerTest {
                 .andExpect(jsonPath("$.content.length()").value(1));
     }
 
+    @Test
+    void myOrdersAfter_success() throws Exception {
+        OrderResponseDto orderResponse = sampleOrderResponseDto();
+
+        Mockito.when(orderService.getOrdersForUserAfter(USER_ID, "cursor", 10))
+                .thenReturn(new CursorPageResponseDto<>(List.of(orderResponse), 10, null));
+
+        mockMvc.perform(get(BASE_URL).header(HEADER, USER_ID.toString()).param("after", "cursor").param("size", "10"))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.content[0].id").value(orderResponse.id()))
+                .andExpect(jsonPath("$.next").isEmpty());
+    }
+
+    @Test
+    void myOrdersAfter_sizeTooLarge_returns400() throws Exception {
+        mockMvc.perform(get(BASE_URL).header(HEADER, USER_ID.toString()).param("after", "").param("size", "1000"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void myOrder_success() throws Exception {
         OrderResponseDto orderResponse = sampleOrderResponseDto();
@@ -104,10 +165,10 @@ class OrderUserControllerTest {
 
     @Test
     void placeOrder_badRequest_returns400() throws Exception {
-        Mockito.when(orderService.placeOrder(eq(USER_ID), any(Pageable.class)))
-                .thenThrow(new IllegalArgumentException("Invalid order request"));
+        Mockito.doThrow(new IllegalArgumentException("Invalid order request")).when(orderService)
+                .placeOrder(USER_ID, null, false);
 
-        mockMvc.perform(post(BASE_URL).header(HEADER, USER_ID.toString()).param("page", "0").param("size", "10")
+        mockMvc.perform(post(BASE_URL).header(HEADER, USER_ID.toString())
                 .contentType(MediaType.APPLICATION_JSON)).andExpect(status().isBadRequest());
     }
 
@@ -0,0 +1,91 @@
+package com.petros.bookstore.controller;
+
+import com.petros.bookstore.config.TestDummyJwtFilter;
+import com.petros.bookstore.config.TestSecurityConfig;
+import com.petros.bookstore.config.TestServiceConfig;
+import com.petros.bookstore.dto.analyticsdto.BookSalesDto;
+import com.petros.bookstore.dto.analyticsdto.DailySalesDto;
+import com.petros.bookstore.dto.analyticsdto.GenreSalesDto;
+import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.service.SalesAnalyticsService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(SalesAnalyticsAdminController.class)
+@Import({TestServiceConfig.class, TestSecurityConfig.class, TestDummyJwtFilter.class})
+@ActiveProfiles("test")
+class SalesAnalyticsAdminControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    SalesAnalyticsService analyticsService;
+
+    LocalDate from = LocalDate.of(2025, 3, 1);
+    LocalDate to = LocalDate.of(2025, 3, 31);
+
+    @Test
+    void dailySales_success() throws Exception {
+        Mockito.doReturn(List.of(new DailySalesDto(from, 3, 5, 62.5, 1, 20.0))).when(analyticsService)
+                .getDailySales(from, to);
+
+        mockMvc.perform(get("/analytics/sales/daily").param("from", "2025-03-01").param("to", "2025-03-31"))
+                .andExpect(status().isOk()).andExpect(jsonPath("$[0].day").value("2025-03-01"))
+                .andExpect(jsonPath("$[0].orders").value(3)).andExpect(jsonPath("$[0].revenue").value(62.5))
+                .andExpect(jsonPath("$[0].deliveredOrders").value(1));
+    }
+
+    @Test
+    void dailySales_rejectsInvertedRange() throws Exception {
+        Mockito.doThrow(new IllegalArgumentException("from must not be after to")).when(analyticsService)
+                .getDailySales(to, from);
+
+        mockMvc.perform(get("/analytics/sales/daily").param("from", "2025-03-31").param("to", "2025-03-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("from must not be after to")));
+    }
+
+    @Test
+    void topBooks_passesLimitThrough() throws Exception {
+        Mockito.doReturn(List.of(new BookSalesDto(7L, "Book Title", "Author", 4, 60.0))).when(analyticsService)
+                .getTopBooks(from, to, 5);
+
+        mockMvc.perform(get("/analytics/sales/books").param("from", "2025-03-01").param("to", "2025-03-31")
+                .param("limit", "5")).andExpect(status().isOk()).andExpect(jsonPath("$[0].bookId").value(7))
+                .andExpect(jsonPath("$[0].units").value(4));
+    }
+
+    @Test
+    void topBooks_rejectsLimitAboveMax() throws Exception {
+        mockMvc.perform(get("/analytics/sales/books").param("from", "2025-03-01").param("to", "2025-03-31")
+                .param("limit", "500")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void genreSales_success() throws Exception {
+        Mockito.doReturn(List.of(new GenreSalesDto(Genre.TECH, 4, 60.0))).when(analyticsService)
+                .getGenreSales(from, to);
+
+        mockMvc.perform(get("/analytics/sales/genres").param("from", "2025-03-01").param("to", "2025-03-31"))
+                .andExpect(status().isOk()).andExpect(jsonPath("$[0].genre").value("TECH"))
+                .andExpect(jsonPath("$[0].revenue").value(60.0));
+    }
+
+    @Test
+    void rebuild_returnsNoContent() throws Exception {
+        mockMvc.perform(post("/analytics/sales/rebuild")).andExpect(status().isNoContent());
+    }
+}
@@ -8,6 +8,7 @@ import com.petros.bookstore.dto.cartitemdto.CartItemResponseDto;
 import com.petros.bookstore.exception.customException.ResourceNotFoundException;
 import com.petros.bookstore.model.Book;
 import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.mapper.BookMapper;
 import com.petros.bookstore.service.ShoppingCartService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -47,7 +48,7 @@ class ShoppingCartAdminControllerTest {
 
     @Test
     void getUserCartItems_success() throws Exception {
-        CartItemResponseDto item = new CartItemResponseDto(1L, book, 2);
+        CartItemResponseDto item = new CartItemResponseDto(1L, BookMapper.toResponse(book), 2);
 
         Mockito.when(shoppingCartService.getCartItems(eq(USER_ID), any()))
                 .thenReturn(new PageImpl<>(List.of(item), PageRequest.of(0, 10), 1));
@@ -69,7 +70,7 @@ class ShoppingCartAdminControllerTest {
 
     @Test
     void getUserCartItemById_success() throws Exception {
-        CartItemResponseDto item = new CartItemResponseDto(1L, book, 2);
+        CartItemResponseDto item = new CartItemResponseDto(1L, BookMapper.toResponse(book), 2);
 
         Mockito.when(shoppingCartService.findItemById(1L, USER_ID)).thenReturn(item);
 
@@ -10,6 +10,7 @@ import com.petros.bookstore.dto.cartitemdto.CartItemUpdateRequestDto;
 import com.petros.bookstore.exception.customException.ResourceNotFoundException;
 import com.petros.bookstore.model.Book;
 import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.mapper.BookMapper;
 import com.petros.bookstore.service.ShoppingCartService;
 import com.petros.bookstore.utils.AuthUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -62,7 +63,7 @@ class ShoppingCartUserControllerTest {
     @Test
     void addItemToCart_success() throws Exception {
         CartItemRequestDto req = new CartItemRequestDto(42L, 3);
-        CartItemResponseDto res = new CartItemResponseDto(1L, book, 3);
+        CartItemResponseDto res = new CartItemResponseDto(1L, BookMapper.toResponse(book), 3);
 
         Mockito.when(shoppingCartService.addToCart(eq(USER_ID), any(CartItemRequestDto.class))).thenReturn(res);
 
@@ -73,7 +74,7 @@ class ShoppingCartUserControllerTest {
 
     @Test
     void getMyCartItems_success() throws Exception {
-        CartItemResponseDto res = new CartItemResponseDto(1L, book, 2);
+        CartItemResponseDto res = new CartItemResponseDto(1L, BookMapper.toResponse(book), 2);
 
         Mockito.when(shoppingCartService.getCartItems(eq(USER_ID), any(Pageable.class)))
                 .thenReturn(new PageImpl<>(List.of(res), PageRequest.of(0, 10), 1));
@@ -85,7 +86,7 @@ class ShoppingCartUserControllerTest {
 
     @Test
     void getItemById_success() throws Exception {
-        CartItemResponseDto res = new CartItemResponseDto(1L, book, 2);
+        CartItemResponseDto res = new CartItemResponseDto(1L, BookMapper.toResponse(book), 2);
         Mockito.when(shoppingCartService.findItemById(1L, USER_ID)).thenReturn(res);
 
         mockMvc.perform(get(BASE_URL + "/1").header(HEADER, USER_ID.toString())).andExpect(status().isOk())
@@ -95,7 +96,7 @@ class ShoppingCartUserControllerTest {
     @Test
     void updateCartItem_success() throws Exception {
         CartItemUpdateRequestDto req = new CartItemUpdateRequestDto(5);
-        CartItemResponseDto res = new CartItemResponseDto(1L, book, 5);
+        CartItemResponseDto res = new CartItemResponseDto(1L, BookMapper.toResponse(book), 5);
 
         Mockito.when(shoppingCartService.updateCartItem(1L, req, USER_ID)).thenReturn(res);
 
@@ -3,7 +3,9 @@ package com.petros.bookstore.controller;
 import com.petros.bookstore.config.TestDummyJwtFilter;
 import com.petros.bookstore.config.TestSecurityConfig;
 import com.petros.bookstore.config.TestServiceConfig;
+import com.petros.bookstore.dto.paginationdto.PaginatedResponseDto;
 import com.petros.bookstore.dto.userdto.UserAdminUpdateRequestDto;
+import com.petros.bookstore.enums.CountMode;
 import com.petros.bookstore.dto.userdto.UserProfileResponseDto;
 import com.petros.bookstore.enums.Role;
 import com.petros.bookstore.service.UserService;
@@ -15,6 +17,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
@@ -68,6 +71,19 @@ class UserAdminControllerTest {
                 .andExpect(jsonPath("$.content[0].username").value("johndoe"));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void searchUsers_withEstimatedCount_shouldReportEstimate() throws Exception {
+        when(userService.searchUsers(any(), any(), any(), any(Pageable.class), eq(CountMode.ESTIMATE)))
+                .thenReturn(PaginatedResponseDto
+                        .estimated(new SliceImpl<>(List.of(userDto), PageRequest.of(0, 10), false), 1200));
+
+        mockMvc.perform(get("/users").param("count", "estimate")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value("johndoe"))
+                .andExpect(jsonPath("$.totalType").value("estimate"))
+                .andExpect(jsonPath("$.totalElements").value(1200));
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void getUser_shouldReturnUserDto() throws Exception {
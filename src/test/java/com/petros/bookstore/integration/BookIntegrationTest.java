@@ -1,13 +1,19 @@
 package com.petros.bookstore.integration;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.petros.bookstore.config.AbstractPostgresContainerTest;
 import com.petros.bookstore.dto.bookdto.BookRequestDto;
 import com.petros.bookstore.dto.bookdto.BookResponseDto;
+import com.petros.bookstore.dto.bookdto.BookSummaryDto;
 import com.petros.bookstore.dto.bookdto.BookUpdateRequestDto;
+import com.petros.bookstore.dto.paginationdto.CursorPageResponseDto;
 import com.petros.bookstore.dto.paginationdto.PaginatedResponseDto;
+import com.petros.bookstore.enums.CountMode;
 import com.petros.bookstore.enums.Genre;
 import com.petros.bookstore.repository.BookRepository;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -83,18 +89,82 @@ public class BookIntegrationTest extends AbstractPostgresContainerTest {
         Assertions.assertEquals(HttpStatus.OK, postResponse.getStatusCode());
 
         // Get all books
-        ResponseEntity<PaginatedResponseDto<BookResponseDto>> response = client.exchange("/books?page=0&size=10",
-                HttpMethod.GET, null, new ParameterizedTypeReference<PaginatedResponseDto<BookResponseDto>>() {
+        ResponseEntity<PaginatedResponseDto<BookSummaryDto>> response = client.exchange("/books?page=0&size=10",
+                HttpMethod.GET, null, new ParameterizedTypeReference<PaginatedResponseDto<BookSummaryDto>>() {
                 });
 
         Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
 
-        PaginatedResponseDto<BookResponseDto> page = response.getBody();
+        PaginatedResponseDto<BookSummaryDto> page = response.getBody();
         Assertions.assertNotNull(page);
         Assertions.assertNotNull(page.getContent());
         Assertions.assertEquals(1, page.getContent().size());
     }
 
+    @Test
+    void testListingsOmitDescription() throws Exception {
+        BookResponseDto created = client.postForEntity("/books", bookRequestDto, BookResponseDto.class).getBody();
+
+        JsonNode listing = objectMapper.readTree(client.getForObject("/books?page=0&size=10", String.class));
+        JsonNode keyset = objectMapper.readTree(client.getForObject("/books?after=", String.class));
+        JsonNode single = objectMapper.readTree(client.getForObject("/books/" + created.id(), String.class));
+
+        Assertions.assertFalse(listing.path("content").path(0).has("description"));
+        Assertions.assertFalse(keyset.path("content").path(0).has("description"));
+        Assertions.assertEquals(bookRequestDto.description(), single.path("description").asText());
+    }
+
+    @Test
+    void testFacetsCountGenresAndPriceBuckets() throws Exception {
+        client.postForEntity("/books", bookRequestDto, BookResponseDto.class);
+        client.postForEntity("/books",
+                new BookRequestDto("Cheap Tale", "Test Author", "desc", 5.00, 3, Genre.FANTASY), BookResponseDto.class);
+        client.postForEntity("/books",
+                new BookRequestDto("Rare Tale", "Test Author", "desc", 50.00, 1, Genre.FANTASY), BookResponseDto.class);
+
+        JsonNode all = objectMapper.readTree(client.getForObject("/books/facets", String.class));
+        Assertions.assertEquals(2, all.path("genres").path("FANTASY").asInt());
+        Assertions.assertEquals(1, all.path("genres").path("MYSTERY").asInt());
+        Assertions.assertEquals(0, all.path("genres").path("HORROR").asInt());
+        Assertions.assertEquals(4, all.path("prices").size());
+        Assertions.assertEquals(1, all.path("prices").path(0).path("count").asInt()); // below 10
+        Assertions.assertEquals(1, all.path("prices").path(1).path("count").asInt()); // 10 to 20
+        Assertions.assertEquals(0, all.path("prices").path(2).path("count").asInt()); // 20 to 50
+        Assertions.assertEquals(1, all.path("prices").path(3).path("count").asInt()); // 50 and above
+
+        JsonNode fantasy = objectMapper.readTree(client.getForObject("/books/facets?genre=FANTASY", String.class));
+        Assertions.assertEquals(0, fantasy.path("genres").path("MYSTERY").asInt());
+        Assertions.assertEquals(0, fantasy.path("prices").path(1).path("count").asInt());
+        Assertions.assertEquals(1, fantasy.path("prices").path(3).path("count").asInt());
+    }
+
+    @Test
+    void testSuggestFollowsCreateUpdateAndDelete() throws Exception {
+        BookResponseDto created = client.postForEntity("/books",
+                new BookRequestDto("Quixotic Voyages", "Zora Quillfeather", "desc", 12.00, 4, Genre.DRAMA),
+                BookResponseDto.class).getBody();
+
+        JsonNode byTitle = objectMapper.readTree(client.getForObject("/books/suggest?q=voya", String.class));
+        Assertions.assertEquals(created.id(), byTitle.path(0).path("bookId").asLong());
+        JsonNode byAuthor = objectMapper.readTree(client.getForObject("/books/suggest?q=quill", String.class));
+        Assertions.assertEquals("Zora Quillfeather", byAuthor.path(0).path("text").asText());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        BookUpdateRequestDto rename = new BookUpdateRequestDto("Quixotic Journeys", null, null, null, null, null);
+        client.exchange("/books/" + created.id(), HttpMethod.PUT,
+                new HttpEntity<>(objectMapper.writeValueAsString(rename), headers), BookResponseDto.class);
+
+        Assertions.assertEquals(0, objectMapper.readTree(client.getForObject("/books/suggest?q=voya", String.class))
+                .size());
+        Assertions.assertEquals(created.id(), objectMapper
+                .readTree(client.getForObject("/books/suggest?q=journ", String.class)).path(0).path("bookId").asLong());
+
+        client.delete("/books/" + created.id());
+        Assertions.assertEquals(0, objectMapper.readTree(client.getForObject("/books/suggest?q=quix", String.class))
+                .size());
+    }
+
     @Test
     void testUpdateBook() throws Exception {
         // Create book
@@ -160,18 +230,119 @@ public class BookIntegrationTest extends AbstractPostgresContainerTest {
         // Search params
         String url = "/books?title=Integration&author=Test&availability=5&genre=MYSTERY&minPrice=10.0&maxPrice=20.0&page=0&size=10";
 
-        ResponseEntity<PaginatedResponseDto<BookResponseDto>> response = client.exchange(url, HttpMethod.GET, null,
-                new ParameterizedTypeReference<PaginatedResponseDto<BookResponseDto>>() {
+        ResponseEntity<PaginatedResponseDto<BookSummaryDto>> response = client.exchange(url, HttpMethod.GET, null,
+                new ParameterizedTypeReference<PaginatedResponseDto<BookSummaryDto>>() {
                 });
 
         Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
 
-        PaginatedResponseDto<BookResponseDto> page = response.getBody();
+        PaginatedResponseDto<BookSummaryDto> page = response.getBody();
         Assertions.assertNotNull(page);
         Assertions.assertEquals(1, page.getContent().size());
         Assertions.assertEquals("Integration Book", page.getContent().get(0).title());
     }
 
+    @Test
+    void testSearchBooks_genreOnly() {
+        client.postForEntity("/books", bookRequestDto, BookResponseDto.class);
+
+        BookRequestDto fantasyBook = new BookRequestDto("Dragons", "Other Author", "Desc", 12.99, 15,
+                Genre.FANTASY);
+        client.postForEntity("/books", fantasyBook, BookResponseDto.class);
+
+        ResponseEntity<PaginatedResponseDto<BookSummaryDto>> response = client.exchange(
+                "/books?genre=FANTASY&page=0&size=10", HttpMethod.GET, null,
+                new ParameterizedTypeReference<PaginatedResponseDto<BookSummaryDto>>() {
+                });
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        PaginatedResponseDto<BookSummaryDto> page = response.getBody();
+        Assertions.assertNotNull(page);
+        Assertions.assertEquals(1, page.getTotalElements());
+        Assertions.assertEquals("Dragons", page.getContent().get(0).title());
+    }
+
+    @Test
+    void testSearchBooks_countModes() {
+        for (String title : List.of("Alpha", "Bravo", "Charlie")) {
+            client.postForEntity("/books", new BookRequestDto(title, "Test Author", "Desc", 9.99, 1, Genre.MYSTERY),
+                    BookResponseDto.class);
+        }
+        ParameterizedTypeReference<PaginatedResponseDto<BookSummaryDto>> type = //
+                new ParameterizedTypeReference<>() {
+                };
+
+        PaginatedResponseDto<BookSummaryDto> none = client
+                .exchange("/books?genre=MYSTERY&size=2&count=none", HttpMethod.GET, null, type).getBody();
+        Assertions.assertEquals(2, none.getContent().size());
+        Assertions.assertTrue(none.isHasNext());
+        Assertions.assertEquals(CountMode.NONE, none.getTotalType());
+        Assertions.assertNull(none.getTotalElements());
+
+        PaginatedResponseDto<BookSummaryDto> estimate = client
+                .exchange("/books?author=test&size=2&count=estimate", HttpMethod.GET, null, type).getBody();
+        Assertions.assertEquals(CountMode.ESTIMATE, estimate.getTotalType());
+        Assertions.assertTrue(estimate.getTotalElements() >= 3);
+
+        PaginatedResponseDto<BookSummaryDto> exact = client
+                .exchange("/books?genre=MYSTERY&size=2&count=exact", HttpMethod.GET, null, type).getBody();
+        Assertions.assertEquals(CountMode.EXACT, exact.getTotalType());
+        Assertions.assertEquals(3, exact.getTotalElements());
+        Assertions.assertEquals(2, exact.getTotalPages());
+    }
+
+    @Test
+    void testGetBooks_keysetPagesCoverEveryBookOnce() {
+        for (String title : List.of("Alpha", "Bravo", "Charlie", "Delta", "Echo")) {
+            client.postForEntity("/books", new BookRequestDto(title, "Test Author", "Desc", 9.99, 1, Genre.MYSTERY),
+                    BookResponseDto.class);
+        }
+
+        List<String> titles = new ArrayList<>();
+        String after = "";
+        do {
+            ResponseEntity<CursorPageResponseDto<BookSummaryDto>> response = client.exchange(
+                    "/books?size=2&after={after}", HttpMethod.GET, null,
+                    new ParameterizedTypeReference<CursorPageResponseDto<BookSummaryDto>>() {
+                    }, after);
+            Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+            response.getBody().content().forEach(book -> titles.add(book.title()));
+            after = response.getBody().next();
+        } while (after != null);
+
+        Assertions.assertEquals(List.of("Alpha", "Bravo", "Charlie", "Delta", "Echo"), titles);
+    }
+
+    @Test
+    void testGetBooks_keysetPagesKeepTheFilters() {
+        for (String title : List.of("Alpha", "Bravo", "Charlie", "Delta", "Echo")) {
+            Genre genre = title.equals("Bravo") || title.equals("Delta") ? Genre.HORROR : Genre.MYSTERY;
+            client.postForEntity("/books", new BookRequestDto(title, "Test Author", "Desc", 9.99, 1, genre),
+                    BookResponseDto.class);
+        }
+
+        List<String> titles = new ArrayList<>();
+        String after = "";
+        do {
+            ResponseEntity<CursorPageResponseDto<BookSummaryDto>> response = client.exchange(
+                    "/books?size=2&genre=MYSTERY&after={after}", HttpMethod.GET, null,
+                    new ParameterizedTypeReference<CursorPageResponseDto<BookSummaryDto>>() {
+                    }, after);
+            Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+            response.getBody().content().forEach(book -> titles.add(book.title()));
+            after = response.getBody().next();
+        } while (after != null);
+
+        Assertions.assertEquals(List.of("Alpha", "Charlie", "Echo"), titles);
+    }
+
+    @Test
+    void testGetBooks_invalidCursor() {
+        ResponseEntity<String> response = client.getForEntity("/books?after=not-a-cursor", String.class);
+
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
     @Test
     void testSearchBooks_InvalidPriceType() {
         // Search with invalid price type
@@ -0,0 +1,126 @@
+package com.petros.bookstore.integration;
+
+import static com.petros.bookstore.repository.BookSpecifications.titleContains;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.petros.bookstore.config.AbstractPostgresContainerTest;
+import com.petros.bookstore.repository.BookRepository;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Seeded-dataset benchmark comparing the title search as it ran before the
+ * search indexes existed (sequential scan), the same search backed by the
+ * trigram indexes and the ranked full-text search. Besides logging the
+ * timings, it asserts that the planner actually picks the search indexes.
+ * <p>
+ * Seeding truncates the books, and with them everything referencing a book,
+ * so the {@code benchmark} group is excluded from the regular build. Run it
+ * with {@code mvn test -Dsurefire.excludedGroups= -Dgroups=benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookSearchBenchmarkTest extends AbstractPostgresContainerTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BookSearchBenchmarkTest.class);
+
+    private static final int ROWS = 200_000;
+    private static final int RUNS = 20;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.execute("TRUNCATE books CASCADE");
+        // every 1000th title carries the rare word "zephyr"
+        jdbcTemplate.update("""
+                INSERT INTO books (title, author, description, price, availability, genre)
+                SELECT (ARRAY['Silent','Broken','Golden','Hidden','Last','Crimson','Frozen','Burning'])[1 + i % 8]
+                       || ' ' || (ARRAY['Empire','Shadow','River','Garden','Crown','Voyage','Harbor'])[1 + i % 7]
+                       || CASE WHEN i % 1000 = 0 THEN ' Zephyr' ELSE '' END
+                       || ' ' || i,
+                       (ARRAY['Anna Clarke','Marcus Reed','Lena Holt','Omar Vance','Iris Bloom'])[1 + i % 5],
+                       'A long description about ' || md5(i::text) || ' and the journey that follows.',
+                       (i % 9000) / 100.0 + 1,
+                       i % 50,
+                       (ARRAY['FANTASY','HORROR','MYSTERY','ROMANCE','TECH'])[1 + i % 5]
+                FROM generate_series(1, ?) AS i
+                """, ROWS);
+        jdbcTemplate.execute("VACUUM ANALYZE books");
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE books CASCADE");
+    }
+
+    @Test
+    void compareIlikeWithIndexedSearch() {
+        PageRequest firstPage = PageRequest.of(0, 20);
+
+        TransactionTemplate withoutIndexes = new TransactionTemplate(transactionManager);
+        measure("ILIKE, sequential scan", () -> withoutIndexes.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_bitmapscan = off");
+            jdbcTemplate.execute("SET LOCAL enable_indexscan = off");
+            return bookRepository.findAll(titleContains("zephyr"), firstPage);
+        }));
+        measure("ILIKE, trigram index", () -> bookRepository.findAll(titleContains("zephyr"), firstPage));
+        measure("ranked full-text", () -> bookRepository.fullTextSearch("zephyr", firstPage));
+
+        assertThat(bookRepository.findAll(titleContains("zephyr"), firstPage).getTotalElements())//
+                .isEqualTo(ROWS / 1000);
+        assertThat(bookRepository.fullTextSearch("zephyr", firstPage).getTotalElements())//
+                .isEqualTo(ROWS / 1000);
+    }
+
+    @Test
+    void plannerUsesSearchIndexes() {
+        assertThat(plan("SELECT id FROM books WHERE title ILIKE '%zephyr%'"))//
+                .contains("idx_books_title_trgm");
+        assertThat(plan("SELECT id FROM books WHERE author ILIKE '%vance%' AND title ILIKE '%zephyr%'"))//
+                .contains("idx_books_");
+        assertThat(plan("SELECT id FROM books WHERE genre = 'TECH' AND price BETWEEN 10 AND 11"))//
+                .contains("idx_books_genre_price");
+        assertThat(plan("SELECT id FROM books WHERE search_vector @@ websearch_to_tsquery('english', 'zephyr')"))
+                .contains("idx_books_search_vector");
+    }
+
+    private void measure(String label, Supplier<Page<?>> search) {
+        search.get(); // warm up
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            search.get();
+        }
+        double avgMillis = (System.nanoTime() - start) / 1_000_000.0 / RUNS;
+        log.info("{} over {} rows: {} ms/query", label, ROWS, String.format("%.2f", avgMillis));
+    }
+
+    private String plan(String sql) {
+        List<String> lines = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+        return String.join("\n", lines);
+    }
+}
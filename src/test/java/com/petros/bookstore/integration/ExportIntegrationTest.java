@@ -0,0 +1,154 @@
+package com.petros.bookstore.integration;
+
+import static com.petros.bookstore.config.TestFixtures.headersFor;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petros.bookstore.config.AbstractPostgresContainerTest;
+import com.petros.bookstore.config.TestFixtures;
+import com.petros.bookstore.dto.bookdto.BookResponseDto;
+import com.petros.bookstore.dto.orderdto.OrderResponseDto;
+import com.petros.bookstore.dto.userdto.UserProfileResponseDto;
+import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.enums.Role;
+import com.petros.bookstore.model.*;
+import com.petros.bookstore.repository.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Integration tests for the streaming exports, reading the downloads back in
+ * each format.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ExportIntegrationTest extends AbstractPostgresContainerTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private User user;
+    private User admin;
+    private Book firstBook;
+    private Book secondBook;
+    private Long orderId;
+    private HttpHeaders adminHeaders;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        cartItemRepository.deleteAll();
+        shoppingCartRepository.deleteAll();
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+
+        user = fixtures.saveUser("petrosdev", Role.USER);
+        admin = fixtures.saveUser("adminboss", Role.ADMIN);
+        adminHeaders = headersFor(admin.getId());
+
+        firstBook = fixtures.saveBook("Streams, Cursors and \"Fetch Sizes\"", 20.0, Genre.TECH);
+        secondBook = fixtures.saveBook("The Night Shift", 5.0, Genre.HORROR);
+
+        ShoppingCart cart = fixtures.saveCart(user);
+        fixtures.saveCartItem(cart, firstBook, 2);
+        fixtures.saveCartItem(cart, secondBook, 3);
+        ResponseEntity<OrderResponseDto> res = restTemplate.postForEntity("/users/me/orders",
+                new HttpEntity<>(headersFor(user.getId())), OrderResponseDto.class);
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+        orderId = res.getBody().id();
+    }
+
+    @Test
+    void exportBooks_ShouldWriteOneJsonObjectPerLine() throws IOException {
+        ResponseEntity<byte[]> res = export("/books/export");
+
+        assertThat(res.getHeaders().getContentType().toString()).isEqualTo("application/x-ndjson");
+        assertThat(res.getHeaders().getContentDisposition().getFilename()).isEqualTo("books.ndjson");
+        List<String> lines = lines(res.getBody());
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines.get(0), BookResponseDto.class)).isEqualTo(new BookResponseDto(
+                firstBook.getId(), firstBook.getTitle(), "Captain Stub", "desc", 20.0, 10, Genre.TECH));
+        assertThat(objectMapper.readValue(lines.get(1), BookResponseDto.class).id()).isEqualTo(secondBook.getId());
+    }
+
+    @Test
+    void exportBooks_ShouldQuoteCsvValues() {
+        List<String> lines = lines(export("/books/export?format=csv").getBody());
+
+        assertThat(lines).containsExactly("id,title,author,description,price,availability,genre",
+                firstBook.getId() + ",\"Streams, Cursors and \"\"Fetch Sizes\"\"\",Captain Stub,desc,20.0,10,TECH",
+                secondBook.getId() + ",The Night Shift,Captain Stub,desc,5.0,10,HORROR");
+    }
+
+    @Test
+    void exportOrders_ShouldWriteOneRowPerLine() {
+        Book repriced = bookRepository.findById(firstBook.getId()).orElseThrow();
+        repriced.setPrice(99.0); // sold at the old price
+        bookRepository.save(repriced);
+
+        ResponseEntity<byte[]> res = export("/orders/export?format=csv");
+
+        assertThat(res.getHeaders().getContentDisposition().getFilename()).isEqualTo("orders.csv");
+        List<String> lines = lines(res.getBody());
+        assertThat(lines.get(0))
+                .isEqualTo("orderId,userId,status,orderDate,totalPrice,bookId,quantity,unitPrice,lineTotal");
+        assertThat(lines.subList(1, lines.size())).hasSize(2)
+                .allMatch(line -> line.startsWith(orderId + "," + user.getId() + ",PENDING,"))
+                .anyMatch(line -> line.endsWith(",55.0," + firstBook.getId() + ",2,20.0,40.0"))
+                .anyMatch(line -> line.endsWith(",55.0," + secondBook.getId() + ",3,5.0,15.0"));
+    }
+
+    @Test
+    void exportUsers_ShouldGzipWithoutPasswords() throws IOException {
+        ResponseEntity<byte[]> res = export("/users/export?gzip=true");
+
+        assertThat(res.getHeaders().getContentType().toString()).isEqualTo("application/gzip");
+        assertThat(res.getHeaders().getContentDisposition().getFilename()).isEqualTo("users.ndjson.gz");
+        byte[] body;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(res.getBody()))) {
+            body = in.readAllBytes();
+        }
+        List<String> lines = lines(body);
+        assertThat(lines).noneMatch(line -> line.contains("password"));
+        assertThat(objectMapper.readValue(lines.get(0), UserProfileResponseDto.class)).isEqualTo(
+                new UserProfileResponseDto(user.getId(), "Petros", "Papadopoulos", "petrosdev", Role.USER));
+        assertThat(objectMapper.readValue(lines.get(1), UserProfileResponseDto.class).id())
+                .isEqualTo(admin.getId());
+    }
+
+    private ResponseEntity<byte[]> export(String uri) {
+        ResponseEntity<byte[]> res = restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(adminHeaders),
+                byte[].class);
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return res;
+    }
+
+    private static List<String> lines(byte[] body) {
+        return new String(body, StandardCharsets.UTF_8).lines().toList();
+    }
+}
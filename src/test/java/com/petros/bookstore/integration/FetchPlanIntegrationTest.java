@@ -0,0 +1,132 @@
+package com.petros.bookstore.integration;
+
+import static com.petros.bookstore.config.QueryBudgetExtension.assertMaxQueries;
+import static com.petros.bookstore.config.TestFixtures.headersFor;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.petros.bookstore.config.AbstractPostgresContainerTest;
+import com.petros.bookstore.config.QueryBudgetExtension;
+import com.petros.bookstore.config.TestFixtures;
+import com.petros.bookstore.dto.orderdto.OrderResponseDto;
+import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.enums.Role;
+import com.petros.bookstore.model.*;
+import com.petros.bookstore.repository.*;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Checks that the listings of orders, cart items and favourites load their
+ * associations with a fixed number of SQL statements, however many rows they
+ * return.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, //
+        properties = {QueryBudgetExtension.RECORDER_PROPERTY, "bookstore.reservations.reap-interval=PT1H",
+                "bookstore.orders.poll-interval=PT1H"})
+@ActiveProfiles("test")
+@ExtendWith(QueryBudgetExtension.class)
+class FetchPlanIntegrationTest extends AbstractPostgresContainerTest {
+
+    private static final int BOOKS = 4;
+    private static final int ORDERS = 3;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private FavouriteBookRepository favouriteBookRepository;
+
+    private Long userId;
+    private Long orderId;
+    private Long cartItemId;
+    private HttpHeaders userHeaders;
+    private HttpHeaders adminHeaders;
+
+    @BeforeEach
+    void setUp() {
+        favouriteBookRepository.deleteAll();
+        orderRepository.deleteAll();
+        cartItemRepository.deleteAll();
+        shoppingCartRepository.deleteAll();
+        userRepository.deleteAll();
+        bookRepository.deleteAll();
+
+        User user = fixtures.saveUser("petrosdev", Role.USER);
+        userId = user.getId();
+        userHeaders = headersFor(userId);
+        adminHeaders = headersFor(fixtures.saveUser("adminboss", Role.ADMIN).getId());
+
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = fixtures.saveBook("Fetch Plans " + i, 10.0 + i, Genre.TECH);
+            books.add(book);
+
+            FavouriteBook favourite = new FavouriteBook();
+            favourite.setUser(user);
+            favourite.setBook(book);
+            favouriteBookRepository.save(favourite);
+        }
+
+        ShoppingCart cart = fixtures.saveCart(user);
+
+        for (int i = 0; i < ORDERS; i++) {
+            fillCart(cart, books);
+            orderId = restTemplate.postForEntity("/users/me/orders", new HttpEntity<>(userHeaders),
+                    OrderResponseDto.class).getBody().id();
+        }
+        cartItemId = fillCart(cart, books).getId();
+    }
+
+    @Test
+    void orderListings_ShouldNotLoadItemsPerOrder() {
+        assertStatements("/users/me/orders", userHeaders, 3);
+        assertStatements("/users/me/orders?after=", userHeaders, 3);
+        assertStatements("/users/me/orders/" + orderId, userHeaders, 2);
+        assertStatements("/orders", adminHeaders, 2);
+        assertStatements("/orders?after=", adminHeaders, 2);
+        assertStatements("/orders/" + orderId, adminHeaders, 1);
+        assertStatements("/users/" + userId + "/orders", adminHeaders, 3);
+    }
+
+    @Test
+    void cartAndFavouriteListings_ShouldNotLoadBooksPerItem() {
+        assertStatements("/users/me/shopping-cart/items", userHeaders, 3);
+        assertStatements("/users/me/shopping-cart/items/" + cartItemId, userHeaders, 1);
+        assertStatements("/users/" + userId + "/shopping-cart/items", adminHeaders, 3);
+        assertStatements("/users/me/favourite-books", userHeaders, 2);
+        assertStatements("/users/" + userId + "/favourite-books", adminHeaders, 2);
+    }
+
+    private void assertStatements(String path, HttpHeaders headers, int expected) {
+        assertMaxQueries(expected, "GET " + path, () -> assertThat(restTemplate.exchange(path, HttpMethod.GET,
+                new HttpEntity<>(headers), String.class).getStatusCode()).as(path).isEqualTo(HttpStatus.OK));
+    }
+
+    private CartItem fillCart(ShoppingCart cart, List<Book> books) {
+        CartItem item = null;
+        for (Book book : books) {
+            item = fixtures.saveCartItem(cart, book, 1);
+        }
+        return item;
+    }
+}
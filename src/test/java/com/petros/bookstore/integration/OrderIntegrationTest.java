@@ -4,15 +4,29 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.petros.bookstore.config.AbstractPostgresContainerTest;
+import com.petros.bookstore.dto.orderdto.OrderBulkStatusUpdateRequestDto;
+import com.petros.bookstore.dto.orderdto.OrderBulkStatusUpdateResponseDto;
 import com.petros.bookstore.dto.orderdto.OrderResponseDto;
+import com.petros.bookstore.dto.orderdto.OrderStatusOutcomeDto;
 import com.petros.bookstore.dto.orderdto.OrderStatusUpdateRequestDto;
+import com.petros.bookstore.dto.paginationdto.CursorPageResponseDto;
 import com.petros.bookstore.model.*;
 import com.petros.bookstore.enums.Genre;
 import com.petros.bookstore.enums.Role;
 import com.petros.bookstore.enums.Status;
+import com.petros.bookstore.enums.TransitionOutcome;
 import com.petros.bookstore.repository.*;
+import com.petros.bookstore.service.IdempotencyService;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +34,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 
@@ -47,6 +62,10 @@ class OrderIntegrationTest extends AbstractPostgresContainerTest {
     private OrderRepository orderRepository;
     @Autowired
     private PasswordEncoder passwordEncoder;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private IdempotencyService idempotencyService;
 
     private Long userId;
     private Long adminId;
@@ -120,6 +139,175 @@ class OrderIntegrationTest extends AbstractPostgresContainerTest {
         assertThat(orderRepository.findAll()).hasSize(1);
     }
 
+    @Test
+    void placeOrder_ShouldOrderEveryLineAndEmptyCart() {
+        ShoppingCart cart = shoppingCartRepository.findAll().get(0);
+        for (int i = 0; i < 5; i++) {
+            Book book = new Book();
+            book.setTitle("Batch " + i);
+            book.setAuthor("Captain Stub");
+            book.setDescription("desc");
+            book.setPrice(1.0);
+            book.setAvailability(10);
+            book.setGenre(Genre.SCIENCE_FICTION);
+            CartItem item = new CartItem();
+            item.setBook(bookRepository.save(book));
+            item.setShoppingCart(cart);
+            item.setQuantity(1);
+            cartItemRepository.save(item);
+        }
+
+        ResponseEntity<OrderResponseDto> res = restTemplate.postForEntity("/users/me/orders",
+                new HttpEntity<>(userHeaders), OrderResponseDto.class);
+
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(res.getBody().items()).hasSize(6);
+        assertThat(res.getBody().totalPrice()).isEqualTo(24.98);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM order_items WHERE order_id = ?", Long.class,
+                res.getBody().id())).isEqualTo(6);
+        assertThat(cartItemRepository.count()).isZero();
+    }
+
+    @Test
+    void placeOrder_ShouldTotalTheLineTotals() {
+        ShoppingCart cart = shoppingCartRepository.findAll().get(0);
+        Book book = new Book();
+        book.setTitle("Pocket");
+        book.setAuthor("Captain Stub");
+        book.setDescription("desc");
+        book.setPrice(0.1);
+        book.setAvailability(10);
+        book.setGenre(Genre.SCIENCE_FICTION);
+        CartItem item = new CartItem();
+        item.setBook(bookRepository.save(book));
+        item.setShoppingCart(cart);
+        item.setQuantity(3);
+        cartItemRepository.save(item);
+
+        ResponseEntity<OrderResponseDto> res = restTemplate.postForEntity("/users/me/orders",
+                new HttpEntity<>(userHeaders), OrderResponseDto.class);
+
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(res.getBody().totalPrice()).isEqualTo(20.28);
+        assertThat(jdbcTemplate.queryForObject("SELECT sum(line_total) FROM order_items WHERE order_id = ?",
+                Double.class, res.getBody().id())).isEqualTo(20.28);
+    }
+
+    @Test
+    void orderHistory_ShouldKeepPricesAtOrderTime() {
+        Long orderId = placeOrderViaEndpoint();
+        Book book = bookRepository.findById(bookId).orElseThrow();
+        book.setPrice(50.0);
+        bookRepository.save(book);
+
+        ResponseEntity<OrderResponseDto> res = restTemplate.exchange("/users/me/orders/{orderId}", HttpMethod.GET,
+                new HttpEntity<>(userHeaders), OrderResponseDto.class, orderId);
+
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(res.getBody().items().get(0).price()).isEqualTo(9.99);
+        assertThat(res.getBody().items().get(0).subTotal()).isEqualTo(String.format("%.2f", 19.98));
+        assertThat(res.getBody().totalPrice()).isEqualTo(19.98);
+    }
+
+    @Test
+    void concurrentCheckoutsOfSharedBooks_ShouldAllSucceed() throws Exception {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Book book = new Book();
+            book.setTitle("Shared " + i);
+            book.setAuthor("Captain Stub");
+            book.setDescription("desc");
+            book.setPrice(5.0);
+            book.setAvailability(100);
+            book.setGenre(Genre.SCIENCE_FICTION);
+            books.add(bookRepository.save(book));
+        }
+
+        List<HttpHeaders> buyerHeaders = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            User buyer = new User();
+            buyer.setFirstName("Buyer");
+            buyer.setLastName("No" + i);
+            buyer.setUsername("buyer" + i);
+            buyer.setPassword("x");
+            buyer.setRole(Role.USER);
+            buyer = userRepository.save(buyer);
+
+            ShoppingCart cart = new ShoppingCart();
+            cart.setUser(buyer);
+            shoppingCartRepository.save(cart);
+            for (int j = 0; j < books.size(); j++) { // every buyer adds the books in a different order
+                CartItem item = new CartItem();
+                item.setBook(books.get((i + j) % books.size()));
+                item.setShoppingCart(cart);
+                item.setQuantity(1);
+                cartItemRepository.save(item);
+            }
+            HttpHeaders headers = new HttpHeaders();
+            headers.add("X-USER-ID", buyer.getId().toString());
+            buyerHeaders.add(headers);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<HttpStatusCode>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (HttpHeaders headers : buyerHeaders) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return restTemplate.postForEntity("/users/me/orders", new HttpEntity<>(headers), String.class)
+                            .getStatusCode();
+                }));
+            }
+            start.countDown();
+        }
+
+        for (Future<HttpStatusCode> result : results) {
+            assertThat(result.get()).isEqualTo(HttpStatus.OK);
+        }
+        assertThat(orderRepository.count()).isEqualTo(8);
+    }
+
+    @Test
+    void placeOrderRetriedWithSameKey_ShouldReplayFirstOrder() {
+        userHeaders.add("Idempotency-Key", "checkout-1");
+        HttpEntity<Void> entity = new HttpEntity<>(userHeaders);
+
+        ResponseEntity<OrderResponseDto> first = restTemplate.postForEntity("/users/me/orders", entity,
+                OrderResponseDto.class);
+        ResponseEntity<OrderResponseDto> retry = restTemplate.postForEntity("/users/me/orders", entity,
+                OrderResponseDto.class);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retry.getBody()).isEqualTo(first.getBody());
+        assertThat(orderRepository.findAll()).hasSize(1);
+    }
+
+    @Test
+    void placeOrderWithNewKey_ShouldNotReplay() {
+        userHeaders.set("Idempotency-Key", "checkout-1");
+        restTemplate.postForEntity("/users/me/orders", new HttpEntity<>(userHeaders), OrderResponseDto.class);
+
+        userHeaders.set("Idempotency-Key", "checkout-2");
+        ResponseEntity<String> res = restTemplate.postForEntity("/users/me/orders", new HttpEntity<>(userHeaders),
+                String.class);
+
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST); // the cart is empty by now
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM idempotency_keys", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void purgeExpired_ShouldDeleteOnlyKeysOlderThanTtl() {
+        userHeaders.set("Idempotency-Key", "checkout-1");
+        restTemplate.postForEntity("/users/me/orders", new HttpEntity<>(userHeaders), OrderResponseDto.class);
+        jdbcTemplate.update("INSERT INTO idempotency_keys (user_id, idempotency_key, created_at) "//
+                + "VALUES (?, 'stale', now() - interval '2 days')", userId);
+
+        assertThat(idempotencyService.purgeExpired()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT idempotency_key FROM idempotency_keys", String.class))
+                .containsExactly("checkout-1");
+    }
+
     @Test
     void myOrders_ShouldReturnPageWithOneOrder() {
         // first place an order
@@ -136,6 +324,23 @@ class OrderIntegrationTest extends AbstractPostgresContainerTest {
         assertThat(content).hasSize(1);
     }
 
+    @Test
+    void myOrdersAfter_ShouldReturnKeysetPageWithoutNextCursor() {
+        Long orderId = placeOrderViaEndpoint();
+
+        HttpEntity<Void> entity = new HttpEntity<>(userHeaders);
+
+        ResponseEntity<Map<String, Object>> res = restTemplate.exchange("/users/me/orders?after=&size=5",
+                HttpMethod.GET, entity, new ParameterizedTypeReference<>() {
+                });
+
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+        List<?> content = (List<?>) res.getBody().get("content");
+        assertThat(content).hasSize(1);
+        assertThat(((Map<?, ?>) content.get(0)).get("id")).isEqualTo(orderId.intValue());
+        assertThat(res.getBody().get("next")).isNull();
+    }
+
     @Test
     void getSingleOrder_ShouldReturnOrder() {
         Long orderId = placeOrderViaEndpoint();
@@ -194,6 +399,114 @@ class OrderIntegrationTest extends AbstractPostgresContainerTest {
         assertThat(res.getBody().id()).isEqualTo(orderId);
     }
 
+    @Test
+    void adminSearchOrders_ShouldCombineStatusUserAndDateFilters() {
+        Instant now = Instant.now();
+        Long match = saveOrder(userId, Status.PENDING, now.minus(Duration.ofDays(2)));
+        saveOrder(userId, Status.PENDING, now.minus(Duration.ofDays(10))); // before the range
+        saveOrder(userId, Status.SHIPPED, now.minus(Duration.ofDays(2)));
+        saveOrder(adminId, Status.PENDING, now.minus(Duration.ofDays(2)));
+
+        CursorPageResponseDto<OrderResponseDto> page = searchOrders("status=PENDING&userId=" + userId //
+                + "&from=" + now.minus(Duration.ofDays(7)) + "&to=" + now);
+
+        assertThat(page.content()).extracting(OrderResponseDto::id).containsExactly(match);
+        assertThat(page.next()).isNull();
+    }
+
+    @Test
+    void adminSearchOpenOrders_ShouldPageNewestFirst() {
+        Instant now = Instant.now();
+        Long pending = saveOrder(userId, Status.PENDING, now.minus(Duration.ofDays(1)));
+        saveOrder(userId, Status.DELIVERED, now.minus(Duration.ofDays(2)));
+        Long confirmed = saveOrder(userId, Status.CONFIRMED, now.minus(Duration.ofDays(3)));
+        Long shipped = saveOrder(userId, Status.SHIPPED, now.minus(Duration.ofDays(4)));
+        Long processing = saveOrder(adminId, Status.PROCESSING, now.minus(Duration.ofDays(5)));
+
+        CursorPageResponseDto<OrderResponseDto> first = searchOrders("open=true&size=2");
+        CursorPageResponseDto<OrderResponseDto> second = searchOrders("open=true&size=2&after=" + first.next());
+
+        assertThat(first.content()).extracting(OrderResponseDto::id).containsExactly(pending, confirmed);
+        assertThat(second.content()).extracting(OrderResponseDto::id).containsExactly(shipped, processing);
+        assertThat(second.next()).isNull();
+    }
+
+    @Test
+    void adminBulkStatusUpdateByIds_ShouldReportEveryOrder() {
+        Instant now = Instant.now();
+        Long processing = saveOrder(userId, Status.PROCESSING, now.minus(Duration.ofDays(1)));
+        Long shipped = saveOrder(userId, Status.SHIPPED, now.minus(Duration.ofDays(2)));
+        Long missing = processing + 1_000_000;
+
+        ResponseEntity<OrderBulkStatusUpdateResponseDto> res = updateStatuses(new OrderBulkStatusUpdateRequestDto(
+                List.of(shipped, processing, missing, processing), Status.PROCESSING, Status.SHIPPED, null, null));
+
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(res.getBody().updated()).isEqualTo(1);
+        assertThat(res.getBody().outcomes()).containsExactly(//
+                new OrderStatusOutcomeDto(shipped, TransitionOutcome.SKIPPED, Status.SHIPPED),
+                new OrderStatusOutcomeDto(processing, TransitionOutcome.UPDATED, Status.SHIPPED),
+                new OrderStatusOutcomeDto(missing, TransitionOutcome.NOT_FOUND, null));
+        assertThat(orderRepository.findById(processing).orElseThrow().getStatus()).isEqualTo(Status.SHIPPED);
+        assertThat(jdbcTemplate.queryForList("SELECT payload ->> 'from' || '>' || (payload ->> 'to') "//
+                + "FROM outbox_events WHERE aggregate_id IN (?, ?) AND event_type = 'ORDER_STATUS_CHANGED'",
+                String.class, processing, shipped)).containsExactly("PROCESSING>SHIPPED");
+    }
+
+    @Test
+    void adminBulkStatusUpdateByDateRange_ShouldMoveMatchingOrdersOldestFirst() {
+        Instant now = Instant.now();
+        Long older = saveOrder(userId, Status.SHIPPED, now.minus(Duration.ofDays(5)));
+        Long newer = saveOrder(adminId, Status.SHIPPED, now.minus(Duration.ofDays(2)));
+        Long outside = saveOrder(userId, Status.SHIPPED, now.minus(Duration.ofDays(10)));
+        saveOrder(userId, Status.PROCESSING, now.minus(Duration.ofDays(3)));
+
+        ResponseEntity<OrderBulkStatusUpdateResponseDto> res = updateStatuses(new OrderBulkStatusUpdateRequestDto(
+                null, Status.SHIPPED, Status.DELIVERED, now.minus(Duration.ofDays(7)), now));
+
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(res.getBody().more()).isFalse();
+        assertThat(res.getBody().outcomes()).extracting(OrderStatusOutcomeDto::id).containsExactly(older, newer);
+        assertThat(orderRepository.findById(outside).orElseThrow().getStatus()).isEqualTo(Status.SHIPPED);
+    }
+
+    @Test
+    void adminBulkStatusUpdateBackwards_ShouldReturn400() {
+        Long delivered = saveOrder(userId, Status.DELIVERED, Instant.now());
+
+        ResponseEntity<String> res = updateStatuses(new OrderBulkStatusUpdateRequestDto(List.of(delivered),
+                Status.DELIVERED, Status.PENDING, null, null), String.class);
+
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(orderRepository.findById(delivered).orElseThrow().getStatus()).isEqualTo(Status.DELIVERED);
+    }
+
+    private ResponseEntity<OrderBulkStatusUpdateResponseDto> updateStatuses(OrderBulkStatusUpdateRequestDto req) {
+        return updateStatuses(req, OrderBulkStatusUpdateResponseDto.class);
+    }
+
+    private <T> ResponseEntity<T> updateStatuses(OrderBulkStatusUpdateRequestDto req, Class<T> type) {
+        adminHeaders.setContentType(MediaType.APPLICATION_JSON);
+        return restTemplate.postForEntity("/orders/status-transitions", new HttpEntity<>(req, adminHeaders), type);
+    }
+
+    private CursorPageResponseDto<OrderResponseDto> searchOrders(String query) {
+        ResponseEntity<CursorPageResponseDto<OrderResponseDto>> res = restTemplate.exchange("/orders/search?" + query,
+                HttpMethod.GET, new HttpEntity<>(adminHeaders), new ParameterizedTypeReference<>() {
+                });
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return res.getBody();
+    }
+
+    private Long saveOrder(Long ownerId, Status status, Instant orderDate) {
+        Order order = new Order();
+        order.setUser(userRepository.findById(ownerId).orElseThrow());
+        order.setStatus(status);
+        order.setOrder_date(Timestamp.from(orderDate));
+        order.setTotal_price(1.0);
+        return orderRepository.save(order).getId();
+    }
+
     // place order util method
     private Long placeOrderViaEndpoint() {
         HttpEntity<Void> entity = new HttpEntity<>(userHeaders);
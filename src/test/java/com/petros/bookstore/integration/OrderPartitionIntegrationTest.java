@@ -0,0 +1,182 @@
+package com.petros.bookstore.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petros.bookstore.config.AbstractPostgresContainerTest;
+import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.enums.Role;
+import com.petros.bookstore.enums.Status;
+import com.petros.bookstore.model.*;
+import com.petros.bookstore.repository.*;
+import com.petros.bookstore.service.OrderPartitionService;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.List;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Integration tests for the monthly partitions of orders and order items:
+ * routing of new orders, creation of partitions ahead and archival of old
+ * months. Old months are set up by creating their partitions directly.
+ */
+@SpringBootTest(properties = {"bookstore.orders.archive.after-months=12", //
+        "bookstore.orders.archive.directory=target/order-archive"})
+@ActiveProfiles("test")
+class OrderPartitionIntegrationTest extends AbstractPostgresContainerTest {
+
+    private static final YearMonth ARCHIVED = YearMonth.now().minusMonths(30);
+    private static final YearMonth KEPT = YearMonth.now().minusMonths(31);
+
+    @Autowired
+    private OrderPartitionService partitionService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private User user;
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+
+        user = new User();
+        user.setFirstName("Petros");
+        user.setLastName("Papadopoulos");
+        user.setUsername("petrosdev");
+        user.setPassword("x");
+        user.setRole(Role.USER);
+        user = userRepository.save(user);
+
+        book = new Book();
+        book.setTitle("Partitioned Tables");
+        book.setAuthor("Captain Stub");
+        book.setDescription("desc");
+        book.setPrice(10.0);
+        book.setAvailability(10);
+        book.setGenre(Genre.TECH);
+        book = bookRepository.save(book);
+    }
+
+    @Test
+    void partitionsAhead_ShouldExistAndReceiveNewOrders() {
+        partitionService.createPartitions();
+
+        for (int i = 0; i <= 3; i++) {
+            assertThat(partitionExists(YearMonth.now().plusMonths(i))).isTrue();
+        }
+        Long orderId = saveOrder(Status.PENDING, YearMonth.now(), 2);
+        assertThat(jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM orders WHERE id = ?",
+                String.class, orderId)).isEqualTo(partitionOf(YearMonth.now()));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM order_items WHERE order_id = ? "//
+                + "AND tableoid::regclass::text = ?", Long.class, orderId, "order_items_p" + suffix(YearMonth.now())))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void archive_ShouldExportDeliveredMonthAndDropItsPartitions() throws Exception {
+        createPartition(ARCHIVED);
+        Long first = saveOrder(Status.DELIVERED, ARCHIVED, 2);
+        Long second = saveOrder(Status.DELIVERED, ARCHIVED, 1);
+
+        List<Path> files = partitionService.archive();
+
+        Path file = Path.of("target/order-archive/orders-" + ARCHIVED + ".ndjson.bz2");
+        assertThat(files).contains(file);
+        assertThat(partitionExists(ARCHIVED)).isFalse();
+        assertThat(orderRepository.count()).isZero();
+
+        List<JsonNode> orders = readArchive(file);
+        assertThat(orders).extracting(order -> order.get("id").asLong()).containsExactly(first, second);
+        assertThat(orders.get(0).get("status").asText()).isEqualTo("DELIVERED");
+        assertThat(orders.get(0).get("items")).hasSize(1);
+        assertThat(orders.get(0).at("/items/0/bookId").asLong()).isEqualTo(book.getId());
+        assertThat(orders.get(0).at("/items/0/quantity").asInt()).isEqualTo(2);
+        assertThat(orders.get(0).at("/items/0/lineTotal").asDouble()).isEqualTo(20.0);
+    }
+
+    @Test
+    void archive_ShouldKeepMonthWithUndeliveredOrders() {
+        createPartition(KEPT);
+        saveOrder(Status.DELIVERED, KEPT, 1);
+        saveOrder(Status.SHIPPED, KEPT, 1);
+
+        List<Path> files = partitionService.archive();
+
+        assertThat(files).noneMatch(path -> path.endsWith("orders-" + KEPT + ".ndjson.bz2"));
+        assertThat(partitionExists(KEPT)).isTrue();
+        assertThat(orderRepository.count()).isEqualTo(2);
+    }
+
+    private Long saveOrder(Status status, YearMonth month, int quantity) {
+        Timestamp orderDate = Timestamp.valueOf(month.atDay(15).atStartOfDay());
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(status);
+        order.setOrder_date(orderDate);
+        order.setTotal_price(book.getPrice() * quantity);
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setBook(book);
+        item.setOrderDate(orderDate);
+        item.setQuantity(quantity);
+        item.setUnitPrice(book.getPrice());
+        item.setLineTotal(book.getPrice() * quantity);
+        order.getOrderItems().add(item);
+        return orderRepository.save(order).getId();
+    }
+
+    private List<JsonNode> readArchive(Path file) throws Exception {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new BZip2CompressorInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return in.lines().map(line -> {
+                try {
+                    return objectMapper.readTree(line);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }).toList();
+        }
+    }
+
+    private void createPartition(YearMonth month) {
+        jdbcTemplate.queryForObject("SELECT create_order_partitions(?, 1)", Integer.class,
+                Date.valueOf(month.atDay(1)));
+    }
+
+    private boolean partitionExists(YearMonth month) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partitionOf(month));
+    }
+
+    private static String partitionOf(YearMonth month) {
+        return "orders_p" + suffix(month);
+    }
+
+    private static String suffix(YearMonth month) {
+        return "%04d%02d".formatted(month.getYear(), month.getMonthValue());
+    }
+}
@@ -0,0 +1,190 @@
+package com.petros.bookstore.integration;
+
+import static com.petros.bookstore.config.TestFixtures.headersFor;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.petros.bookstore.config.AbstractPostgresContainerTest;
+import com.petros.bookstore.config.TestFixtures;
+import com.petros.bookstore.dto.cartitemdto.CartItemRequestDto;
+import com.petros.bookstore.dto.orderdto.OrderQueueStatsDto;
+import com.petros.bookstore.dto.orderdto.OrderResponseDto;
+import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.enums.Role;
+import com.petros.bookstore.enums.Status;
+import com.petros.bookstore.model.Order;
+import com.petros.bookstore.model.User;
+import com.petros.bookstore.repository.*;
+import java.net.URI;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Integration tests for asynchronous checkout: acceptance, confirmation by the
+ * worker pool, backpressure of the bounded queue and parking of failing jobs.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "bookstore.orders.queue-capacity=3", "bookstore.orders.poll-interval=PT0.1S",
+        "bookstore.orders.max-attempts=2"})
+@ActiveProfiles("test")
+class OrderProcessingIntegrationTest extends AbstractPostgresContainerTest {
+
+    private static final String ORDERS = "/users/me/orders";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderJobRepository jobRepository;
+
+    private User user;
+    private HttpHeaders userHeaders;
+    private HttpHeaders adminHeaders;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_jobs");
+        orderRepository.deleteAll();
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+
+        user = fixtures.saveUser("petrosdev", Role.USER);
+        userHeaders = headersFor(user.getId());
+        adminHeaders = headersFor(fixtures.saveUser("adminboss", Role.ADMIN).getId());
+
+        Long bookId = fixtures.saveBook("Async Checkout", 12.5, Genre.TECH).getId();
+
+        HttpHeaders json = headersFor(user.getId());
+        json.setContentType(MediaType.APPLICATION_JSON);
+        restTemplate.postForEntity("/users/me/shopping-cart/items", //
+                new HttpEntity<>(new CartItemRequestDto(bookId, 2), json), String.class);
+    }
+
+    @Test
+    void respondAsync_ShouldAcceptPendingOrderThatWorkersConfirm() throws Exception {
+        userHeaders.add("Prefer", "respond-async");
+
+        ResponseEntity<OrderResponseDto> res = restTemplate.postForEntity(ORDERS, new HttpEntity<>(userHeaders),
+                OrderResponseDto.class);
+
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(res.getBody().status()).isEqualTo(Status.PENDING);
+        URI location = res.getHeaders().getLocation();
+        assertThat(location.getPath()).isEqualTo(ORDERS + "/" + res.getBody().id());
+        assertThat(cartItemRepository.count()).isZero();
+
+        assertThat(awaitConfirmed(location)).isEqualTo(Status.CONFIRMED);
+        assertThat(jobRepository.countUnparked()).isZero();
+    }
+
+    @Test
+    void fullQueue_ShouldReturn503AndKeepCart() {
+        for (int i = 0; i < 3; i++) {
+            enqueueLater(saveOrder());
+        }
+        userHeaders.add("Prefer", "respond-async");
+
+        ResponseEntity<String> res = restTemplate.postForEntity(ORDERS, new HttpEntity<>(userHeaders),
+                String.class);
+
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(res.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("10");
+        assertThat(orderRepository.count()).isEqualTo(3);
+        assertThat(cartItemRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void parkedJobs_ShouldNotUseUpCapacity() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update("INSERT INTO order_jobs (order_id, available_at) VALUES (?, 'infinity')",
+                    saveOrder());
+        }
+        userHeaders.add("Prefer", "respond-async");
+
+        ResponseEntity<OrderResponseDto> res = restTemplate.postForEntity(ORDERS, new HttpEntity<>(userHeaders),
+                OrderResponseDto.class);
+
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(awaitConfirmed(res.getHeaders().getLocation())).isEqualTo(Status.CONFIRMED);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM order_jobs", Long.class)).isEqualTo(3);
+    }
+
+    @Test
+    void jobFailingMaxAttempts_ShouldBeParkedAndReported() {
+        Long orderId = saveOrder();
+        enqueueLater(orderId);
+
+        jobRepository.retryLater(orderId, Duration.ofSeconds(1), 2, "first");
+        jobRepository.retryLater(orderId, Duration.ofSeconds(1), 2, "second");
+
+        ResponseEntity<OrderQueueStatsDto> res = restTemplate.exchange("/orders/queue/stats", HttpMethod.GET,
+                new HttpEntity<>(adminHeaders), OrderQueueStatsDto.class);
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(res.getBody().queued()).isEqualTo(1);
+        assertThat(res.getBody().parked()).isEqualTo(1);
+        assertThat(res.getBody().capacity()).isEqualTo(3);
+        assertThat(res.getBody().workers()).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForObject("SELECT last_error FROM order_jobs", String.class))
+                .isEqualTo("second");
+    }
+
+    @Test
+    void retryAfterSubSecondDelay_ShouldNotBeReadyAtOnce() {
+        Long orderId = saveOrder();
+        enqueueLater(orderId);
+
+        jobRepository.retryLater(orderId, Duration.ofMillis(900), 5, "first");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT extract(epoch FROM available_at - now()) FROM order_jobs",
+                Double.class)).isPositive().isLessThanOrEqualTo(0.9);
+    }
+
+    private Status awaitConfirmed(URI location) throws InterruptedException {
+        Status status = null;
+        for (int i = 0; i < 100 && status != Status.CONFIRMED; i++) {
+            Thread.sleep(100);
+            status = restTemplate.exchange(location, HttpMethod.GET, new HttpEntity<>(userHeaders),
+                    OrderResponseDto.class).getBody().status();
+        }
+        return status;
+    }
+
+    /**
+     * Queues a job that no worker takes within the test. Other cached contexts
+     * share the database and run workers of their own, so the job must not be
+     * ready even for a moment.
+     */
+    private void enqueueLater(Long orderId) {
+        jdbcTemplate.update("INSERT INTO order_jobs (order_id, available_at) VALUES (?, now() + interval '1 hour')",
+                orderId);
+    }
+
+    private Long saveOrder() {
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(Status.PENDING);
+        order.setOrder_date(Timestamp.from(Instant.now()));
+        order.setTotal_price(1.0);
+        return orderRepository.save(order).getId();
+    }
+}
@@ -0,0 +1,219 @@
+package com.petros.bookstore.integration;
+
+import static com.petros.bookstore.config.TestFixtures.headersFor;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.petros.bookstore.config.AbstractPostgresContainerTest;
+import com.petros.bookstore.config.TestFixtures;
+import com.petros.bookstore.dto.orderdto.OrderResponseDto;
+import com.petros.bookstore.dto.orderdto.OrderStatusUpdateRequestDto;
+import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.enums.OutboxEventType;
+import com.petros.bookstore.enums.Role;
+import com.petros.bookstore.enums.Status;
+import com.petros.bookstore.model.*;
+import com.petros.bookstore.outbox.OutboxEvent;
+import com.petros.bookstore.outbox.OutboxListener;
+import com.petros.bookstore.outbox.OutboxRelay;
+import com.petros.bookstore.repository.*;
+import com.petros.bookstore.service.OutboxService;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Integration tests for the order events written to the outbox and their
+ * delivery by the relay, which the tests run themselves.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class OutboxIntegrationTest extends AbstractPostgresContainerTest {
+
+    @TestConfiguration
+    static class Listeners {
+
+        static final List<OutboxEvent> received = new CopyOnWriteArrayList<>();
+        static final AtomicInteger failuresLeft = new AtomicInteger();
+        static volatile OutboxEventType failingType;
+        static volatile boolean failInSql;
+
+        @Bean
+        @Order(1)
+        OutboxListener recordingListener() {
+            return received::add;
+        }
+
+        @Bean
+        @Order(2)
+        OutboxListener failingListener(JdbcTemplate jdbcTemplate) {
+            return event -> {
+                if ((failingType == null || event.type() == failingType) && failuresLeft.getAndDecrement() > 0) {
+                    if (failInSql) {
+                        jdbcTemplate.update("UPDATE books SET availability = availability - 1");
+                        jdbcTemplate.execute("SELECT 1 / 0"); // aborts the statement
+                    }
+                    throw new IllegalStateException("listener down");
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private OutboxRelay relay;
+    @Autowired
+    private OutboxService outboxService;
+    @Autowired
+    private TestFixtures fixtures;
+    @Value("${bookstore.outbox.max-attempts}")
+    private int maxAttempts;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Long bookId;
+    private HttpHeaders userHeaders;
+    private HttpHeaders adminHeaders;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        jdbcTemplate.update("DELETE FROM sales_daily");
+        Listeners.received.clear();
+        Listeners.failuresLeft.set(0);
+        Listeners.failingType = null;
+        Listeners.failInSql = false;
+
+        User user = fixtures.saveUser("petrosdev", Role.USER);
+        userHeaders = headersFor(user.getId());
+        adminHeaders = headersFor(fixtures.saveUser("adminboss", Role.ADMIN).getId());
+
+        Book book = fixtures.saveBook("Outbox Patterns", 20.0, Genre.TECH);
+        bookId = book.getId();
+        fixtures.saveCartItem(fixtures.saveCart(user), book, 2);
+    }
+
+    @Test
+    void orderEvents_ShouldBeDeliveredOnceInAppendOrder() {
+        Long orderId = placeOrder();
+        updateStatus(orderId, Status.SHIPPED);
+        updateStatus(orderId, Status.SHIPPED); // no change, no event
+
+        assertThat(relay.relay()).isEqualTo(2);
+        assertThat(relay.relay()).isZero();
+
+        assertThat(Listeners.received).extracting(OutboxEvent::type)//
+                .containsExactly(OutboxEventType.ORDER_PLACED, OutboxEventType.ORDER_STATUS_CHANGED);
+        assertThat(Listeners.received).extracting(OutboxEvent::aggregateId).containsOnly(orderId);
+
+        OutboxEvent placed = Listeners.received.get(0);
+        assertThat(placed.payload().get("totalPrice").asDouble()).isEqualTo(40.0);
+        assertThat(placed.payload().at("/lines/0/bookId").asLong()).isEqualTo(bookId);
+        assertThat(placed.payload().at("/lines/0/quantity").asInt()).isEqualTo(2);
+        assertThat(Listeners.received.get(1).payload().get("to").asText()).isEqualTo("SHIPPED");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_events WHERE published_at IS NULL",
+                Long.class)).isZero();
+    }
+
+    @Test
+    void failingListener_ShouldStopBatchAndRedeliverFromFailedEvent() {
+        Long orderId = placeOrder();
+        updateStatus(orderId, Status.SHIPPED);
+        Listeners.failuresLeft.set(1);
+
+        assertThat(relay.relay()).isZero();
+        assertThat(relay.relay()).isEqualTo(2);
+
+        assertThat(Listeners.received).extracting(OutboxEvent::type).containsExactly(//
+                OutboxEventType.ORDER_PLACED, // delivered to the first listener before the second failed
+                OutboxEventType.ORDER_PLACED, OutboxEventType.ORDER_STATUS_CHANGED);
+    }
+
+    @Test
+    void failingSqlInListener_ShouldRollBackOnlyTheFailedEvent() {
+        Long orderId = placeOrder();
+        updateStatus(orderId, Status.SHIPPED);
+        Listeners.failingType = OutboxEventType.ORDER_STATUS_CHANGED;
+        Listeners.failuresLeft.set(1);
+        Listeners.failInSql = true;
+
+        assertThat(relay.relay()).isEqualTo(1);
+        assertThat(relay.relay()).isEqualTo(1);
+
+        assertThat(bookRepository.findById(bookId).orElseThrow().getAvailability()).isEqualTo(10);
+        assertThat(jdbcTemplate.queryForObject("SELECT orders FROM sales_daily WHERE day = current_date",
+                Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT attempts FROM outbox_events WHERE event_type = 'ORDER_STATUS_CHANGED'", Integer.class))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void eventFailingMaxAttempts_ShouldBeParkedAndSkipped() {
+        Long orderId = placeOrder();
+        updateStatus(orderId, Status.SHIPPED);
+        Listeners.failingType = OutboxEventType.ORDER_PLACED;
+        Listeners.failuresLeft.set(Integer.MAX_VALUE);
+
+        for (int i = 1; i < maxAttempts; i++) {
+            assertThat(relay.relay()).isZero();
+        }
+        assertThat(relay.relay()).isEqualTo(1);
+        assertThat(relay.relay()).isZero();
+
+        assertThat(Listeners.received).extracting(OutboxEvent::type).endsWith(OutboxEventType.ORDER_STATUS_CHANGED);
+        assertThat(jdbcTemplate.queryForMap("SELECT attempts, last_error, published_at, parked_at IS NOT NULL "//
+                + "AS parked FROM outbox_events WHERE event_type = 'ORDER_PLACED'")).containsEntry("attempts", maxAttempts)
+                .containsEntry("last_error", "java.lang.IllegalStateException: listener down")
+                .containsEntry("published_at", null).containsEntry("parked", true);
+    }
+
+    @Test
+    void purgeDelivered_ShouldDeleteOnlyEventsDeliveredBeforeRetention() {
+        String insert = "INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload, "//
+                + "created_at, published_at) VALUES ('ORDER', 1, 'ORDER_PLACED', '{}', now() - interval '30 days', ";
+        jdbcTemplate.update(insert + "now() - interval '8 days')");
+        jdbcTemplate.update(insert + "now() - interval '1 day')");
+        jdbcTemplate.update(insert + "NULL)");
+
+        assertThat(outboxService.purgeDelivered()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_events", Long.class)).isEqualTo(2);
+    }
+
+    private Long placeOrder() {
+        ResponseEntity<OrderResponseDto> res = restTemplate.postForEntity("/users/me/orders",
+                new HttpEntity<>(userHeaders), OrderResponseDto.class);
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return res.getBody().id();
+    }
+
+    private void updateStatus(Long orderId, Status status) {
+        adminHeaders.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<OrderResponseDto> res = restTemplate.exchange("/orders/{orderId}", HttpMethod.PUT,
+                new HttpEntity<>(new OrderStatusUpdateRequestDto(status), adminHeaders), OrderResponseDto.class,
+                orderId);
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+}
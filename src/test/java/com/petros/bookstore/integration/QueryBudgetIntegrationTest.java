@@ -0,0 +1,298 @@
+package com.petros.bookstore.integration;
+
+import static com.petros.bookstore.config.QueryBudgetExtension.assertMaxQueries;
+import static com.petros.bookstore.config.TestFixtures.headersFor;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.petros.bookstore.config.AbstractPostgresContainerTest;
+import com.petros.bookstore.config.MaxQueries;
+import com.petros.bookstore.config.QueryBudgetExtension;
+import com.petros.bookstore.config.TestFixtures;
+import com.petros.bookstore.dto.orderdto.OrderResponseDto;
+import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.enums.Role;
+import com.petros.bookstore.model.*;
+import com.petros.bookstore.repository.*;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * SQL statement budgets of the endpoints of every controller. A request that
+ * runs more statements than its budget fails with the statements it ran, so
+ * an N+1 regression shows up here before it shows up in production.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, //
+        properties = {QueryBudgetExtension.RECORDER_PROPERTY, "bookstore.reservations.reap-interval=PT1H",
+                "bookstore.orders.poll-interval=PT1H"})
+@ActiveProfiles("test")
+@ExtendWith(QueryBudgetExtension.class)
+class QueryBudgetIntegrationTest extends AbstractPostgresContainerTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private FavouriteBookRepository favouriteBookRepository;
+
+    private Long userId;
+    private Long bookId;
+    private Long otherBookId;
+    private Long orderId;
+    private Long cartItemId;
+    private HttpHeaders userHeaders;
+    private HttpHeaders adminHeaders;
+
+    @BeforeEach
+    void setUp() {
+        favouriteBookRepository.deleteAll();
+        orderRepository.deleteAll();
+        cartItemRepository.deleteAll();
+        shoppingCartRepository.deleteAll();
+        userRepository.deleteAll();
+        bookRepository.deleteAll();
+
+        User user = fixtures.saveUser("petrosdev", Role.USER, "Secure123");
+        userId = user.getId();
+        userHeaders = headersFor(userId);
+        adminHeaders = headersFor(fixtures.saveUser("adminboss", Role.ADMIN).getId());
+
+        Book book = fixtures.saveBook("Integration Testing", 9.99, Genre.TECH);
+        bookId = book.getId();
+        otherBookId = fixtures.saveBook("Query Budgets", 9.99, Genre.TECH).getId();
+
+        ShoppingCart cart = fixtures.saveCart(user);
+        fixtures.saveCartItem(cart, book, 1);
+        orderId = restTemplate.postForEntity("/users/me/orders", new HttpEntity<>(userHeaders),
+                OrderResponseDto.class).getBody().id();
+        cartItemId = fixtures.saveCartItem(cart, book, 1).getId();
+
+        FavouriteBook favourite = new FavouriteBook();
+        favourite.setUser(user);
+        favourite.setBook(book);
+        favouriteBookRepository.save(favourite);
+    }
+
+    @ParameterizedTest(name = "GET {0}")
+    @CsvSource({"/books, 1", //
+            "/books?title=testing&count=estimate, 2", //
+            "/books?after=, 1", //
+            "/books?q=testing, 1", //
+            "/books/facets, 1", //
+            "/books/suggest?q=integ, 0", //
+            "/books/{bookId}, 1", //
+            "/users/me, 1", //
+            "/users/me/orders, 3", //
+            "/users/me/orders?after=, 3", //
+            "/users/me/orders/{orderId}, 2", //
+            "/users/me/shopping-cart/items, 3", //
+            "/users/me/shopping-cart/items/{cartItemId}, 1", //
+            "/users/me/favourite-books, 2", //
+            "/users/me/favourite-books?count=none, 2"})
+    void userReads_ShouldStayWithinBudget(String path, int budget) {
+        assertGetWithinBudget(path, userHeaders, budget);
+    }
+
+    @ParameterizedTest(name = "GET {0}")
+    @CsvSource({"/books/cache/stats, 0", //
+            "/orders, 2", //
+            "/orders?after=, 2", //
+            "/orders/search?status=PENDING, 2", //
+            "/orders/search?open=true&userId={userId}, 2", //
+            "/orders/{orderId}, 1", //
+            "/orders/queue/stats, 1", //
+            "/users/{userId}/orders, 3", //
+            "/users/{userId}/shopping-cart/items, 3", //
+            "/users/{userId}/shopping-cart/items/{cartItemId}, 1", //
+            "/users/{userId}/favourite-books, 2", //
+            "/users/{userId}/favourite-books?count=none, 2", //
+            "/users, 1", //
+            "/users?count=estimate, 2", //
+            "/users/{userId}, 1", //
+            "/analytics/sales/daily?from=2025-01-01&to=2025-12-31, 1", //
+            "/analytics/sales/books?from=2025-01-01&to=2025-12-31, 1", //
+            "/analytics/sales/genres?from=2025-01-01&to=2025-12-31, 1", //
+            "/books/export, 1", //
+            "/orders/export?format=csv, 1", //
+            "/users/export?gzip=true, 1"})
+    void adminReads_ShouldStayWithinBudget(String path, int budget) {
+        assertGetWithinBudget(path, adminHeaders, budget);
+    }
+
+    @Test
+    @MaxQueries(3)
+    void register_ShouldStayWithinBudget() {
+        assertOk(send(HttpMethod.POST, "/auth/register", null, """
+                {"username": "newreader", "password": "Secure123", "firstName": "Nikos", "lastName": "Reader"}
+                """));
+    }
+
+    @Test
+    @MaxQueries(2)
+    void login_ShouldStayWithinBudget() {
+        assertOk(send(HttpMethod.POST, "/auth/login", null, """
+                {"username": "petrosdev", "password": "Secure123"}
+                """));
+    }
+
+    @Test
+    @MaxQueries(1)
+    void updateProfile_ShouldStayWithinBudget() {
+        assertOk(send(HttpMethod.PUT, "/users/me", userHeaders, """
+                {"firstName": "Petros"}
+                """));
+    }
+
+    @Test
+    @MaxQueries(3)
+    void deleteProfile_ShouldStayWithinBudget() {
+        assertOk(send(HttpMethod.DELETE, "/users/me", userHeaders, null));
+    }
+
+    @Test
+    @MaxQueries(1)
+    void addBook_ShouldStayWithinBudget() {
+        assertOk(send(HttpMethod.POST, "/books", adminHeaders, """
+                {"title": "New Book", "author": "Captain Stub", "description": "desc", "price": 5.0,
+                 "availability": 3, "genre": "TECH"}
+                """));
+    }
+
+    @Test
+    @MaxQueries(2)
+    void updateBook_ShouldStayWithinBudget() {
+        assertOk(send(HttpMethod.PUT, "/books/" + bookId, adminHeaders, """
+                {"title": "Renamed"}
+                """));
+    }
+
+    @Test
+    @MaxQueries(3)
+    void deleteBook_ShouldStayWithinBudget() {
+        assertOk(send(HttpMethod.DELETE, "/books/" + otherBookId, adminHeaders, null));
+    }
+
+    @Test
+    @MaxQueries(9)
+    void addCartItem_ShouldStayWithinBudget() {
+        assertOk(send(HttpMethod.POST, "/users/me/shopping-cart/items", userHeaders,
+                "{\"bookId\": " + otherBookId + ", \"quantity\": 1}"));
+    }
+
+    @Test
+    @MaxQueries(9)
+    void updateCartItem_ShouldStayWithinBudget() {
+        assertOk(send(HttpMethod.PUT, "/users/me/shopping-cart/items/" + cartItemId, userHeaders, """
+                {"quantity": 2}
+                """));
+    }
+
+    @Test
+    @MaxQueries(6)
+    void removeCartItem_ShouldStayWithinBudget() {
+        assertOk(send(HttpMethod.DELETE, "/users/me/shopping-cart/items/" + cartItemId, userHeaders, null));
+    }
+
+    @Test
+    @MaxQueries(8)
+    void placeOrder_ShouldStayWithinBudget() {
+        assertOk(send(HttpMethod.POST, "/users/me/orders", userHeaders, null));
+    }
+
+    @Test
+    @MaxQueries(4)
+    void updateOrderStatus_ShouldStayWithinBudget() {
+        assertOk(send(HttpMethod.PUT, "/orders/" + orderId, adminHeaders, """
+                {"status": "SHIPPED"}
+                """));
+    }
+
+    @Test
+    @MaxQueries(2) // the update, and one read of the statuses of the orders it skipped
+    void bulkUpdateOrderStatus_ShouldNotLoadOrders() {
+        String ids = LongStream.rangeClosed(orderId, orderId + 50).mapToObj(Long::toString)
+                .collect(Collectors.joining(", "));
+        ResponseEntity<String> res = send(HttpMethod.POST, "/orders/status-transitions", adminHeaders,
+                "{\"ids\": [" + ids + "], \"from\": \"PENDING\", \"to\": \"SHIPPED\"}");
+        assertOk(res);
+        assertThat(res.getBody()).contains("\"updated\":1,");
+    }
+
+    @Test
+    @MaxQueries(4)
+    void addFavourite_ShouldStayWithinBudget() {
+        assertOk(send(HttpMethod.POST, "/users/me/favourite-books", userHeaders,
+                "{\"bookId\": " + otherBookId + "}"));
+    }
+
+    @Test
+    @MaxQueries(4)
+    void removeFavourite_ShouldStayWithinBudget() {
+        assertOk(send(HttpMethod.DELETE, "/users/me/favourite-books/" + bookId, userHeaders, null));
+    }
+
+    @Test
+    @MaxQueries(2)
+    void updateUser_ShouldStayWithinBudget() {
+        assertOk(send(HttpMethod.PUT, "/users/" + userId, adminHeaders, """
+                {"role": "ADMIN"}
+                """));
+    }
+
+    @Test
+    @MaxQueries(3)
+    void deleteUser_ShouldStayWithinBudget() {
+        assertOk(send(HttpMethod.DELETE, "/users/" + userId, adminHeaders, null));
+    }
+
+    private void assertGetWithinBudget(String path, HttpHeaders headers, int budget) {
+        String uri = expand(path);
+        assertMaxQueries(budget, "GET " + uri, () -> assertOk(send(HttpMethod.GET, uri, headers, null)));
+    }
+
+    private ResponseEntity<String> send(HttpMethod method, String uri, HttpHeaders headers, String json) {
+        HttpHeaders request = new HttpHeaders();
+        if (headers != null) {
+            request.addAll(headers);
+        }
+        if (json != null) {
+            request.setContentType(MediaType.APPLICATION_JSON);
+        }
+        return restTemplate.exchange(uri, method, new HttpEntity<>(json, request), String.class);
+    }
+
+    private static void assertOk(ResponseEntity<String> res) {
+        assertThat(res.getStatusCode().is2xxSuccessful()).as(res.getBody()).isTrue();
+    }
+
+    private String expand(String path) {
+        Map<String, Long> ids = Map.of("{userId}", userId, "{bookId}", bookId, "{orderId}", orderId,
+                "{cartItemId}", cartItemId);
+        for (Map.Entry<String, Long> id : ids.entrySet()) {
+            path = path.replace(id.getKey(), id.getValue().toString());
+        }
+        return path;
+    }
+}
@@ -0,0 +1,183 @@
+package com.petros.bookstore.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.petros.bookstore.config.AbstractPostgresContainerTest;
+import com.petros.bookstore.dto.cartitemdto.CartItemRequestDto;
+import com.petros.bookstore.dto.orderdto.OrderResponseDto;
+import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.enums.Role;
+import com.petros.bookstore.model.*;
+import com.petros.bookstore.repository.*;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Checks that every GET endpoint runs without a Hibernate flush, i.e. inside a
+ * read-only transaction where no dirty checking takes place. Uses the
+ * Hibernate statistics to count the flushes of each request.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, //
+        properties = {"spring.jpa.properties.hibernate.generate_statistics=true", //
+                "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn"})
+@ActiveProfiles("test")
+class ReadOnlyTransactionIntegrationTest extends AbstractPostgresContainerTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private FavouriteBookRepository favouriteBookRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private Statistics statistics;
+    private Long userId;
+    private Long bookId;
+    private Long orderId;
+    private Long cartItemId;
+    private HttpHeaders userHeaders;
+    private HttpHeaders adminHeaders;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        favouriteBookRepository.deleteAll();
+        orderRepository.deleteAll();
+        cartItemRepository.deleteAll();
+        shoppingCartRepository.deleteAll();
+        userRepository.deleteAll();
+        bookRepository.deleteAll();
+
+        User user = new User();
+        user.setFirstName("Petros");
+        user.setLastName("Papadopoulos");
+        user.setUsername("petrosdev");
+        user.setPassword(passwordEncoder.encode("Secure123"));
+        user.setRole(Role.USER);
+        userId = userRepository.save(user).getId();
+
+        User admin = new User();
+        admin.setFirstName("Admin");
+        admin.setLastName("Boss");
+        admin.setUsername("adminboss");
+        admin.setPassword(passwordEncoder.encode("Admin123"));
+        admin.setRole(Role.ADMIN);
+        Long adminId = userRepository.save(admin).getId();
+
+        Book book = new Book();
+        book.setTitle("Integration Testing 101");
+        book.setAuthor("Captain Stub");
+        book.setDescription("desc");
+        book.setPrice(9.99);
+        book.setAvailability(10);
+        book.setGenre(Genre.SCIENCE_FICTION);
+        bookId = bookRepository.save(book).getId();
+
+        ShoppingCart cart = new ShoppingCart();
+        cart.setUser(user);
+        shoppingCartRepository.save(cart);
+
+        CartItem ordered = new CartItem();
+        ordered.setBook(book);
+        ordered.setShoppingCart(cart);
+        ordered.setQuantity(1);
+        cartItemRepository.save(ordered);
+
+        FavouriteBook favourite = new FavouriteBook();
+        favourite.setUser(user);
+        favourite.setBook(book);
+        favouriteBookRepository.save(favourite);
+
+        userHeaders = new HttpHeaders();
+        userHeaders.add("X-USER-ID", userId.toString());
+
+        adminHeaders = new HttpHeaders();
+        adminHeaders.add("X-USER-ID", adminId.toString());
+
+        orderId = restTemplate.postForEntity("/users/me/orders", new HttpEntity<>(userHeaders), OrderResponseDto.class)
+                .getBody().id();
+
+        CartItem pending = new CartItem();
+        pending.setBook(book);
+        pending.setShoppingCart(cart);
+        pending.setQuantity(1);
+        cartItemId = cartItemRepository.save(pending).getId();
+    }
+
+    @Test
+    void getEndpointsShouldNotFlush() {
+        List<String> userPaths = List.of(//
+                "/books", //
+                "/books?title=testing&count=estimate", //
+                "/books?after=", //
+                "/books?q=testing", //
+                "/books/" + bookId, //
+                "/users/me", //
+                "/users/me/orders", //
+                "/users/me/orders?after=", //
+                "/users/me/orders/" + orderId, //
+                "/users/me/shopping-cart/items", //
+                "/users/me/shopping-cart/items/" + cartItemId, //
+                "/users/me/favourite-books", //
+                "/users/me/favourite-books?count=none");
+        List<String> adminPaths = List.of(//
+                "/orders", //
+                "/orders?after=", //
+                "/orders/" + orderId, //
+                "/users/" + userId + "/orders", //
+                "/users/" + userId + "/shopping-cart/items", //
+                "/users/" + userId + "/favourite-books", //
+                "/users", //
+                "/users?count=estimate", //
+                "/users/" + userId);
+
+        userPaths.forEach(path -> assertNoFlush(path, userHeaders));
+        adminPaths.forEach(path -> assertNoFlush(path, adminHeaders));
+    }
+
+    @Test
+    void writeEndpointShouldFlush() {
+        userHeaders.setContentType(MediaType.APPLICATION_JSON);
+        statistics.clear();
+
+        ResponseEntity<String> res = restTemplate.postForEntity("/users/me/shopping-cart/items", //
+                new HttpEntity<>(new CartItemRequestDto(bookId, 1), userHeaders), String.class);
+
+        assertThat(res.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(statistics.getFlushCount()).isPositive();
+    }
+
+    private void assertNoFlush(String path, HttpHeaders headers) {
+        statistics.clear();
+
+        ResponseEntity<String> res = restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers),
+                String.class);
+
+        assertThat(res.getStatusCode()).as(path).isEqualTo(HttpStatus.OK);
+        assertThat(statistics.getFlushCount()).as("flushes of GET " + path).isZero();
+    }
+}
@@ -0,0 +1,194 @@
+package com.petros.bookstore.integration;
+
+import static com.petros.bookstore.config.TestFixtures.headersFor;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.petros.bookstore.config.AbstractPostgresContainerTest;
+import com.petros.bookstore.config.TestFixtures;
+import com.petros.bookstore.dto.analyticsdto.BookSalesDto;
+import com.petros.bookstore.dto.analyticsdto.DailySalesDto;
+import com.petros.bookstore.dto.analyticsdto.GenreSalesDto;
+import com.petros.bookstore.dto.bookdto.BookPopularityDto;
+import com.petros.bookstore.dto.orderdto.OrderResponseDto;
+import com.petros.bookstore.dto.orderdto.OrderStatusUpdateRequestDto;
+import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.enums.Role;
+import com.petros.bookstore.enums.Status;
+import com.petros.bookstore.model.*;
+import com.petros.bookstore.outbox.OutboxRelay;
+import com.petros.bookstore.repository.*;
+import java.time.LocalDate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Integration tests for the sales rollups: their upkeep from the order events,
+ * which the tests relay themselves, and their rebuild from the orders.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class SalesAnalyticsIntegrationTest extends AbstractPostgresContainerTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private OutboxRelay relay;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private SalesRollupRepository rollupRepository;
+
+    private ShoppingCart cart;
+    private Book techBook;
+    private Book horrorBook;
+    private HttpHeaders userHeaders;
+    private HttpHeaders adminHeaders;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        cartItemRepository.deleteAll();
+        shoppingCartRepository.deleteAll();
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        jdbcTemplate.update("DELETE FROM sales_daily");
+        jdbcTemplate.update("DELETE FROM sales_by_book_daily");
+        jdbcTemplate.update("DELETE FROM sales_by_genre_daily");
+
+        User user = fixtures.saveUser("petrosdev", Role.USER);
+        userHeaders = headersFor(user.getId());
+        adminHeaders = headersFor(fixtures.saveUser("adminboss", Role.ADMIN).getId());
+
+        techBook = fixtures.saveBook("Rollups in Practice", 20.0, Genre.TECH);
+        horrorBook = fixtures.saveBook("The Night Shift", 5.0, Genre.HORROR);
+
+        cart = fixtures.saveCart(user);
+    }
+
+    @Test
+    void deliveredEvents_ShouldUpdateRollups() {
+        Long orderId = placeOrder(2, 3);
+        relay.relay();
+
+        assertThat(daily()).containsExactly(new DailySalesDto(TODAY, 1, 5, 55.0, 0, 0.0));
+        assertThat(get("/analytics/sales/books", BookSalesDto[].class)).containsExactly(
+                new BookSalesDto(techBook.getId(), techBook.getTitle(), "Captain Stub", 2, 40.0),
+                new BookSalesDto(horrorBook.getId(), horrorBook.getTitle(), "Captain Stub", 3, 15.0));
+        assertThat(get("/analytics/sales/genres", GenreSalesDto[].class)).containsExactly(
+                new GenreSalesDto(Genre.TECH, 2, 40.0), new GenreSalesDto(Genre.HORROR, 3, 15.0));
+
+        updateStatus(orderId, Status.DELIVERED);
+        relay.relay();
+        assertThat(daily()).containsExactly(new DailySalesDto(TODAY, 1, 5, 55.0, 1, 55.0));
+
+        updateStatus(orderId, Status.SHIPPED);
+        relay.relay();
+        assertThat(daily()).containsExactly(new DailySalesDto(TODAY, 1, 5, 55.0, 0, 0.0));
+    }
+
+    @Test
+    void rebuild_ShouldCountOnlyDeliveredEvents() {
+        Long first = placeOrder(1, 0);
+        relay.relay();
+        placeOrder(0, 2); // not relayed yet
+        updateStatus(first, Status.DELIVERED); // not relayed yet
+        jdbcTemplate.update("UPDATE sales_daily SET orders = 42");
+        jdbcTemplate.update("UPDATE books SET price = 99"); // sold at the old prices
+
+        rebuild();
+        assertThat(daily()).containsExactly(new DailySalesDto(TODAY, 1, 1, 20.0, 0, 0.0));
+
+        relay.relay();
+        assertThat(daily()).containsExactly(new DailySalesDto(TODAY, 2, 3, 30.0, 1, 20.0));
+        assertThat(get("/analytics/sales/genres", GenreSalesDto[].class)).containsExactly(
+                new GenreSalesDto(Genre.TECH, 1, 20.0), new GenreSalesDto(Genre.HORROR, 2, 10.0));
+    }
+
+    @Test
+    void rebuild_ShouldKeepDaysBeforeFirstOrder() {
+        LocalDate archived = TODAY.minusYears(3);
+        jdbcTemplate.update("INSERT INTO sales_daily VALUES (?, 4, 9, 99.0, 4, 99.0)", archived);
+        placeOrder(1, 0);
+        relay.relay();
+
+        rebuild();
+
+        assertThat(get("/analytics/sales/daily?from=" + archived + "&to=" + TODAY, DailySalesDto[].class))
+                .containsExactly(new DailySalesDto(archived, 4, 9, 99.0, 4, 99.0),
+                        new DailySalesDto(TODAY, 1, 1, 20.0, 0, 0.0));
+    }
+
+    @Test
+    void bookPopularity_ShouldKeepSalesOfArchivedDays() {
+        jdbcTemplate.update("INSERT INTO sales_by_book_daily VALUES (?, ?, 4, 80.0)", TODAY.minusYears(3),
+                techBook.getId());
+        placeOrder(2, 3);
+        relay.relay();
+
+        assertThat(rollupRepository.bookPopularity()).containsExactlyInAnyOrder(
+                new BookPopularityDto(techBook.getId(), techBook.getTitle(), "Captain Stub", 6),
+                new BookPopularityDto(horrorBook.getId(), horrorBook.getTitle(), "Captain Stub", 3));
+    }
+
+    private Long placeOrder(int techUnits, int horrorUnits) {
+        if (techUnits > 0) {
+            fixtures.saveCartItem(cart, techBook, techUnits);
+        }
+        if (horrorUnits > 0) {
+            fixtures.saveCartItem(cart, horrorBook, horrorUnits);
+        }
+        ResponseEntity<OrderResponseDto> res = restTemplate.postForEntity("/users/me/orders",
+                new HttpEntity<>(userHeaders), OrderResponseDto.class);
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return res.getBody().id();
+    }
+
+    private void updateStatus(Long orderId, Status status) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(adminHeaders);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<OrderResponseDto> res = restTemplate.exchange("/orders/{orderId}", HttpMethod.PUT,
+                new HttpEntity<>(new OrderStatusUpdateRequestDto(status), headers), OrderResponseDto.class,
+                orderId);
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private void rebuild() {
+        ResponseEntity<Void> res = restTemplate.exchange("/analytics/sales/rebuild", HttpMethod.POST,
+                new HttpEntity<>(adminHeaders), Void.class);
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+    }
+
+    private DailySalesDto[] daily() {
+        return get("/analytics/sales/daily", DailySalesDto[].class);
+    }
+
+    private <T> T get(String path, Class<T> type) {
+        String uri = path.contains("?") ? path : path + "?from=" + TODAY + "&to=" + TODAY;
+        ResponseEntity<T> res = restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(adminHeaders), type);
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return res.getBody();
+    }
+}
@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.petros.bookstore.config.AbstractPostgresContainerTest;
+import com.petros.bookstore.dto.bookdto.BookResponseDto;
 import com.petros.bookstore.dto.cartitemdto.CartItemRequestDto;
 import com.petros.bookstore.dto.cartitemdto.CartItemResponseDto;
 import com.petros.bookstore.dto.cartitemdto.CartItemUpdateRequestDto;
@@ -13,8 +14,13 @@ import com.petros.bookstore.enums.Genre;
 import com.petros.bookstore.enums.Role;
 import com.petros.bookstore.repository.BookRepository;
 import com.petros.bookstore.repository.UserRepository;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -109,6 +115,22 @@ class ShoppingCartIntegrationTest extends AbstractPostgresContainerTest {
         assertThat(((List<?>) page.get("content"))).hasSize(1);
     }
 
+    @Test
+    void addItemToCart_ShouldInvalidateCachedBook() {
+        // warm the book cache
+        ResponseEntity<BookResponseDto> before = restTemplate.getForEntity("/books/{id}", BookResponseDto.class,
+                bookId);
+        assertThat(before.getBody().availability()).isEqualTo(20);
+
+        userHeaders.setContentType(MediaType.APPLICATION_JSON);
+        restTemplate.postForEntity("/users/me/shopping-cart/items",
+                new HttpEntity<>(new CartItemRequestDto(bookId, 2), userHeaders), CartItemResponseDto.class);
+
+        ResponseEntity<BookResponseDto> after = restTemplate.getForEntity("/books/{id}", BookResponseDto.class,
+                bookId);
+        assertThat(after.getBody().availability()).isEqualTo(18);
+    }
+
     @Test
     void addItemToCart_BookDoesNotExist_ShouldReturn404() {
         CartItemRequestDto req = new CartItemRequestDto(9_999L, 1);
@@ -238,6 +260,52 @@ class ShoppingCartIntegrationTest extends AbstractPostgresContainerTest {
         return res.getBody().id();
     }
 
+    @Test
+    void concurrentAddsOfOneBook_ShouldNotOversell() throws Exception {
+        int stock = 20;
+        int buyers = 60;
+        List<HttpHeaders> buyerHeaders = new ArrayList<>();
+        for (int i = 0; i < buyers; i++) {
+            User buyer = new User();
+            buyer.setFirstName("Buyer");
+            buyer.setLastName("No" + i);
+            buyer.setUsername("buyer" + i);
+            buyer.setPassword("x");
+            buyer.setRole(Role.USER);
+            HttpHeaders headers = new HttpHeaders();
+            headers.add("X-USER-ID", userRepository.save(buyer).getId().toString());
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            buyerHeaders.add(headers);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<HttpStatusCode>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(16)) {
+            for (HttpHeaders headers : buyerHeaders) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return restTemplate.postForEntity("/users/me/shopping-cart/items",
+                            new HttpEntity<>(new CartItemRequestDto(bookId, 1), headers), String.class)
+                            .getStatusCode();
+                }));
+            }
+            start.countDown();
+        }
+
+        int accepted = 0;
+        for (Future<HttpStatusCode> result : results) {
+            HttpStatusCode status = result.get();
+            if (status.is2xxSuccessful()) {
+                accepted++;
+            } else {
+                assertThat(status).isEqualTo(HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        assertThat(accepted).isEqualTo(stock);
+        assertThat(bookRepository.findById(bookId).orElseThrow().getAvailability()).isZero();
+    }
+
     @SuppressWarnings("unchecked")
     private Map<String, Object> getUserCartPage() {
         HttpEntity<Void> entity = new HttpEntity<>(userHeaders);
@@ -0,0 +1,140 @@
+package com.petros.bookstore.integration;
+
+import static com.petros.bookstore.config.TestFixtures.headersFor;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.petros.bookstore.config.AbstractPostgresContainerTest;
+import com.petros.bookstore.config.TestFixtures;
+import com.petros.bookstore.dto.cartitemdto.CartItemRequestDto;
+import com.petros.bookstore.dto.cartitemdto.CartItemResponseDto;
+import com.petros.bookstore.dto.cartitemdto.CartItemUpdateRequestDto;
+import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.enums.Role;
+import com.petros.bookstore.repository.BookRepository;
+import com.petros.bookstore.repository.CartItemRepository;
+import com.petros.bookstore.repository.UserRepository;
+import com.petros.bookstore.service.StockReservationService;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Integration tests for the stock reservations of cart items: expiry, release
+ * in batches and renewal on cart activity. Reservations are expired by moving
+ * their {@code expires_at} into the past.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, //
+        properties = "bookstore.reservations.batch-size=2")
+@ActiveProfiles("test")
+class StockReservationIntegrationTest extends AbstractPostgresContainerTest {
+
+    private static final String CART_ITEMS = "/users/me/shopping-cart/items";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private StockReservationService reservationService;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    private final List<Long> bookIds = new ArrayList<>();
+    private HttpHeaders userHeaders;
+    private HttpHeaders otherHeaders;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+        bookIds.clear();
+
+        for (int i = 0; i < 3; i++) {
+            bookIds.add(fixtures.saveBook("Reserved Book " + i, 10.0, Genre.TECH).getId());
+        }
+
+        userHeaders = headersFor(fixtures.saveUser("petrosdev", Role.USER).getId());
+        otherHeaders = headersFor(fixtures.saveUser("otherdev", Role.USER).getId());
+    }
+
+    @Test
+    void expiredReservations_ShouldReturnStockAndEmptyCart() {
+        bookIds.forEach(bookId -> addToCart(userHeaders, bookId, 2));
+        addToCart(otherHeaders, bookIds.get(0), 1);
+
+        expireReservationsOf(userHeaders);
+        reservationService.releaseExpired(); // three reservations, two per batch
+
+        assertThat(availability(bookIds.get(0))).isEqualTo(9);
+        assertThat(availability(bookIds.get(1))).isEqualTo(10);
+        assertThat(availability(bookIds.get(2))).isEqualTo(10);
+        assertThat(cartItemRepository.count()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM stock_reservations", Long.class))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void cartActivity_ShouldRenewAllReservationsOfTheCart() {
+        addToCart(userHeaders, bookIds.get(0), 2);
+        expireReservationsOf(userHeaders);
+
+        addToCart(userHeaders, bookIds.get(1), 1);
+        reservationService.releaseExpired();
+
+        assertThat(cartItemRepository.count()).isEqualTo(2);
+        assertThat(availability(bookIds.get(0))).isEqualTo(8);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM stock_reservations WHERE expires_at > now() + interval '20 minutes'",
+                Long.class)).isEqualTo(2);
+    }
+
+    @Test
+    void updateOfReleasedItem_ShouldReturn404() {
+        Long itemId = addToCart(userHeaders, bookIds.get(0), 2).id();
+        expireReservationsOf(userHeaders);
+        reservationService.releaseExpired();
+
+        userHeaders.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> res = restTemplate.exchange(CART_ITEMS + "/{id}", HttpMethod.PUT,
+                new HttpEntity<>(new CartItemUpdateRequestDto(5), userHeaders), String.class, itemId);
+
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(availability(bookIds.get(0))).isEqualTo(10);
+    }
+
+    private CartItemResponseDto addToCart(HttpHeaders headers, Long bookId, int quantity) {
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<CartItemResponseDto> res = restTemplate.postForEntity(CART_ITEMS,
+                new HttpEntity<>(new CartItemRequestDto(bookId, quantity), headers), CartItemResponseDto.class);
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return res.getBody();
+    }
+
+    private void expireReservationsOf(HttpHeaders headers) {
+        jdbcTemplate.update("""
+                UPDATE stock_reservations SET expires_at = now() - interval '1 minute'
+                WHERE cart_item_id IN (
+                    SELECT ci.id FROM cart_items ci
+                    JOIN shopping_cart sc ON sc.id = ci.shopping_cart_id
+                    WHERE sc.user_id = ?)
+                """, Long.valueOf(headers.getFirst("X-USER-ID")));
+    }
+
+    private int availability(Long bookId) {
+        return bookRepository.findById(bookId).orElseThrow().getAvailability();
+    }
+}
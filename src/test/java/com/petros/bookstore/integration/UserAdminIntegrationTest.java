@@ -94,6 +94,34 @@ class UserAdminIntegrationTest extends AbstractPostgresContainerTest {
         assertThat(content).hasSize(1);
     }
 
+    @Test
+    void getAllUsers_WithWildcardsInFilter_ShouldMatchThemLiterally() {
+        HttpEntity<Void> entity = new HttpEntity<>(adminHeaders);
+
+        for (String filter : List.of("o_d", "%", "o_d&count=none", "%&count=estimate")) {
+            ResponseEntity<Map<String, Object>> response = restTemplate.exchange("/users?username=" + filter,
+                    HttpMethod.GET, entity, new ParameterizedTypeReference<>() {
+                    });
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat((List<?>) response.getBody().get("content")).as(filter).isEmpty();
+        }
+    }
+
+    @Test
+    void getAllUsers_WithEstimatedCount_ShouldReportEstimate() {
+        HttpEntity<Void> entity = new HttpEntity<>(adminHeaders);
+
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange("/users?username=petrosdev&count=estimate",
+                HttpMethod.GET, entity, new ParameterizedTypeReference<>() {
+                });
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat((List<?>) response.getBody().get("content")).hasSize(1);
+        assertThat(response.getBody().get("totalType")).isEqualTo("estimate");
+        assertThat(((Number) response.getBody().get("totalElements")).longValue()).isGreaterThanOrEqualTo(1);
+    }
+
     @Test
     void updateUser_AsAdmin_ShouldPromoteUser() {
         UserAdminUpdateRequestDto req = new UserAdminUpdateRequestDto("Updated", "User", Role.ADMIN);
@@ -3,20 +3,31 @@ package com.petros.bookstore.service;
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.petros.bookstore.cache.BookCache;
+import com.petros.bookstore.cache.BookSuggestions;
+import com.petros.bookstore.dto.bookdto.BookFacetsDto;
 import com.petros.bookstore.dto.bookdto.BookRequestDto;
 import com.petros.bookstore.dto.bookdto.BookResponseDto;
+import com.petros.bookstore.dto.bookdto.BookSummaryDto;
 import com.petros.bookstore.dto.bookdto.BookUpdateRequestDto;
+import com.petros.bookstore.dto.paginationdto.PaginatedResponseDto;
+import com.petros.bookstore.enums.CountMode;
 import com.petros.bookstore.exception.customException.ResourceNotFoundException;
 import com.petros.bookstore.model.Book;
 import com.petros.bookstore.enums.Genre;
+import com.petros.bookstore.repository.BookFacetRepository;
 import com.petros.bookstore.repository.BookRepository;
+import com.petros.bookstore.repository.RowEstimateRepository;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
 
 @ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
 class BookServiceTest {
@@ -24,16 +35,30 @@ class BookServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private RowEstimateRepository rowEstimates;
+
+    @Mock
+    private BookFacetRepository bookFacets;
+
+    @Mock
+    private BookSuggestions bookSuggestions;
+
+    @Spy
+    private BookCache bookCache = new BookCache(100, Duration.ofMinutes(5), Duration.ofSeconds(2));
+
     @InjectMocks
     private BookService bookService;
 
     private Book book;
+    private BookSummaryDto summary;
     private BookRequestDto bookRequestDto;
     private BookUpdateRequestDto bookUpdateRequestDto;
 
     @BeforeEach
     void setup() {
         book = new Book(1L, "Title", "Author", "Description", 19.99, 10, Genre.FANTASY);
+        summary = new BookSummaryDto(1L, "Title", "Author", 19.99, 10, Genre.FANTASY);
         bookRequestDto = new BookRequestDto("Title", "Author", "Description", 19.99, 10, Genre.FANTASY);
         bookUpdateRequestDto = new BookUpdateRequestDto("New Title", null, null, null, null, null);
     }
@@ -71,6 +96,31 @@ class BookServiceTest {
         assertThat(response.title()).isEqualTo("Title");
     }
 
+    @Test
+    void testFindBookByIdServedFromCache() {
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+
+        bookService.findBookById(1L);
+        BookResponseDto response = bookService.findBookById(1L);
+
+        assertThat(response.title()).isEqualTo("Title");
+        verify(bookRepository, times(1)).findById(1L);
+        assertThat(bookService.getCacheStats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void testUpdateBookEvictsCachedBook() {
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.save(any(Book.class))).thenReturn(book);
+
+        bookService.findBookById(1L);
+        bookService.updateBook(1L, bookUpdateRequestDto);
+        BookResponseDto response = bookService.findBookById(1L);
+
+        assertThat(response.title()).isEqualTo("New Title");
+        verify(bookCache).evict(1L);
+    }
+
     @Test
     void testFindBookByIdNotFound() {
         when(bookRepository.findById(999L)).thenReturn(Optional.empty());
@@ -117,14 +167,95 @@ class BookServiceTest {
     }
 
     @Test
+    @SuppressWarnings("unchecked")
     void testSearchBooks() {
-        Page<Book> page = new PageImpl<>(List.of(book));
-        when(bookRepository.searchBooks(any(), any(), any(), any(), any(), any(), any())).thenReturn(page);
+        Page<BookSummaryDto> page = new PageImpl<>(List.of(summary));
+        when(bookRepository.findSummaries(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
-        Page<BookResponseDto> result = bookService.searchBooks("Title", null, null, Genre.FANTASY, null, null,
+        Page<BookSummaryDto> result = bookService.searchBooks("Title", null, null, Genre.FANTASY, null, null,
                 PageRequest.of(0, 10));
 
         assertThat(result.getContent()).hasSize(1);
-        verify(bookRepository).searchBooks(any(), any(), any(), any(), any(), any(), any());
+        verify(bookRepository).findSummaries(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void testWritesUpdateSuggestions() {
+        when(bookRepository.save(any(Book.class))).thenReturn(book);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.existsById(1L)).thenReturn(true);
+
+        bookService.save(bookRequestDto);
+        bookService.updateBook(1L, bookUpdateRequestDto);
+        bookService.deleteBookById(1L);
+
+        verify(bookSuggestions).put(1L, "Title", "Author");
+        verify(bookSuggestions).put(1L, "New Title", "Author");
+        verify(bookSuggestions).remove(1L);
+    }
+
+    @Test
+    void testUnfilteredFacetsServedFromCacheUntilBookSaved() {
+        BookFacetsDto facets = new BookFacetsDto(Map.of(Genre.FANTASY, 1L), List.of());
+        when(bookFacets.countFacets(null, null, null, null, null, null)).thenReturn(facets);
+        when(bookRepository.save(any(Book.class))).thenReturn(book);
+
+        bookService.getFacets(null, null, null, null, null, null);
+        BookFacetsDto result = bookService.getFacets(null, null, null, null, null, null);
+        bookService.save(bookRequestDto);
+        bookService.getFacets(null, null, null, null, null, null);
+
+        assertThat(result).isEqualTo(facets);
+        verify(bookFacets, times(2)).countFacets(null, null, null, null, null, null);
+    }
+
+    @Test
+    void testFilteredFacetsNotCached() {
+        BookFacetsDto facets = new BookFacetsDto(Map.of(Genre.FANTASY, 1L), List.of());
+        when(bookFacets.countFacets("Title", null, null, null, null, null)).thenReturn(facets);
+
+        bookService.getFacets("Title", null, null, null, null, null);
+        bookService.getFacets("Title", null, null, null, null, null);
+
+        verify(bookFacets, times(2)).countFacets("Title", null, null, null, null, null);
+    }
+
+    @Test
+    void testSearchBooksWithoutCount() {
+        when(bookRepository.findSummarySlice(any(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(summary), PageRequest.of(0, 1), true));
+
+        PaginatedResponseDto<BookSummaryDto> result = bookService.searchBooks(null, null, null, null, null, null,
+                PageRequest.of(0, 1), CountMode.NONE);
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.isHasNext()).isTrue();
+        assertThat(result.getTotalElements()).isNull();
+        verify(bookRepository, never()).findSummaries(any(), any(Pageable.class));
+        verifyNoInteractions(rowEstimates);
+    }
+
+    @Test
+    void testSearchBooksWithEstimatedCount() {
+        when(bookRepository.findSummarySlice(any(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(summary), PageRequest.of(0, 10), false));
+        when(rowEstimates.estimateBooks(null, null, Genre.FANTASY, null, null, null)).thenReturn(40L);
+
+        PaginatedResponseDto<BookSummaryDto> result = bookService.searchBooks(null, null, null, Genre.FANTASY,
+                null, null, PageRequest.of(0, 10), CountMode.ESTIMATE);
+
+        assertThat(result.getTotalType()).isEqualTo(CountMode.ESTIMATE);
+        assertThat(result.getTotalElements()).isEqualTo(40L);
+        assertThat(result.getTotalPages()).isEqualTo(4);
+    }
+
+    @Test
+    void testFullTextSearch() {
+        Page<BookSummaryDto> page = new PageImpl<>(List.of(summary));
+        when(bookRepository.fullTextSearch(eq("title"), any())).thenReturn(page);
+
+        Page<BookSummaryDto> result = bookService.fullTextSearch("  title ", PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).extracting(BookSummaryDto::title).containsExactly("Title");
     }
 }
@@ -0,0 +1,76 @@
+package com.petros.bookstore.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class OrderWorkerPoolTest {
+
+    private final OrderProcessingService processing = mock(OrderProcessingService.class);
+
+    @Test
+    void stopWaitsForTheJobInFlightAndTakesNoMore() throws Exception {
+        CountDownLatch taken = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        AtomicBoolean finished = new AtomicBoolean();
+        when(processing.processNext()).thenAnswer(invocation -> {
+            calls.incrementAndGet();
+            taken.countDown();
+            release.await();
+            finished.set(true);
+            return true;
+        });
+        OrderWorkerPool pool = new OrderWorkerPool(processing, 1, Duration.ofMillis(10), Duration.ofSeconds(5));
+        pool.start();
+        assertThat(taken.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Thread.ofVirtual().start(() -> {
+            sleep(200);
+            release.countDown();
+        });
+        pool.stop();
+
+        assertThat(finished).isTrue();
+        assertThat(calls).hasValue(1);
+        assertThat(pool.isRunning()).isFalse();
+    }
+
+    @Test
+    void stopInterruptsJobsThatOutliveTheDrainTimeout() throws Exception {
+        CountDownLatch taken = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        when(processing.processNext()).thenAnswer(invocation -> {
+            taken.countDown();
+            try {
+                Thread.sleep(Duration.ofMinutes(1));
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            return true;
+        });
+        OrderWorkerPool pool = new OrderWorkerPool(processing, 1, Duration.ofMillis(10), Duration.ofMillis(100));
+        pool.start();
+        assertThat(taken.await(5, TimeUnit.SECONDS)).isTrue();
+
+        pool.stop();
+
+        Thread.sleep(100);
+        assertThat(interrupted).isTrue();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}